@@ -0,0 +1,31 @@
+package it.unibo.agar.model;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Seeded world generation, so every benchmark run and every commit sees the same layout.
+ */
+public final class BenchmarkWorlds {
+    public static final long SEED = 42;
+
+    private BenchmarkWorlds() { }
+
+    public static List<Player> players(final int count, final int worldSize, final Random random) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Player("p" + i, random.nextInt(worldSize), random.nextInt(worldSize), 120.0))
+                .toList();
+    }
+
+    public static List<Food> foods(final int count, final int worldSize, final Random random) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Food("f" + i, random.nextInt(worldSize), random.nextInt(worldSize), Food.DEFAULT_MASS))
+                .toList();
+    }
+
+    public static World world(final int worldSize, final int players, final int foods) {
+        final Random random = new Random(SEED);
+        return new World(worldSize, worldSize, players(players, worldSize, random), foods(foods, worldSize, random));
+    }
+}
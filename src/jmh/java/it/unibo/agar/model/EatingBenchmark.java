@@ -0,0 +1,68 @@
+package it.unibo.agar.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eating resolution for every player: the original full scan against the grid-backed lookups.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EatingBenchmark {
+
+    @Param({"1000", "5000"})
+    public int worldSize;
+
+    @Param({"50", "500"})
+    public int players;
+
+    @Param({"150", "5000"})
+    public int foods;
+
+    private World world;
+    private SpatialGrid<Player> playerGrid;
+    private SpatialGrid<Food> foodGrid;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.world(worldSize, players, foods);
+        playerGrid = new SpatialGrid<>(50.0, world.getPlayers());
+        foodGrid = new SpatialGrid<>(50.0, world.getFoods());
+    }
+
+    @Benchmark
+    public void fullScan(final Blackhole blackhole) {
+        for (Player player : world.getPlayers()) {
+            blackhole.consume(world.getFoods().stream()
+                    .filter(food -> EatingManager.canEatFood(player, food))
+                    .toList());
+            blackhole.consume(world.getPlayersExcludingSelf(player).stream()
+                    .filter(other -> EatingManager.canEatPlayer(player, other))
+                    .toList());
+        }
+    }
+
+    @Benchmark
+    public void gridLookup(final Blackhole blackhole) {
+        for (Player player : world.getPlayers()) {
+            blackhole.consume(EatingManager.edibleFoods(player, foodGrid));
+            blackhole.consume(EatingManager.ediblePlayers(player, playerGrid));
+        }
+    }
+}
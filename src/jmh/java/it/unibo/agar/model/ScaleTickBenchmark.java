@@ -0,0 +1,62 @@
+package it.unibo.agar.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of {@link ArrayGameStateManager} at the scale it was built for: 10k players and 100k foods on a
+ * 10000x10000 world. Eaten food respawns, so the population stays the same however long the run lasts.
+ * {@link DefaultGameStateManager} is left out; at this size a single tick takes about a second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ScaleTickBenchmark {
+    private static final double CELL_SIZE = 50.0;
+
+    @Param({"10000"})
+    public int worldSize;
+
+    @Param({"10000"})
+    public int players;
+
+    @Param({"100000"})
+    public int foods;
+
+    private ArrayGameStateManager manager;
+    private double direction = 1;
+
+    @Setup
+    public void setUp() {
+        final World world = BenchmarkWorlds.world(worldSize, players, foods);
+        manager = new ArrayGameStateManager(new ArrayWorldStore(world), CELL_SIZE, true, BenchmarkWorlds.SEED);
+    }
+
+    @Benchmark
+    public ArrayWorldStore arrayManagerTick() {
+        // Steered through the slots: a World view of 110k entities would cost more than the tick itself
+        final ArrayWorldStore store = manager.getStore();
+        direction = -direction;
+        for (int slot = 0; slot < store.playerSlots; slot++) {
+            if (store.playerAlive[slot]) {
+                store.setDirection(slot, direction, 0);
+            }
+        }
+        manager.tick();
+        return store;
+    }
+}
@@ -0,0 +1,69 @@
+package it.unibo.agar.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulation tick of the local managers. Players walk back and forth, so after the
+ * first few ticks the world reaches a steady state and every invocation does the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+
+    @Param({"1000", "5000"})
+    public int worldSize;
+
+    @Param({"50", "500"})
+    public int players;
+
+    @Param({"150", "5000"})
+    public int foods;
+
+    private DefaultGameStateManager defaultManager;
+    private ArrayGameStateManager arrayManager;
+    private double direction = 1;
+
+    @Setup
+    public void setUp() {
+        final World world = BenchmarkWorlds.world(worldSize, players, foods);
+        defaultManager = new DefaultGameStateManager(world);
+        arrayManager = new ArrayGameStateManager(world);
+    }
+
+    @Benchmark
+    public World defaultManagerTick() {
+        steer(defaultManager);
+        defaultManager.tick();
+        return defaultManager.getWorld();
+    }
+
+    @Benchmark
+    public ArrayWorldStore arrayManagerTick() {
+        steer(arrayManager);
+        arrayManager.tick();
+        return arrayManager.getStore();
+    }
+
+    private void steer(final GameStateManager manager) {
+        direction = -direction;
+        for (Player player : manager.getWorld().getPlayers()) {
+            manager.setPlayerDirection(player.getId(), direction, 0);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package it.unibo.agar.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and removals on the immutable {@link World}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+    private static final int REMOVED_PER_TICK = 10;
+
+    @Param({"50", "500", "5000"})
+    public int players;
+
+    @Param({"150", "5000", "50000"})
+    public int foods;
+
+    private World world;
+    private String[] ids;
+    private List<Food> eatenFoods;
+    private List<Player> eatenPlayers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.world(5000, players, foods);
+        ids = world.getPlayers().stream().map(Player::getId).toArray(String[]::new);
+        eatenFoods = world.getFoods().subList(0, Math.min(REMOVED_PER_TICK, foods));
+        eatenPlayers = world.getPlayers().subList(0, Math.min(REMOVED_PER_TICK, players));
+    }
+
+    @Benchmark
+    public Optional<Player> getPlayerById() {
+        next = (next + 1) % ids.length;
+        return world.getPlayerById(ids[next]);
+    }
+
+    @Benchmark
+    public World removeFoods() {
+        return world.removeFoods(eatenFoods);
+    }
+
+    @Benchmark
+    public World removePlayers() {
+        return world.removePlayers(eatenPlayers);
+    }
+}
@@ -0,0 +1,68 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.BenchmarkWorlds;
+import it.unibo.agar.model.TickScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameServerImpl} tick of a world filled with server-hosted bots, decisions included.
+ * Eaten bots are replaced between iterations, so the population stays close to the parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BotTickBenchmark {
+    private static final double TICK_SECONDS = 0.030;
+    private static final int WORLD_SIZE = 5000;
+
+    @Param({"500", "2000"})
+    public int bots;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private GameServerImpl server;
+
+    @Setup
+    public void setUp() throws RemoteException {
+        server = new GameServerImpl(WORLD_SIZE, WORLD_SIZE, 150, 1 / TICK_SECONDS, TickScheduler.OverrunPolicy.CATCH_UP,
+                null, BenchmarkWorlds.SEED, parallelism);
+        server.shutdown();
+        server.addBots(bots);
+    }
+
+    @Setup(Level.Iteration)
+    public void refill() throws RemoteException {
+        server.addBots(bots - server.getBotCount());
+    }
+
+    @TearDown
+    public void tearDown() throws RemoteException {
+        UnicastRemoteObject.unexportObject(server, true);
+    }
+
+    @Benchmark
+    public GameServerImpl botTick() {
+        server.tick(TICK_SECONDS, false);
+        return server;
+    }
+}
@@ -0,0 +1,77 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.BenchmarkWorlds;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.TickScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulation part of a {@link GameServerImpl} tick (movement and eating, no broadcast).
+ * The server's own game loop is stopped so only the benchmark thread ticks it; with a parallelism
+ * above one, worlds large enough to be split into regions are ticked on that many workers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerTickBenchmark {
+    private static final double TICK_SECONDS = 0.030;
+
+    @Param({"1000", "5000"})
+    public int worldSize;
+
+    @Param({"50", "500"})
+    public int players;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private GameServerImpl server;
+    private List<String> ids;
+    private double direction = 1;
+
+    @Setup
+    public void setUp() throws RemoteException {
+        server = new GameServerImpl(worldSize, worldSize, 150, 1 / TICK_SECONDS, TickScheduler.OverrunPolicy.CATCH_UP,
+                null, BenchmarkWorlds.SEED, parallelism);
+        server.shutdown();
+        for (Player player : BenchmarkWorlds.players(players, worldSize, new Random(BenchmarkWorlds.SEED))) {
+            server.placePlayer(player);
+        }
+        ids = server.getAllPlayers().stream().map(Player::getId).toList();
+    }
+
+    @TearDown
+    public void tearDown() throws RemoteException {
+        UnicastRemoteObject.unexportObject(server, true);
+    }
+
+    @Benchmark
+    public GameServerImpl simulationTick() throws RemoteException {
+        direction = -direction;
+        for (String id : ids) {
+            server.setPlayerDirection(id, direction, 0);
+        }
+        server.tick(TICK_SECONDS, false);
+        return server;
+    }
+}
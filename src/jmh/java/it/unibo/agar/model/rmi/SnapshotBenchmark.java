@@ -0,0 +1,97 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.BenchmarkWorlds;
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot serialization: default Java serialization of the entity lists against {@link SnapshotCodec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"50", "500"})
+    public int players;
+
+    @Param({"150", "5000"})
+    public int foods;
+
+    private ArrayList<Player> playerList;
+    private ArrayList<Food> foodList;
+    private StateDelta movement;
+    private byte[] javaBytes;
+    private byte[] codecBytes;
+    private SnapshotCodec.Encoder deltaEncoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(BenchmarkWorlds.SEED);
+        playerList = new ArrayList<>(BenchmarkWorlds.players(players, 5000, random));
+        foodList = new ArrayList<>(BenchmarkWorlds.foods(foods, 5000, random));
+        List<Player> moved = playerList.stream().map(p -> p.moveTo(p.getX() + 1, p.getY() + 1)).toList();
+        movement = new StateDelta(2, 1, false, List.of(), moved, List.of(), List.of(), List.of());
+        javaBytes = javaSerialize();
+        codecBytes = SnapshotCodec.encodeWorld(1, playerList, foodList);
+        deltaEncoder = new SnapshotCodec.Encoder();
+        deltaEncoder.encode(StateDelta.keyframe(1, playerList, foodList));
+    }
+
+    @Benchmark
+    public byte[] javaSerialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(playerList);
+            out.writeObject(foodList);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object javaDeserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(javaBytes))) {
+            in.readObject();
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public byte[] codecEncodeKeyframe() {
+        return SnapshotCodec.encodeWorld(1, playerList, foodList);
+    }
+
+    @Benchmark
+    public StateDelta codecDecodeKeyframe() {
+        return SnapshotCodec.decodeWorld(codecBytes);
+    }
+
+    @Benchmark
+    public byte[] codecEncodeMovementDelta() {
+        return deltaEncoder.encode(movement);
+    }
+}
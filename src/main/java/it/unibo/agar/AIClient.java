@@ -1,61 +1,64 @@
 package it.unibo.agar;
 
 import it.unibo.agar.model.*;
+import it.unibo.agar.model.net.Transport;
 import it.unibo.agar.model.rmi.GameClientImpl;
 import it.unibo.agar.model.rmi.GameServer;
 import it.unibo.agar.model.rmi.RemoteGameStateManager;
-import it.unibo.agar.model.rmi.RemotePlayerImpl;
 import it.unibo.agar.view.GlobalView;
 
 import javax.swing.*;
-import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.util.Random;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.List;
-import java.util.Comparator;
 import java.util.Optional;
 
 /**
- * AI Client that connects to the RMI server and plays automatically
+ * AI Client that connects to the server and plays automatically. An optional second argument is
+ * the server's URL, {@code rmi://} or {@code tcp://}.
+ * With {@code --server-bots <n>} it instead asks the server to host n more bots, or to remove
+ * -n bots when n is negative, and exits.
  */
 public class AIClient {
-    private static final String SERVER_URL = "rmi://localhost:1099/AgarGameServer";
+    private static final String DEFAULT_SERVER_URL = "rmi://localhost:1099/AgarGameServer";
     private static final Random random = new Random();
     private static final long AI_UPDATE_INTERVAL = 100; // ms
-    private static final double SAFE_DISTANCE = 100.0; // Safe distance from dangerous players
 
+    private static String serverUrl = DEFAULT_SERVER_URL;
     private static Timer aiTimer;
     private static String currentPlayerId;
     private static GameClientImpl gameClient;
-    private static AIDecisionType currentDecision = AIDecisionType.EXPLORE;
+    private static AIMovement.DecisionType currentDecision = AIMovement.DecisionType.EXPLORE;
 
     public static void main(String[] args) {
+        Transport.setTimeouts(Transport.DEFAULT_CONNECT_TIMEOUT_MILLIS, Transport.DEFAULT_CALL_TIMEOUT_MILLIS);
+        if (args.length > 1 && args[0].equals("--server-bots")) {
+            serverUrl = args.length > 2 ? args[2] : DEFAULT_SERVER_URL;
+            changeServerBots(Integer.parseInt(args[1]));
+            return;
+        }
         try {
             currentPlayerId = args.length > 0 ? args[0] : "ai_" + random.nextInt(1000);
+            serverUrl = args.length > 1 ? args[1] : DEFAULT_SERVER_URL;
 
             System.out.println("Starting AI client with GUI as " + currentPlayerId + "...");
 
-            GameServer gameServer = (GameServer) Naming.lookup(SERVER_URL);
+            GameServer gameServer = (GameServer) Transport.lookup(serverUrl);
             System.out.println("AI connected to game server!");
 
             int worldWidth = gameServer.getWorldWidth();
             int worldHeight = gameServer.getWorldHeight();
 
-            double initialMass = 120.0;
-            double initialX = random.nextDouble() * worldWidth;
-            double initialY = random.nextDouble() * worldHeight;
-            Player initialPlayer = new Player(currentPlayerId, initialX, initialY, initialMass);
-
-            RemotePlayerImpl remotePlayer = new RemotePlayerImpl(initialPlayer);
             gameClient = new GameClientImpl(currentPlayerId);
 
-            // Register both player and client
-            gameServer.registerPlayer(remotePlayer);
+            // Register both player and client; the server picks where the player spawns
+            gameServer.joinGame(currentPlayerId);
             System.out.println("AI Player registered");
 
             gameServer.registerClient(gameClient);
+            gameServer.setFullWorldView(currentPlayerId, true); // The AI and its global view need every entity
             System.out.println("AI Client registered");
 
             System.out.println("AI Player " + currentPlayerId + " registered successfully!");
@@ -124,6 +127,17 @@ public class AIClient {
         }
     }
 
+    private static void changeServerBots(int delta) {
+        try {
+            GameServer gameServer = (GameServer) Transport.lookup(serverUrl);
+            int bots = delta >= 0 ? gameServer.addBots(delta) : gameServer.removeBots(-delta);
+            System.out.println("The server now hosts " + bots + " bots");
+        } catch (Exception e) {
+            System.err.println("AI client error: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
     private static void runAdvancedAILogic(GameServer gameServer, GameClientImpl gameClient,
                                            String playerId, int worldWidth, int worldHeight)
             throws RemoteException {
@@ -150,160 +164,10 @@ public class AIClient {
 
         Player ourPlayer = ourPlayerOpt.get();
 
-        AIDecision decision = makeAIDecision(ourPlayer, players, foods);
-        currentDecision = decision.type; // Store for GUI display
-
-        double directionX = 0, directionY = 0;
-
-        switch (decision.type) {
-            case FLEE:
-                if (decision.targetPlayer != null) {
-                    double fleeX = ourPlayer.getX() - decision.targetPlayer.getX();
-                    double fleeY = ourPlayer.getY() - decision.targetPlayer.getY();
-                    double fleeDistance = Math.hypot(fleeX, fleeY);
+        AIMovement.Decision decision = AIMovement.decide(ourPlayer, players, foods);
+        currentDecision = decision.type(); // Store for GUI display
 
-                    if (fleeDistance > 0) {
-                        directionX = fleeX / fleeDistance;
-                        directionY = fleeY / fleeDistance;
-
-                        directionX += (random.nextDouble() - 0.5) * 0.3;
-                        directionY += (random.nextDouble() - 0.5) * 0.3;
-
-                        double magnitude = Math.hypot(directionX, directionY);
-                        if (magnitude > 0) {
-                            directionX /= magnitude;
-                            directionY /= magnitude;
-                        }
-                    }
-                }
-                break;
-
-            case HUNT:
-                if (decision.targetPlayer != null) {
-                    double huntX = decision.targetPlayer.getX() - ourPlayer.getX();
-                    double huntY = decision.targetPlayer.getY() - ourPlayer.getY();
-                    double huntDistance = Math.hypot(huntX, huntY);
-
-                    if (huntDistance > 0) {
-                        directionX = huntX / huntDistance;
-                        directionY = huntY / huntDistance;
-                    }
-                }
-                break;
-
-            case SEEK_FOOD:
-                if (decision.targetFood != null) {
-                    double foodX = decision.targetFood.getX() - ourPlayer.getX();
-                    double foodY = decision.targetFood.getY() - ourPlayer.getY();
-                    double foodDistance = Math.hypot(foodX, foodY);
-
-                    if (foodDistance > 0) {
-                        directionX = foodX / foodDistance;
-                        directionY = foodY / foodDistance;
-                    }
-                }
-                break;
-
-            case EXPLORE:
-                double centerX = worldWidth / 2.0;
-                double centerY = worldHeight / 2.0;
-                double toCenterX = centerX - ourPlayer.getX();
-                double toCenterY = centerY - ourPlayer.getY();
-                double toCenterDistance = Math.hypot(toCenterX, toCenterY);
-
-                if (toCenterDistance > worldWidth * 0.3) {
-                    directionX = toCenterX / toCenterDistance;
-                    directionY = toCenterY / toCenterDistance;
-                } else {
-                    double angle = random.nextDouble() * 2 * Math.PI;
-                    directionX = Math.cos(angle);
-                    directionY = Math.sin(angle);
-                }
-                break;
-
-            case STOP:
-            default:
-                directionX = 0;
-                directionY = 0;
-                break;
-        }
-
-        double boundaryAvoidance = avoidBoundaries(ourPlayer, worldWidth, worldHeight);
-        if (boundaryAvoidance > 0) {
-            if (ourPlayer.getX() < boundaryAvoidance) {
-                directionX = Math.max(directionX, 0.5);
-            }
-            if (ourPlayer.getX() > worldWidth - boundaryAvoidance) {
-                directionX = Math.min(directionX, -0.5);
-            }
-            if (ourPlayer.getY() < boundaryAvoidance) {
-                directionY = Math.max(directionY, 0.5);
-            }
-            if (ourPlayer.getY() > worldHeight - boundaryAvoidance) {
-                directionY = Math.min(directionY, -0.5);
-            }
-        }
-
-        gameServer.setPlayerDirection(playerId, directionX, directionY);
-    }
-
-    private static AIDecision makeAIDecision(Player ourPlayer, List<Player> allPlayers, List<Food> foods) {
-        for (Player other : allPlayers) {
-            if (other.getId().equals(ourPlayer.getId())) continue;
-
-            double distance = ourPlayer.distanceTo(other);
-            boolean canEatUs = other.getMass() > ourPlayer.getMass() * 1.1;
-
-            if (canEatUs && distance < SAFE_DISTANCE) {
-                return new AIDecision(AIDecisionType.FLEE, other, null);
-            }
-        }
-
-        for (Player other : allPlayers) {
-            if (other.getId().equals(ourPlayer.getId())) continue;
-
-            double distance = ourPlayer.distanceTo(other);
-            boolean canEatThem = ourPlayer.getMass() > other.getMass() * 1.1;
-
-            if (canEatThem && distance < SAFE_DISTANCE * 1.5) {
-                return new AIDecision(AIDecisionType.HUNT, other, null);
-            }
-        }
-
-        Optional<Food> nearestFood = foods.stream()
-                .min(Comparator.comparingDouble(food -> ourPlayer.distanceTo(food)));
-
-        if (nearestFood.isPresent() && ourPlayer.distanceTo(nearestFood.get()) < SAFE_DISTANCE * 2) {
-            return new AIDecision(AIDecisionType.SEEK_FOOD, null, nearestFood.get());
-        }
-
-        return new AIDecision(AIDecisionType.EXPLORE, null, null);
-    }
-
-    private static double avoidBoundaries(Player player, int worldWidth, int worldHeight) {
-        double margin = player.getRadius() * 3;
-
-        double distanceToEdge = Math.min(
-                Math.min(player.getX(), worldWidth - player.getX()),
-                Math.min(player.getY(), worldHeight - player.getY())
-        );
-
-        return distanceToEdge < margin ? margin : 0;
-    }
-
-    public enum AIDecisionType {
-        FLEE, HUNT, SEEK_FOOD, EXPLORE, STOP
-    }
-
-    private static class AIDecision {
-        final AIDecisionType type;
-        final Player targetPlayer;
-        final Food targetFood;
-
-        AIDecision(AIDecisionType type, Player targetPlayer, Food targetFood) {
-            this.type = type;
-            this.targetPlayer = targetPlayer;
-            this.targetFood = targetFood;
-        }
+        Position direction = AIMovement.steer(ourPlayer, decision, 0, 0, worldWidth, worldHeight, random);
+        gameServer.setPlayerDirection(playerId, direction.x(), direction.y());
     }
-}
\ No newline at end of file
+}
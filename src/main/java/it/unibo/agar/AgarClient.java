@@ -1,44 +1,49 @@
 package it.unibo.agar;
 
 import it.unibo.agar.model.Player;
+import it.unibo.agar.model.net.Transport;
 import it.unibo.agar.model.rmi.GameClientImpl;
 import it.unibo.agar.model.rmi.GameServer;
+import it.unibo.agar.model.rmi.Lobby;
 import it.unibo.agar.model.rmi.RemoteGameStateManager;
-import it.unibo.agar.model.rmi.RemotePlayerImpl;
 import it.unibo.agar.view.LocalView;
 
 import javax.swing.*;
-import java.rmi.Naming;
 import java.rmi.RemoteException;
 import java.util.Random;
 
+/**
+ * Joins the server at the given URL, or with a room name the room of the lobby at that URL,
+ * creating the room if it does not exist yet. URLs may name an RMI registry ({@code rmi://}) or an
+ * {@link it.unibo.agar.model.net.NioServer} ({@code tcp://host:port/name}).
+ */
 public class AgarClient {
-    private static final String SERVER_URL = "rmi://localhost:1099/AgarGameServer";
+    private static final String DEFAULT_SERVER_URL = "rmi://localhost:1099/AgarGameServer";
+    private static final String DEFAULT_LOBBY_URL = "rmi://localhost:1099/AgarLobby";
+    private static final int ROOM_SIZE = 1000;
+    private static final int ROOM_CAPACITY = 10;
     private static final Random random = new Random();
+    private static String serverUrl = DEFAULT_SERVER_URL;
 
     public static void main(String[] args) {
         try {
+            Transport.setTimeouts(Transport.DEFAULT_CONNECT_TIMEOUT_MILLIS, Transport.DEFAULT_CALL_TIMEOUT_MILLIS);
             String playerId = args.length > 0 ? args[0] : "player_" + random.nextInt(1000);
+            String roomName = args.length > 2 ? args[2] : null;
+            serverUrl = args.length > 1 ? args[1] : roomName != null ? DEFAULT_LOBBY_URL : DEFAULT_SERVER_URL;
 
             System.out.println("Connecting to server as " + playerId + "...");
 
-            GameServer gameServer = (GameServer) Naming.lookup(SERVER_URL);
+            GameServer gameServer = roomName != null
+                    ? joinRoom((Lobby) Transport.lookup(serverUrl), roomName)
+                    : (GameServer) Transport.lookup(serverUrl);
             System.out.println("Connected to game server!");
 
-            int worldWidth = gameServer.getWorldWidth();
-            int worldHeight = gameServer.getWorldHeight();
-
-            double initialMass = 120.0;
-            double initialX = random.nextDouble() * worldWidth;
-            double initialY = random.nextDouble() * worldHeight;
-            Player initialPlayer = new Player(playerId, initialX, initialY, initialMass);
-
-            RemotePlayerImpl remotePlayer = new RemotePlayerImpl(initialPlayer);
             GameClientImpl gameClient = new GameClientImpl(playerId);
 
-            // Register player first
-            gameServer.registerPlayer(remotePlayer);
-            System.out.println("Player registered");
+            // Register player first; the server picks where it spawns
+            Player spawned = gameServer.joinGame(playerId);
+            System.out.println("Player registered at " + (int) spawned.getX() + "," + (int) spawned.getY());
 
             // Register client - now using interface method
             gameServer.registerClient(gameClient);
@@ -46,11 +51,9 @@ public class AgarClient {
 
             System.out.println("Player " + playerId + " registered successfully!");
 
+            RemoteGameStateManager gameStateManager = new RemoteGameStateManager(gameServer, gameClient, playerId);
             SwingUtilities.invokeLater(() -> {
                 try {
-                    RemoteGameStateManager gameStateManager = new RemoteGameStateManager(
-                            gameServer, gameClient, playerId);
-
                     LocalView localView = new LocalView(gameStateManager, playerId);
                     gameClient.setLocalView(localView);
                     localView.setVisible(true);
@@ -74,7 +77,7 @@ public class AgarClient {
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 try {
                     System.out.println("Disconnecting player " + playerId + "...");
-                    gameServer.unregisterPlayer(playerId);
+                    gameStateManager.leave();
                 } catch (RemoteException e) {
                     System.err.println("Error during shutdown: " + e.getMessage());
                 }
@@ -84,9 +87,18 @@ public class AgarClient {
             System.err.println("Client error: " + e.getMessage());
             e.printStackTrace();
             JOptionPane.showMessageDialog(null,
-                    "Failed to connect to game server.\nMake sure the server is running at " + SERVER_URL,
+                    "Failed to connect to game server.\nMake sure the server is running at " + serverUrl,
                     "Connection Error",
                     JOptionPane.ERROR_MESSAGE);
         }
     }
-}
\ No newline at end of file
+
+    private static GameServer joinRoom(Lobby lobby, String roomName) throws RemoteException {
+        boolean exists = lobby.listRooms().stream().anyMatch(room -> room.name().equals(roomName));
+        if (!exists) {
+            lobby.createRoom(roomName, ROOM_SIZE, ROOM_SIZE, ROOM_CAPACITY);
+            System.out.println("Created room " + roomName);
+        }
+        return lobby.joinRoom(roomName);
+    }
+}
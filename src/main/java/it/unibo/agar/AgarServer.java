@@ -1,40 +1,139 @@
 package it.unibo.agar;
 
+import it.unibo.agar.model.TickScheduler;
+import it.unibo.agar.model.net.NioServer;
+import it.unibo.agar.model.net.Transport;
+import it.unibo.agar.model.rmi.ClusterTopology;
 import it.unibo.agar.model.rmi.GameServerImpl;
+import it.unibo.agar.model.rmi.LobbyImpl;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.rmi.Naming;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Starts a server owning the whole world, or with {@code <node> <nodes>} one node of a cluster on
+ * this machine. Cluster node {@code i} owns the i-th 1000-unit-wide strip of a world as wide as
+ * all strips, and has its own registry on port 1099 + i; clients may connect to any node.
+ * A standalone server is a lobby whose room "main" is bound as the game server; more rooms can be
+ * created through the lobby. With {@code --journal <file>}, the main room records a journal that
+ * {@link ReplayJournal} can replay; a large journal is continued in a new file, and the two before it
+ * are kept as {@code <file>.1} and {@code <file>.2}. With {@code --snapshot <file>}, the world is saved to the file
+ * every few seconds and on shutdown, and a server started on an existing file resumes from it;
+ * players that rejoin under their previous ID within ten minutes get their mass and position back. With
+ * {@code --tcp <port>}, the same objects are also served over TCP, at
+ * {@code tcp://localhost:<port>/AgarGameServer} and {@code tcp://localhost:<port>/AgarLobby}.
+ * {@code --timeout <ms>} bounds every call the server makes to a client, and {@code --lease <ms>}
+ * sets how long the game server's clients may stay silent before they are evicted.
+ */
 public class AgarServer {
     private static final int WORLD_WIDTH = 1000;
     private static final int WORLD_HEIGHT = 1000;
     private static final int NUM_FOODS = 100;
     private static final int RMI_PORT = 1099;
     private static final String SERVER_NAME = "AgarGameServer";
+    private static final String LOBBY_NAME = "AgarLobby";
+    private static final String MAIN_ROOM = "main";
+    private static final int MAX_ROOMS = 64;
+    private static final int JOURNAL_CHECKPOINT_INTERVAL = 300; // Ticks, about 10 s
+    private static final int SNAPSHOT_INTERVAL = 150; // Ticks, about 5 s
+    private static final double TICKS_PER_SECOND = 1000.0 / 30;
 
-    public static void main(String[] args) {
+    public static void main(String[] arguments) {
         try {
+            Path journalFile = null;
+            Path snapshotFile = null;
+            int tcpPort = -1;
+            long callTimeout = Transport.DEFAULT_CALL_TIMEOUT_MILLIS;
+            long lease = -1;
+            List<String> positional = new ArrayList<>();
+            for (int i = 0; i < arguments.length; i++) {
+                if (arguments[i].equals("--journal") && i + 1 < arguments.length) {
+                    journalFile = Path.of(arguments[++i]);
+                } else if (arguments[i].equals("--snapshot") && i + 1 < arguments.length) {
+                    snapshotFile = Path.of(arguments[++i]);
+                } else if (arguments[i].equals("--tcp") && i + 1 < arguments.length) {
+                    tcpPort = Integer.parseInt(arguments[++i]);
+                } else if (arguments[i].equals("--timeout") && i + 1 < arguments.length) {
+                    callTimeout = Long.parseLong(arguments[++i]);
+                } else if (arguments[i].equals("--lease") && i + 1 < arguments.length) {
+                    lease = Long.parseLong(arguments[++i]);
+                } else {
+                    positional.add(arguments[i]);
+                }
+            }
+            String[] args = positional.toArray(String[]::new);
+            int node = args.length > 1 ? Integer.parseInt(args[0]) : 0;
+            int nodes = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+            int port = RMI_PORT + node;
+            Transport.setTimeouts(Transport.DEFAULT_CONNECT_TIMEOUT_MILLIS, callTimeout);
+            int worldWidth = WORLD_WIDTH * nodes;
+
             // Create and start RMI registry
-            Registry registry = LocateRegistry.createRegistry(RMI_PORT);
-            System.out.println("RMI Registry started on port " + RMI_PORT);
+            Registry registry = LocateRegistry.createRegistry(port);
+            System.out.println("RMI Registry started on port " + port);
 
             // Create game server
-            GameServerImpl gameServer = new GameServerImpl(WORLD_WIDTH, WORLD_HEIGHT, NUM_FOODS);
+            LobbyImpl lobby = nodes > 1 ? null : new LobbyImpl(MAX_ROOMS, NUM_FOODS);
+            GameServerImpl gameServer;
+            if (lobby != null) {
+                lobby.createRoom(MAIN_ROOM, WORLD_WIDTH, WORLD_HEIGHT, Integer.MAX_VALUE);
+                gameServer = lobby.room(MAIN_ROOM);
+                if (snapshotFile != null && Files.exists(snapshotFile)) {
+                    gameServer.restoreSnapshot(snapshotFile);
+                }
+                if (journalFile != null) {
+                    gameServer.startJournal(journalFile, JOURNAL_CHECKPOINT_INTERVAL);
+                }
+                String lobbyURL = "rmi://localhost:" + port + "/" + LOBBY_NAME;
+                Naming.rebind(lobbyURL, lobby);
+                System.out.println("Lobby bound to: " + lobbyURL);
+            } else {
+                gameServer = new GameServerImpl(ClusterTopology.local(worldWidth, WORLD_HEIGHT, nodes, RMI_PORT, SERVER_NAME),
+                        node, NUM_FOODS, TICKS_PER_SECOND, TickScheduler.OverrunPolicy.CATCH_UP, null);
+                if (snapshotFile != null && Files.exists(snapshotFile)) {
+                    gameServer.restoreSnapshot(snapshotFile);
+                }
+            }
+            if (lease > 0) {
+                gameServer.setLeaseMillis(lease);
+            }
+            if (snapshotFile != null) {
+                gameServer.startSnapshots(snapshotFile, SNAPSHOT_INTERVAL);
+            }
 
             // Bind server to registry
-            String serverURL = "rmi://localhost:" + RMI_PORT + "/" + SERVER_NAME;
+            String serverURL = "rmi://localhost:" + port + "/" + SERVER_NAME;
             Naming.rebind(serverURL, gameServer);
 
             System.out.println("Agar Game Server started and bound to: " + serverURL);
-            System.out.println("World size: " + WORLD_WIDTH + "x" + WORLD_HEIGHT);
+            NioServer tcpServer = tcpPort < 0 ? null : new NioServer(tcpPort);
+            if (tcpServer != null) {
+                tcpServer.bind(SERVER_NAME, gameServer);
+                if (lobby != null) {
+                    tcpServer.bind(LOBBY_NAME, lobby);
+                }
+                System.out.println("Also serving over TCP at tcp://localhost:" + tcpServer.getPort() + "/" + SERVER_NAME);
+            }
+            System.out.println("World size: " + worldWidth + "x" + WORLD_HEIGHT);
             System.out.println("Initial food count: " + NUM_FOODS);
             System.out.println("Server is ready for players to connect...");
 
             // Add shutdown hook
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 System.out.println("Shutting down server...");
-                gameServer.shutdown();
+                if (tcpServer != null) {
+                    tcpServer.close();
+                }
+                if (lobby != null) {
+                    lobby.shutdown();
+                } else {
+                    gameServer.shutdown();
+                }
             }));
 
             // Keep server running
@@ -0,0 +1,249 @@
+package it.unibo.agar;
+
+import it.unibo.agar.model.LatencyHistogram;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.TickScheduler;
+import it.unibo.agar.model.net.NioServer;
+import it.unibo.agar.model.net.Transport;
+import it.unibo.agar.model.rmi.ClientQueueStats;
+import it.unibo.agar.model.rmi.CountingSocketFactory;
+import it.unibo.agar.model.rmi.GameClientImpl;
+import it.unibo.agar.model.rmi.GameServer;
+import it.unibo.agar.model.rmi.GameServerImpl;
+
+import java.rmi.Naming;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load generator: starts a {@link GameServerImpl} behind a local registry and connects
+ * bot clients to it on localhost, without any Swing view, over RMI or with {@code tcp} over a {@link NioServer}.
+ * Each bot steers with setPlayerDirection and rejoins when eaten. The report covers tick duration
+ * percentiles, input-to-update latency, updates per second per client and bytes on the wire.
+ * Usage: LoadTest [bots] [seconds] [worldSize] [ticksPerSecond] [overrunPolicy] [rmi|tcp]
+ */
+public class LoadTest {
+    private static final int RMI_PORT = 1199; // Away from AgarServer's port, so both can run side by side
+    private static final String SERVER_NAME = "AgarLoadTestServer";
+    private static final int NUM_FOODS = 150;
+    private static final long INPUT_INTERVAL_MILLIS = 100; // Same pace as AIClient
+    private static final int INPUT_THREADS = 8;
+    private static final long WARMUP_SECONDS = 5;
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int numBots = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int worldSize = args.length > 2 ? Integer.parseInt(args[2]) : 4000;
+        double ticksPerSecond = args.length > 3 ? Double.parseDouble(args[3]) : 1000.0 / 30;
+        TickScheduler.OverrunPolicy policy = args.length > 4
+                ? TickScheduler.OverrunPolicy.valueOf(args[4])
+                : TickScheduler.OverrunPolicy.CATCH_UP;
+        boolean tcp = args.length > 5 && args[5].equals("tcp");
+        Transport.setTimeouts(Transport.DEFAULT_CONNECT_TIMEOUT_MILLIS, Transport.DEFAULT_CALL_TIMEOUT_MILLIS);
+
+        CountingSocketFactory serverSockets = new CountingSocketFactory();
+        CountingSocketFactory clientSockets = new CountingSocketFactory();
+
+        Registry registry = LocateRegistry.createRegistry(RMI_PORT);
+        GameServerImpl server = new GameServerImpl(worldSize, worldSize, NUM_FOODS, ticksPerSecond, policy, serverSockets);
+        String serverURL = "rmi://localhost:" + RMI_PORT + "/" + SERVER_NAME;
+        Naming.rebind(serverURL, server);
+        NioServer tcpServer = null;
+        if (tcp) {
+            tcpServer = new NioServer(0);
+            tcpServer.bind(SERVER_NAME, server);
+            serverURL = "tcp://localhost:" + tcpServer.getPort() + "/" + SERVER_NAME;
+        }
+        GameServer stub = (GameServer) Transport.lookup(serverURL);
+        System.out.println("Load test server bound to " + serverURL);
+
+        LatencyHistogram inputLatency = new LatencyHistogram();
+        List<Bot> bots = new ArrayList<>();
+        for (int i = 0; i < numBots; i++) {
+            Bot bot = new Bot("bot_" + i, stub, clientSockets, inputLatency);
+            bot.join();
+            stub.registerClient(bot);
+            bots.add(bot);
+        }
+        System.out.println(numBots + " bots connected");
+
+        ScheduledExecutorService inputs = Executors.newScheduledThreadPool(INPUT_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "agar-load-input");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Bot bot : bots) {
+            long initialDelay = ThreadLocalRandom.current().nextLong(INPUT_INTERVAL_MILLIS);
+            inputs.scheduleAtFixedRate(bot::sendInput, initialDelay, INPUT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        // Connection setup and JIT warmup are not part of the measurement
+        Thread.sleep(TimeUnit.SECONDS.toMillis(WARMUP_SECONDS));
+        server.getMetrics().resetHistograms();
+        inputLatency.reset();
+        bots.forEach(Bot::resetCounters);
+        long serverReadStart = serverSockets.getBytesRead() + (tcp ? tcpServer.getBytesRead() : 0);
+        long serverWrittenStart = serverSockets.getBytesWritten() + (tcp ? tcpServer.getBytesWritten() : 0);
+        long clientReadStart = clientSockets.getBytesRead();
+        long clientWrittenStart = clientSockets.getBytesWritten();
+        TickScheduler.Stats tickStart = server.getTickStats();
+        long start = System.nanoTime();
+
+        for (long elapsed = 0; elapsed < seconds; elapsed += PROGRESS_INTERVAL_SECONDS) {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(Math.min(PROGRESS_INTERVAL_SECONDS, seconds - elapsed)));
+            System.out.printf("[%3ds] players=%d tick p99=%.2fms input latency p99=%.2fms%n",
+                    Math.min(seconds, elapsed + PROGRESS_INTERVAL_SECONDS), server.getAllPlayers().size(),
+                    server.getTickDurations().percentile(99) / 1e6, inputLatency.percentile(99) / 1e6);
+        }
+
+        double measuredSeconds = (System.nanoTime() - start) / 1e9;
+        inputs.shutdownNow();
+        TickScheduler.Stats tickEnd = server.getTickStats();
+
+        System.out.println();
+        System.out.printf("%d bots, %ds measured, world %dx%d, %.1f ticks/s, %s, %s%n",
+                numBots, seconds, worldSize, worldSize, ticksPerSecond, policy, tcp ? "tcp" : "rmi");
+        System.out.println("Tick duration:         " + server.getTickDurations().summary());
+        System.out.println("  move phase:          " + server.getMetrics().getMovePhase().summary());
+        System.out.println("  eating phase:        " + server.getMetrics().getEatingPhase().summary());
+        System.out.println("  broadcast phase:     " + server.getMetrics().getBroadcastPhase().summary());
+        System.out.printf("Missed deadlines:      %d, tick failures: %d%n",
+                tickEnd.missedDeadlines() - tickStart.missedDeadlines(), tickEnd.failures() - tickStart.failures());
+        System.out.println("Input-to-update:       " + inputLatency.summary());
+
+        double[] updateRates = bots.stream().mapToDouble(bot -> bot.updates.get() / measuredSeconds).sorted().toArray();
+        System.out.printf("Updates/s per client:  min=%.1f p50=%.1f mean=%.1f max=%.1f%n",
+                updateRates[0], updateRates[updateRates.length / 2],
+                Arrays.stream(updateRates).average().orElse(0), updateRates[updateRates.length - 1]);
+        long respawns = bots.stream().mapToLong(bot -> bot.respawns.get()).sum();
+        long dropped = server.getClientQueueStats().stream().mapToLong(ClientQueueStats::droppedFrames).sum();
+        System.out.printf("Respawns: %d, dropped frames: %d, evicted clients: %d, failed notifications: %d%n",
+                respawns, dropped, server.getEvictedClients(), server.getMetrics().getFailedNotifications());
+
+        long serverRead = serverSockets.getBytesRead() + (tcp ? tcpServer.getBytesRead() : 0);
+        long serverWritten = serverSockets.getBytesWritten() + (tcp ? tcpServer.getBytesWritten() : 0);
+        long downstream = clientSockets.getBytesRead() - clientReadStart + serverWritten - serverWrittenStart;
+        long upstream = serverRead - serverReadStart + clientSockets.getBytesWritten() - clientWrittenStart;
+        System.out.printf("Server -> clients:     %.1f KiB/s total, %.2f KiB/s per client%n",
+                downstream / 1024.0 / measuredSeconds, downstream / 1024.0 / measuredSeconds / numBots);
+        System.out.printf("Clients -> server:     %.1f KiB/s total, %.2f KiB/s per client%n",
+                upstream / 1024.0 / measuredSeconds, upstream / 1024.0 / measuredSeconds / numBots);
+
+        server.shutdown();
+        if (tcpServer != null) {
+            tcpServer.close();
+        }
+        for (Bot bot : bots) {
+            UnicastRemoteObject.unexportObject(bot, true);
+        }
+        UnicastRemoteObject.unexportObject(server, true);
+        UnicastRemoteObject.unexportObject(registry, true);
+        System.exit(0);
+    }
+
+    /**
+     * Headless client that reverses its heading on every input, so the first update in which
+     * its player moves along the new heading marks when the input became visible.
+     */
+    private static class Bot extends GameClientImpl {
+        private final String id;
+        private final GameServer server;
+        private final LatencyHistogram inputLatency;
+        private final Random random = new Random();
+        private final AtomicLong updates = new AtomicLong();
+        private final AtomicLong respawns = new AtomicLong();
+        private volatile boolean dead;
+        private double angle;
+        // Guarded by this, shared between the input thread and the RMI thread delivering updates
+        private double headingX;
+        private double headingY;
+        private long inputSentAt;
+        private double lastX = Double.NaN;
+        private double lastY = Double.NaN;
+
+        Bot(String id, GameServer server, CountingSocketFactory sockets, LatencyHistogram inputLatency)
+                throws RemoteException {
+            super(id, sockets);
+            this.id = id;
+            this.server = server;
+            this.inputLatency = inputLatency;
+            this.angle = random.nextDouble() * 2 * Math.PI;
+        }
+
+        void join() throws RemoteException {
+            server.joinGame(id);
+        }
+
+        void resetCounters() {
+            updates.set(0);
+            respawns.set(0);
+        }
+
+        void sendInput() {
+            try {
+                if (dead) {
+                    dead = false;
+                    respawns.incrementAndGet();
+                    join();
+                }
+                // Roughly reverse: the new heading is always more than 90 degrees away from the old one
+                angle += Math.PI + (random.nextDouble() - 0.5) * Math.PI / 1.5;
+                double dx = Math.cos(angle);
+                double dy = Math.sin(angle);
+                synchronized (this) {
+                    headingX = dx;
+                    headingY = dy;
+                    inputSentAt = System.nanoTime();
+                }
+                server.setPlayerDirection(id, dx, dy);
+            } catch (RemoteException e) {
+                System.err.println("Bot " + id + " could not send input: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public synchronized long applyEncodedDelta(byte[] frame) throws RemoteException {
+            long version = super.applyEncodedDelta(frame);
+            updates.incrementAndGet();
+            List<Player> players = getCurrentPlayers();
+            if (players == null) {
+                return version;
+            }
+            for (Player player : players) {
+                if (player.getId().equals(id)) {
+                    observe(player.getX(), player.getY());
+                    break;
+                }
+            }
+            return version;
+        }
+
+        @Override
+        public void notifyPlayerDeath() throws RemoteException {
+            dead = true;
+        }
+
+        private void observe(double x, double y) {
+            double movedX = x - lastX;
+            double movedY = y - lastY;
+            lastX = x;
+            lastY = y;
+            if (inputSentAt != 0 && movedX * headingX + movedY * headingY > 0) {
+                inputLatency.record(System.nanoTime() - inputSentAt);
+                inputSentAt = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package it.unibo.agar;
+
+import it.unibo.agar.model.AIMovement;
+import it.unibo.agar.model.ArrayGameStateManager;
+import it.unibo.agar.model.ArrayWorldStore;
+import it.unibo.agar.model.DefaultGameStateManager;
+import it.unibo.agar.model.GameInitializer;
+import it.unibo.agar.model.GameStateManager;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.TickScheduler;
+import it.unibo.agar.model.World;
+import it.unibo.agar.view.GlobalView;
+import it.unibo.agar.view.LocalView;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * Plays the whole game in this JVM, without a server: player p1 follows the mouse and the other
+ * players are moved by the AI. With {@code --arrays} the world is simulated by
+ * {@link ArrayGameStateManager} instead of {@link DefaultGameStateManager}.
+ * Usage: LocalGame [--arrays] [players]
+ */
+public class LocalGame {
+    private static final int WORLD_WIDTH = 1000;
+    private static final int WORLD_HEIGHT = 1000;
+    private static final int NUM_FOODS = 100;
+    private static final int DEFAULT_PLAYERS = 4;
+    private static final double TICKS_PER_SECOND = 1000.0 / 30;
+    private static final double CELL_SIZE = 50.0;
+    private static final String HUMAN_PLAYER = "p1";
+
+    public static void main(String[] args) {
+        boolean arrays = false;
+        int numPlayers = DEFAULT_PLAYERS;
+        for (String arg : args) {
+            if (arg.equals("--arrays")) {
+                arrays = true;
+            } else {
+                numPlayers = Integer.parseInt(arg);
+            }
+        }
+        World world = new World(WORLD_WIDTH, WORLD_HEIGHT,
+                GameInitializer.initialPlayers(numPlayers, WORLD_WIDTH, WORLD_HEIGHT),
+                GameInitializer.initialFoods(NUM_FOODS, WORLD_WIDTH, WORLD_HEIGHT));
+        GameStateManager manager = arrays
+                ? new ArrayGameStateManager(new ArrayWorldStore(world), CELL_SIZE, true, System.nanoTime())
+                : new DefaultGameStateManager(world);
+        List<String> aiPlayers = world.getPlayers().stream()
+                .map(Player::getId)
+                .filter(id -> !id.equals(HUMAN_PLAYER))
+                .toList();
+        System.out.println("Local game with " + numPlayers + " players on " + manager.getClass().getSimpleName());
+
+        SwingUtilities.invokeLater(() -> {
+            new GlobalView(manager).setVisible(true);
+            LocalView localView = new LocalView(manager, HUMAN_PLAYER);
+            localView.setVisible(true);
+
+            // Ticks are timed by the scheduler but run on the event thread, so the views never see a world
+            // in the middle of a tick
+            TickScheduler gameLoop = TickScheduler.driving(manager, TICKS_PER_SECOND, SwingUtilities::invokeAndWait,
+                    () -> aiPlayers.forEach(id -> AIMovement.moveAI(id, manager)),
+                    localView::repaintView);
+            gameLoop.start(0);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                gameLoop.stop();
+                TickScheduler.Stats stats = gameLoop.stats();
+                System.out.println("Local game ran " + stats.ticks() + " ticks, " + stats.missedDeadlines()
+                        + " missed deadlines, " + gameLoop.tickDurations().summary());
+            }));
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package it.unibo.agar;
+
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.rmi.JournalReplay;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+
+/**
+ * Rebuilds a tick of a journal recorded by {@code AgarServer --journal} and prints its world.
+ * With {@code --verify}, the replay starts from the first checkpoint, so every checkpoint up to the
+ * tick is checked against the re-simulated world.
+ * Usage: ReplayJournal <journal> [tick] [--verify]
+ */
+public class ReplayJournal {
+    private static final int TOP_PLAYERS = 10;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayJournal <journal> [tick] [--verify]");
+            System.exit(2);
+        }
+        JournalReplay journal = JournalReplay.open(Path.of(args[0]));
+        boolean verify = args.length > 1 && args[args.length - 1].equals("--verify");
+        long tick = args.length > 1 && !args[1].equals("--verify") ? Long.parseLong(args[1]) : journal.getTicks();
+        System.out.printf("Journal of a %dx%d world at %.1f ticks/s: %d ticks, checkpoints at %s%n",
+                journal.getWorldWidth(), journal.getWorldHeight(), journal.getTicksPerSecond(), journal.getTicks(),
+                journal.getCheckpointTicks());
+
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        JournalReplay.Result result = verify ? journal.replayFromStart(tick, parallelism) : journal.replay(tick, parallelism);
+
+        double seconds = result.elapsedNanos() / 1e9;
+        double simulatedSeconds = result.simulatedTicks() / journal.getTicksPerSecond();
+        System.out.printf("Replayed %d ticks in %.3f s, %.1fx real time%n", result.simulatedTicks(), seconds,
+                seconds > 0 ? simulatedSeconds / seconds : Double.POSITIVE_INFINITY);
+        System.out.println("Checkpoints verified: " + result.verifiedCheckpoints()
+                + (result.mismatches().isEmpty() ? ", all matching" : ", diverging at ticks " + result.mismatches()));
+        System.out.println("Tick " + result.tick() + " (world version " + result.worldVersion() + "): "
+                + result.players().size() + " players, " + result.foods().size() + " foods");
+        result.players().stream()
+                .sorted(Comparator.comparingDouble(Player::getMass).reversed())
+                .limit(TOP_PLAYERS)
+                .forEach(player -> System.out.printf("  %-20s mass %10.1f at (%.1f, %.1f)%n",
+                        player.getId(), player.getMass(), player.getX(), player.getY()));
+        System.exit(result.mismatches().isEmpty() ? 0 : 1);
+    }
+}
@@ -2,11 +2,41 @@ package it.unibo.agar.model;
 
 import java.util.Comparator;
 import java.util.Optional;
+import java.util.Random;
 
 /**
  * Module to manage the AI movement in a simple Agar.IO system.
  */
 public class AIMovement {
+    private static final double SAFE_DISTANCE = 100.0; // Safe distance from dangerous players
+    private static final double HUNT_DISTANCE = SAFE_DISTANCE * 1.5;
+    private static final double FOOD_REACH = SAFE_DISTANCE * 2; // Further food is ignored
+    private static final double EAT_MASS_RATIO = 1.1;
+    private static final double FLEE_JITTER = 0.3;
+    private static final double EXPLORE_RADIUS_FRACTION = 0.3; // Further from the center than this, exploring heads back
+    private static final double EDGE_MARGIN_RADII = 3.0;
+    private static final double EDGE_PUSH = 0.5;
+
+    public enum DecisionType {
+        FLEE, HUNT, SEEK_FOOD, EXPLORE, STOP
+    }
+
+    /**
+     * What an AI player does next; the target is set for FLEE, HUNT and SEEK_FOOD only.
+     */
+    public record Decision(DecisionType type, Player targetPlayer, Food targetFood) {
+        public static final Decision EXPLORE = new Decision(DecisionType.EXPLORE, null, null);
+    }
+
+    /**
+     * Food an AI player last chose, reused while the player stays in the same cell of the food grid
+     * and no food around that cell changes. Each AI player needs its own.
+     */
+    public static final class FoodMemory {
+        private long cell;
+        private long version = -1;
+        private Food food;
+    }
 
     private static Optional<Food> nearestFood(final Player player, final World world) {
         return world.getFoods().stream()
@@ -33,4 +63,128 @@ public class AIMovement {
             }
         }
     }
+
+    /**
+     * Flees the first close player that can eat the AI, else hunts the first close player it can eat,
+     * else seeks the nearest food in reach, else explores.
+     */
+    public static Decision decide(final Player self, final Iterable<Player> players, final Iterable<Food> foods) {
+        final Decision playerDecision = playerDecision(self, players);
+        if (playerDecision != null) {
+            return playerDecision;
+        }
+        Food nearest = null;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (Food food : foods) {
+            final double distance = self.distanceTo(food);
+            if (distance < nearestDistance) {
+                nearest = food;
+                nearestDistance = distance;
+            }
+        }
+        return nearest != null && nearestDistance < FOOD_REACH ? seek(nearest) : Decision.EXPLORE;
+    }
+
+    /**
+     * Same rules, looking only at the grid cells in reach, so the cost does not grow with the world.
+     * Players are candidates in grid insertion order; the food choice is remembered across calls.
+     */
+    public static Decision decide(final Player self, final SpatialGrid<Player> players, final SpatialGrid<Food> foods,
+                                  final FoodMemory memory) {
+        final Decision playerDecision = playerDecision(self, players.query(self.getX(), self.getY(), HUNT_DISTANCE));
+        if (playerDecision != null) {
+            return playerDecision;
+        }
+        final long cell = foods.cellKey(self.getX(), self.getY());
+        final long version = foods.version(self.getX(), self.getY(), FOOD_REACH);
+        if (cell != memory.cell || version != memory.version) {
+            memory.food = foods.nearest(self.getX(), self.getY(), FOOD_REACH);
+            memory.cell = cell;
+            memory.version = version;
+        }
+        return memory.food != null ? seek(memory.food) : Decision.EXPLORE;
+    }
+
+    // Null when no other player is close enough to matter
+    private static Decision playerDecision(final Player self, final Iterable<Player> players) {
+        for (Player other : players) {
+            if (!other.getId().equals(self.getId())
+                    && other.getMass() > self.getMass() * EAT_MASS_RATIO && self.distanceTo(other) < SAFE_DISTANCE) {
+                return new Decision(DecisionType.FLEE, other, null);
+            }
+        }
+        for (Player other : players) {
+            if (!other.getId().equals(self.getId())
+                    && self.getMass() > other.getMass() * EAT_MASS_RATIO && self.distanceTo(other) < HUNT_DISTANCE) {
+                return new Decision(DecisionType.HUNT, other, null);
+            }
+        }
+        return null;
+    }
+
+    private static Decision seek(final Food food) {
+        return new Decision(DecisionType.SEEK_FOOD, null, food);
+    }
+
+    /**
+     * Direction that carries out a decision inside the given bounds, pushed away from their edges.
+     * The random source adds jitter to fleeing and picks exploring directions.
+     */
+    public static Position steer(final Player self, final Decision decision, final double minX, final double minY,
+                                 final double maxX, final double maxY, final Random random) {
+        Position direction = switch (decision.type()) {
+            case FLEE -> {
+                final Position away = towards(decision.targetPlayer(), self);
+                if (away.equals(Position.ZERO)) {
+                    yield away;
+                }
+                yield normalize(away.x() + (random.nextDouble() - 0.5) * FLEE_JITTER,
+                        away.y() + (random.nextDouble() - 0.5) * FLEE_JITTER);
+            }
+            case HUNT -> towards(self, decision.targetPlayer());
+            case SEEK_FOOD -> towards(self, decision.targetFood());
+            case EXPLORE -> {
+                final double toCenterX = (minX + maxX) / 2 - self.getX();
+                final double toCenterY = (minY + maxY) / 2 - self.getY();
+                if (Math.hypot(toCenterX, toCenterY) > (maxX - minX) * EXPLORE_RADIUS_FRACTION) {
+                    yield normalize(toCenterX, toCenterY);
+                }
+                final double angle = random.nextDouble() * 2 * Math.PI;
+                yield Position.of(Math.cos(angle), Math.sin(angle));
+            }
+            case STOP -> Position.ZERO;
+        };
+
+        final double margin = self.getRadius() * EDGE_MARGIN_RADII;
+        final double edgeDistance = Math.min(Math.min(self.getX() - minX, maxX - self.getX()),
+                Math.min(self.getY() - minY, maxY - self.getY()));
+        if (edgeDistance >= margin) {
+            return direction;
+        }
+        double x = direction.x();
+        double y = direction.y();
+        if (self.getX() < minX + margin) {
+            x = Math.max(x, EDGE_PUSH);
+        }
+        if (self.getX() > maxX - margin) {
+            x = Math.min(x, -EDGE_PUSH);
+        }
+        if (self.getY() < minY + margin) {
+            y = Math.max(y, EDGE_PUSH);
+        }
+        if (self.getY() > maxY - margin) {
+            y = Math.min(y, -EDGE_PUSH);
+        }
+        return Position.of(x, y);
+    }
+
+    private static Position towards(final Entity from, final Entity to) {
+        return normalize(to.getX() - from.getX(), to.getY() - from.getY());
+    }
+
+    // Zero stays zero
+    private static Position normalize(final double x, final double y) {
+        final double length = Math.hypot(x, y);
+        return length > 0 ? Position.of(x / length, y / length) : Position.ZERO;
+    }
 }
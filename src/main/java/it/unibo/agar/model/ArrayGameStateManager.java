@@ -0,0 +1,188 @@
+package it.unibo.agar.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * {@link GameStateManager} that simulates on an {@link ArrayWorldStore}.
+ * A tick moves players and resolves eating with cell indexes rebuilt over the primitive arrays,
+ * without allocating per entity. Who gets eaten is decided from the masses at the start of the
+ * eating phase, and every eater grows by the full mass of what it ate.
+ * {@link it.unibo.agar.LocalGame} runs on it with {@code --arrays}.
+ */
+public class ArrayGameStateManager implements GameStateManager {
+    private static final double DEFAULT_TICK_SECONDS = 0.030;
+    private static final double DEFAULT_CELL_SIZE = 50.0;
+
+    private final ArrayWorldStore store;
+    private final CellIndex foodIndex;
+    private final CellIndex playerIndex;
+    private final boolean respawnFood;
+    private final Random random;
+    private double[] playerRadius = new double[0];
+    private double[] gain = new double[0];
+    private long[] playerEatenAt = new long[0];
+    private long[] foodEatenAt = new long[0];
+    private long tickCount;
+    private World cachedWorld;
+    private long cachedWorldTick = -1;
+    private long cachedWorldModCount = -1;
+
+    public ArrayGameStateManager(final ArrayWorldStore store, final double cellSize,
+                                 final boolean respawnFood, final long seed) {
+        this.store = store;
+        this.foodIndex = new CellIndex(store.getWidth(), store.getHeight(), cellSize);
+        this.playerIndex = new CellIndex(store.getWidth(), store.getHeight(), cellSize);
+        this.respawnFood = respawnFood;
+        this.random = new Random(seed);
+    }
+
+    public ArrayGameStateManager(final World initialWorld) {
+        this(new ArrayWorldStore(initialWorld), DEFAULT_CELL_SIZE, false, System.nanoTime());
+    }
+
+    public ArrayWorldStore getStore() {
+        return store;
+    }
+
+    @Override
+    public World getWorld() {
+        if (cachedWorldTick != tickCount || cachedWorldModCount != store.modCount) {
+            cachedWorld = store.toWorld();
+            cachedWorldTick = tickCount;
+            cachedWorldModCount = store.modCount;
+        }
+        return cachedWorld;
+    }
+
+    @Override
+    public void setPlayerDirection(final String playerId, final double dx, final double dy) {
+        final int handle = store.playerHandle(playerId);
+        if (handle >= 0) {
+            store.setDirection(handle, dx, dy);
+        }
+    }
+
+    @Override
+    public void tick() {
+        tick(DEFAULT_TICK_SECONDS);
+    }
+
+    @Override
+    public void tick(final double elapsedSeconds) {
+        tickCount++;
+        moveAllPlayers(elapsedSeconds);
+        handleEating();
+    }
+
+    private void moveAllPlayers(final double elapsedSeconds) {
+        final double step = Player.SPEED * elapsedSeconds;
+        final double[] x = store.playerX;
+        final double[] y = store.playerY;
+        for (int i = 0; i < store.playerSlots; i++) {
+            if (store.playerAlive[i]) {
+                x[i] += store.playerDirX[i] * step;
+                y[i] += store.playerDirY[i] * step;
+            }
+        }
+    }
+
+    private void handleEating() {
+        ensureScratchCapacity();
+        final int playerSlots = store.playerSlots;
+        final double[] px = store.playerX;
+        final double[] py = store.playerY;
+        final double[] pm = store.playerMass;
+        final boolean[] alive = store.playerAlive;
+
+        double maxPlayerRadius = 0;
+        for (int i = 0; i < playerSlots; i++) {
+            if (alive[i]) {
+                playerRadius[i] = Math.sqrt(pm[i] / Math.PI);
+                maxPlayerRadius = Math.max(maxPlayerRadius, playerRadius[i]);
+            }
+        }
+        final double maxFoodRadius = Math.sqrt(store.maxFoodMass / Math.PI);
+        foodIndex.rebuild(store.foodX, store.foodY, store.foodAlive, store.foodSlots);
+        playerIndex.rebuild(px, py, alive, playerSlots);
+
+        for (int i = 0; i < playerSlots; i++) {
+            if (alive[i]) {
+                gain[i] = eatFoods(i, maxFoodRadius) + eatPlayers(i, maxPlayerRadius);
+            }
+        }
+
+        for (int i = 0; i < playerSlots; i++) {
+            if (alive[i]) {
+                pm[i] += gain[i];
+                if (playerEatenAt[i] == tickCount) {
+                    store.removePlayer(i);
+                }
+            }
+        }
+        for (int j = 0; j < store.foodSlots; j++) {
+            if (foodEatenAt[j] == tickCount) {
+                if (respawnFood) {
+                    store.respawnFood(j, random.nextInt(store.getWidth()), random.nextInt(store.getHeight()), Food.DEFAULT_MASS);
+                } else {
+                    store.removeFood(j);
+                }
+            }
+        }
+    }
+
+    private double eatFoods(final int i, final double maxFoodRadius) {
+        final double x = store.playerX[i];
+        final double y = store.playerY[i];
+        final double mass = store.playerMass[i];
+        final double range = playerRadius[i] + maxFoodRadius;
+        double eaten = 0;
+        for (int row = foodIndex.row(y - range); row <= foodIndex.row(y + range); row++) {
+            for (int col = foodIndex.column(x - range); col <= foodIndex.column(x + range); col++) {
+                for (int k = foodIndex.start(col, row), end = foodIndex.end(col, row); k < end; k++) {
+                    final int j = foodIndex.entry(k);
+                    final double foodMass = store.foodMass[j];
+                    if (EatingManager.canEat(mass, foodMass, false, x - store.foodX[j], y - store.foodY[j],
+                            playerRadius[i] + Math.sqrt(foodMass / Math.PI))) {
+                        foodEatenAt[j] = tickCount;
+                        eaten += foodMass;
+                    }
+                }
+            }
+        }
+        return eaten;
+    }
+
+    private double eatPlayers(final int i, final double maxPlayerRadius) {
+        final double x = store.playerX[i];
+        final double y = store.playerY[i];
+        final double mass = store.playerMass[i];
+        final double range = playerRadius[i] + maxPlayerRadius;
+        double eaten = 0;
+        for (int row = playerIndex.row(y - range); row <= playerIndex.row(y + range); row++) {
+            for (int col = playerIndex.column(x - range); col <= playerIndex.column(x + range); col++) {
+                for (int k = playerIndex.start(col, row), end = playerIndex.end(col, row); k < end; k++) {
+                    final int j = playerIndex.entry(k);
+                    if (j != i && EatingManager.canEat(mass, store.playerMass[j], true,
+                            x - store.playerX[j], y - store.playerY[j], playerRadius[i] + playerRadius[j])) {
+                        playerEatenAt[j] = tickCount;
+                        eaten += store.playerMass[j];
+                    }
+                }
+            }
+        }
+        return eaten;
+    }
+
+    private void ensureScratchCapacity() {
+        final int players = store.playerX.length;
+        if (playerRadius.length < players) {
+            playerRadius = Arrays.copyOf(playerRadius, players);
+            gain = Arrays.copyOf(gain, players);
+            playerEatenAt = Arrays.copyOf(playerEatenAt, players);
+        }
+        if (foodEatenAt.length < store.foodX.length) {
+            foodEatenAt = Arrays.copyOf(foodEatenAt, store.foodX.length);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package it.unibo.agar.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structure-of-arrays world: positions, masses and directions live in primitive arrays
+ * indexed by an int slot handle, and removed slots are recycled.
+ * {@link #toWorld()} adapts the store back to the immutable {@link World} view used by the
+ * views and the RMI layer; food views are cached per slot since food never moves.
+ */
+public class ArrayWorldStore {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int width;
+    private final int height;
+
+    // Players
+    String[] playerIds = new String[INITIAL_CAPACITY];
+    double[] playerX = new double[INITIAL_CAPACITY];
+    double[] playerY = new double[INITIAL_CAPACITY];
+    double[] playerMass = new double[INITIAL_CAPACITY];
+    double[] playerDirX = new double[INITIAL_CAPACITY];
+    double[] playerDirY = new double[INITIAL_CAPACITY];
+    boolean[] playerAlive = new boolean[INITIAL_CAPACITY];
+    int playerSlots;
+    private int playerCount;
+    private int[] freePlayerSlots = new int[INITIAL_CAPACITY];
+    private int freePlayerCount;
+    private final Map<String, Integer> playerHandles = new HashMap<>();
+
+    // Foods
+    double[] foodX = new double[INITIAL_CAPACITY];
+    double[] foodY = new double[INITIAL_CAPACITY];
+    double[] foodMass = new double[INITIAL_CAPACITY];
+    boolean[] foodAlive = new boolean[INITIAL_CAPACITY];
+    private long[] foodSerial = new long[INITIAL_CAPACITY];
+    private Food[] foodViews = new Food[INITIAL_CAPACITY];
+    int foodSlots;
+    private int foodCount;
+    private int[] freeFoodSlots = new int[INITIAL_CAPACITY];
+    private int freeFoodCount;
+    private long nextFoodSerial;
+    double maxFoodMass;
+    long modCount; // Bumped on every structural change, so cached views can tell they are stale
+
+    public ArrayWorldStore(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public ArrayWorldStore(final World world) {
+        this(world.getWidth(), world.getHeight());
+        world.getPlayers().forEach(this::addPlayer);
+        world.getFoods().forEach(f -> addFood(f.getX(), f.getY(), f.getMass()));
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    /**
+     * Returns the slot handle of the player, or -1 if there is no such player.
+     */
+    public int playerHandle(final String id) {
+        final Integer handle = playerHandles.get(id);
+        return handle != null ? handle : -1;
+    }
+
+    public int addPlayer(final Player player) {
+        final int existing = playerHandle(player.getId());
+        if (existing >= 0) {
+            removePlayer(existing);
+        }
+        final int slot;
+        if (freePlayerCount > 0) {
+            slot = freePlayerSlots[--freePlayerCount];
+        } else {
+            if (playerSlots == playerX.length) {
+                growPlayers(playerSlots * 2);
+            }
+            slot = playerSlots++;
+        }
+        playerIds[slot] = player.getId();
+        playerX[slot] = player.getX();
+        playerY[slot] = player.getY();
+        playerMass[slot] = player.getMass();
+        playerDirX[slot] = 0;
+        playerDirY[slot] = 0;
+        playerAlive[slot] = true;
+        playerHandles.put(player.getId(), slot);
+        playerCount++;
+        modCount++;
+        return slot;
+    }
+
+    public void removePlayer(final int slot) {
+        if (!playerAlive[slot]) {
+            return;
+        }
+        playerAlive[slot] = false;
+        playerHandles.remove(playerIds[slot]);
+        playerIds[slot] = null;
+        playerCount--;
+        modCount++;
+        if (freePlayerCount == freePlayerSlots.length) {
+            freePlayerSlots = Arrays.copyOf(freePlayerSlots, freePlayerCount * 2);
+        }
+        freePlayerSlots[freePlayerCount++] = slot;
+    }
+
+    public int addFood(final double x, final double y, final double mass) {
+        final int slot;
+        if (freeFoodCount > 0) {
+            slot = freeFoodSlots[--freeFoodCount];
+        } else {
+            if (foodSlots == foodX.length) {
+                growFoods(foodSlots * 2);
+            }
+            slot = foodSlots++;
+        }
+        placeFood(slot, x, y, mass);
+        foodCount++;
+        return slot;
+    }
+
+    public void removeFood(final int slot) {
+        if (!foodAlive[slot]) {
+            return;
+        }
+        foodAlive[slot] = false;
+        foodViews[slot] = null;
+        foodCount--;
+        modCount++;
+        if (freeFoodCount == freeFoodSlots.length) {
+            freeFoodSlots = Arrays.copyOf(freeFoodSlots, freeFoodCount * 2);
+        }
+        freeFoodSlots[freeFoodCount++] = slot;
+    }
+
+    /**
+     * Reuses an eaten food's slot for a new food, without going through the free list.
+     */
+    void respawnFood(final int slot, final double x, final double y, final double mass) {
+        if (!foodAlive[slot]) {
+            foodCount++;
+        }
+        placeFood(slot, x, y, mass);
+    }
+
+    public void setDirection(final int slot, final double dx, final double dy) {
+        playerDirX[slot] = dx;
+        playerDirY[slot] = dy;
+    }
+
+    public Player playerView(final int slot) {
+        return new Player(playerIds[slot], playerX[slot], playerY[slot], playerMass[slot]);
+    }
+
+    public Food foodView(final int slot) {
+        Food view = foodViews[slot];
+        if (view == null) {
+            view = new Food("f" + foodSerial[slot], foodX[slot], foodY[slot], foodMass[slot]);
+            foodViews[slot] = view;
+        }
+        return view;
+    }
+
+    public World toWorld() {
+        final List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerSlots; i++) {
+            if (playerAlive[i]) {
+                players.add(playerView(i));
+            }
+        }
+        final List<Food> foods = new ArrayList<>(foodCount);
+        for (int i = 0; i < foodSlots; i++) {
+            if (foodAlive[i]) {
+                foods.add(foodView(i));
+            }
+        }
+        return new World(width, height, players, foods);
+    }
+
+    private void placeFood(final int slot, final double x, final double y, final double mass) {
+        foodX[slot] = x;
+        foodY[slot] = y;
+        foodMass[slot] = mass;
+        maxFoodMass = Math.max(maxFoodMass, mass);
+        foodAlive[slot] = true;
+        foodSerial[slot] = nextFoodSerial++;
+        foodViews[slot] = null;
+        modCount++;
+    }
+
+    private void growPlayers(final int capacity) {
+        playerIds = Arrays.copyOf(playerIds, capacity);
+        playerX = Arrays.copyOf(playerX, capacity);
+        playerY = Arrays.copyOf(playerY, capacity);
+        playerMass = Arrays.copyOf(playerMass, capacity);
+        playerDirX = Arrays.copyOf(playerDirX, capacity);
+        playerDirY = Arrays.copyOf(playerDirY, capacity);
+        playerAlive = Arrays.copyOf(playerAlive, capacity);
+    }
+
+    private void growFoods(final int capacity) {
+        foodX = Arrays.copyOf(foodX, capacity);
+        foodY = Arrays.copyOf(foodY, capacity);
+        foodMass = Arrays.copyOf(foodMass, capacity);
+        foodAlive = Arrays.copyOf(foodAlive, capacity);
+        foodSerial = Arrays.copyOf(foodSerial, capacity);
+        foodViews = Arrays.copyOf(foodViews, capacity);
+    }
+}
@@ -0,0 +1,76 @@
+package it.unibo.agar.model;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free uniform grid over slot indexes of a structure-of-arrays store.
+ * It is rebuilt with a counting sort, so entries of one cell are contiguous in memory.
+ * Coordinates outside the world are clamped to the border cells.
+ */
+final class CellIndex {
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private int[] entries = new int[0];
+    private int[] cellOfEntry = new int[0];
+
+    CellIndex(final double width, final double height, final double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellStart = new int[columns * rows + 1];
+    }
+
+    void rebuild(final double[] x, final double[] y, final boolean[] alive, final int slots) {
+        if (cellOfEntry.length < slots) {
+            cellOfEntry = new int[x.length];
+            entries = new int[x.length];
+        }
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < slots; i++) {
+            if (alive[i]) {
+                final int cell = row(y[i]) * columns + column(x[i]);
+                cellOfEntry[i] = cell;
+                cellStart[cell + 1]++;
+            }
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        // cellStart[c] is now the first free position of cell c; fill and shift back afterwards
+        for (int i = 0; i < slots; i++) {
+            if (alive[i]) {
+                entries[cellStart[cellOfEntry[i]]++] = i;
+            }
+        }
+        for (int c = columns * rows; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    int column(final double x) {
+        return clamp((int) Math.floor(x / cellSize), columns);
+    }
+
+    int row(final double y) {
+        return clamp((int) Math.floor(y / cellSize), rows);
+    }
+
+    int start(final int column, final int row) {
+        return cellStart[row * columns + column];
+    }
+
+    int end(final int column, final int row) {
+        return cellStart[row * columns + column + 1];
+    }
+
+    int entry(final int position) {
+        return entries[position];
+    }
+
+    private static int clamp(final int value, final int size) {
+        return value < 0 ? 0 : Math.min(value, size - 1);
+    }
+}
@@ -4,17 +4,22 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class DefaultGameStateManager implements GameStateManager {
-    private static final double PLAYER_SPEED = 2.0;
+    private static final double DEFAULT_TICK_SECONDS = 0.030;
     private static final int MAX_FOOD_ITEMS = 150;
+    private static final double GRID_CELL_SIZE = 50.0;
     private static final Random random = new Random();
     private World world;
     private final Map<String, Position> playerDirections;
+    private final SpatialGrid<Player> playerGrid;
+    private final SpatialGrid<Food> foodGrid;
 
 
     public DefaultGameStateManager(final World initialWorld) {
         this.world = initialWorld;
         this.playerDirections = new HashMap<>();
         this.world.getPlayers().forEach(p -> playerDirections.put(p.getId(), Position.ZERO));
+        this.playerGrid = new SpatialGrid<>(GRID_CELL_SIZE, initialWorld.getPlayers());
+        this.foodGrid = new SpatialGrid<>(GRID_CELL_SIZE, initialWorld.getFoods());
     }
 
     @Override
@@ -30,62 +35,80 @@ public class DefaultGameStateManager implements GameStateManager {
         }
     }
 
+    @Override
     public void tick() {
-        this.world = handleEating(moveAllPlayers(this.world));
+        tick(DEFAULT_TICK_SECONDS);
+    }
+
+    @Override
+    public void tick(final double elapsedSeconds) {
+        this.world = handleEating(moveAllPlayers(this.world, elapsedSeconds));
         cleanupPlayerDirections();
     }
 
-    private World moveAllPlayers(final World currentWorld) {
-        final List<Player> updatedPlayers = currentWorld.getPlayers().stream()
+    // Only players that actually move are replaced; the others are shared with the previous world
+    private World moveAllPlayers(final World currentWorld, final double elapsedSeconds) {
+        final List<Player> movedPlayers = currentWorld.getPlayers().stream()
+            .filter(player -> !playerDirections.getOrDefault(player.getId(), Position.ZERO).equals(Position.ZERO))
             .map(player -> {
-                Position direction = playerDirections.getOrDefault(player.getId(), Position.ZERO);
-                final double newX = player.getX() + direction.x() * PLAYER_SPEED;
-                final double newY = player.getY() + direction.y() * PLAYER_SPEED;
+                Position direction = playerDirections.get(player.getId());
+                final double newX = player.getX() + direction.x() * Player.SPEED * elapsedSeconds;
+                final double newY = player.getY() + direction.y() * Player.SPEED * elapsedSeconds;
                 return player.moveTo(newX, newY);
             })
             .collect(Collectors.toList());
+        movedPlayers.forEach(playerGrid::put);
 
-        return new World(currentWorld.getWidth(), currentWorld.getHeight(), updatedPlayers, currentWorld.getFoods());
+        return currentWorld.withPlayers(movedPlayers);
     }
 
     private World handleEating(final World currentWorld) {
-        final List<Player> updatedPlayers = currentWorld.getPlayers().stream()
-                .map(player -> growPlayer(currentWorld, player))
-                .toList();
+        // growPlayer returns the same instance when nothing was eaten
+        final List<Player> grownPlayers = new ArrayList<>();
+        for (Player player : currentWorld.getPlayers()) {
+            final Player grown = growPlayer(player);
+            if (grown != player) {
+                grownPlayers.add(grown);
+            }
+        }
 
         final List<Food> foodsToRemove = currentWorld.getPlayers().stream()
-                .flatMap(player -> eatenFoods(currentWorld, player).stream())
+                .flatMap(player -> eatenFoods(player).stream())
                 .distinct()
                 .toList();
 
         final List<Player> playersToRemove = currentWorld.getPlayers().stream()
-                .flatMap(player -> eatenPlayers(currentWorld, player).stream())
+                .flatMap(player -> eatenPlayers(player).stream())
                 .distinct()
                 .toList();
 
-        return new World(currentWorld.getWidth(), currentWorld.getHeight(), updatedPlayers, currentWorld.getFoods())
+        final World nextWorld = currentWorld.withPlayers(grownPlayers)
                 .removeFoods(foodsToRemove)
                 .removePlayers(playersToRemove);
+
+        foodGrid.removeAll(foodsToRemove);
+        playerGrid.removeAll(playersToRemove);
+        grownPlayers.stream()
+                .filter(player -> nextWorld.getPlayerById(player.getId()).isPresent())
+                .forEach(playerGrid::put);
+        return nextWorld;
     }
 
-    private Player growPlayer(final World world, final Player player) {
-        final Player afterFood = eatenFoods(world, player).stream()
+    private Player growPlayer(final Player player) {
+        final Player afterFood = eatenFoods(player).stream()
                 .reduce(player, Player::grow, (p1, p2) -> p1);
 
-        return eatenPlayers(world, afterFood).stream()
+        return eatenPlayers(afterFood).stream()
                 .reduce(afterFood, Player::grow, (p1, p2) -> p1);
     }
 
-    private List<Food> eatenFoods(final World world, final Player player) {
-        return world.getFoods().stream()
-                .filter(food -> EatingManager.canEatFood(player, food))
-                .toList();
+    // The grids mirror the world being resolved, so only neighbouring cells need to be checked
+    private List<Food> eatenFoods(final Player player) {
+        return EatingManager.edibleFoods(player, foodGrid);
     }
 
-    private List<Player> eatenPlayers(final World world, final Player player) {
-        return world.getPlayersExcludingSelf(player).stream()
-                .filter(other -> EatingManager.canEatPlayer(player, other))
-                .toList();
+    private List<Player> eatenPlayers(final Player player) {
+        return EatingManager.ediblePlayers(player, playerGrid);
     }
 
     private void cleanupPlayerDirections() {
@@ -1,5 +1,7 @@
 package it.unibo.agar.model;
 
+import java.util.List;
+
 public class EatingManager {
 
     private static final double MASS_MARGIN = 1.1; // 10% bigger to eat
@@ -15,4 +17,26 @@ public class EatingManager {
     public static boolean canEatPlayer(final Player player, final Player other) {
         return collides(player, other) && player.getMass() > other.getMass() * MASS_MARGIN;
     }
+
+    /**
+     * Primitive form of the eating rules for array-backed stores; compares squared distances.
+     */
+    static boolean canEat(final double eaterMass, final double otherMass, final boolean otherIsPlayer,
+                          final double dx, final double dy, final double radiusSum) {
+        final double required = otherIsPlayer ? otherMass * MASS_MARGIN : otherMass;
+        return eaterMass > required && dx * dx + dy * dy < radiusSum * radiusSum;
+    }
+
+    public static List<Food> edibleFoods(final Player player, final SpatialGrid<Food> foods) {
+        return foods.collisionCandidates(player).stream()
+                .filter(food -> canEatFood(player, food))
+                .toList();
+    }
+
+    public static List<Player> ediblePlayers(final Player player, final SpatialGrid<Player> players) {
+        return players.collisionCandidates(player).stream()
+                .filter(other -> !other.getId().equals(player.getId()))
+                .filter(other -> canEatPlayer(player, other))
+                .toList();
+    }
 }
@@ -0,0 +1,258 @@
+package it.unibo.agar.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Pool of food kept in numbered slots. A food's id is derived from its slot ({@code "f<slot>"} unless
+ * another prefix is given), so ids never collide and map back to their slot without a lookup. Eaten food is respawned in
+ * its own slot, and freed slots are recycled, so adding, removing and respawning are O(1).
+ * How much food the store's area holds is decided by a {@link Density}.
+ * The store is thread-safe; the snapshots it returns are immutable and built at most once per change.
+ */
+public class FoodStore {
+    private static final String DEFAULT_ID_PREFIX = "f";
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Food count as a density over the world area, clamped between a minimum and a maximum.
+     */
+    public record Density(int minimum, int maximum, double perMillionSquareUnits) {
+        public Density {
+            if (minimum < 0 || maximum < minimum || perMillionSquareUnits < 0) {
+                throw new IllegalArgumentException("Invalid food density: " + minimum + ".." + maximum
+                        + ", " + perMillionSquareUnits + " per million square units");
+            }
+        }
+
+        public static Density fixed(final int count) {
+            return new Density(count, count, 0);
+        }
+
+        public int target(final int width, final int height) {
+            final double count = (double) width * height / 1_000_000 * perMillionSquareUnits;
+            return (int) Math.max(minimum, Math.min(maximum, Math.round(count)));
+        }
+    }
+
+    /**
+     * Everything that decides the store's future: its foods in {@link #foods()} order, the recycled
+     * slots from the bottom of the stack to the top, the next unused slot and the density.
+     */
+    public record State(List<Food> foods, List<Integer> freeSlots, int nextSlot, Density density) {
+        public State {
+            foods = List.copyOf(foods);
+            freeSlots = List.copyOf(freeSlots);
+        }
+    }
+
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+    private final String idPrefix;
+    private final Random random;
+    private Density density;
+    private Food[] slots = new Food[INITIAL_CAPACITY];
+    private int[] positions = new int[INITIAL_CAPACITY]; // Index of each live slot in dense
+    private int[] dense = new int[INITIAL_CAPACITY];     // Live slots, packed
+    private int size;
+    private int[] free = new int[INITIAL_CAPACITY];      // Recycled slots, used as a stack
+    private int freeCount;
+    private int nextSlot;
+    private List<Food> snapshot;
+    private Map<String, Food> snapshotById;
+
+    public FoodStore(final int width, final int height, final Density density, final Random random) {
+        this(0, 0, width, height, DEFAULT_ID_PREFIX, density, random);
+    }
+
+    /**
+     * Store for food placed within the given rectangle. Stores whose foods must be told apart need distinct prefixes.
+     */
+    public FoodStore(final int minX, final int minY, final int width, final int height, final String idPrefix,
+                     final Density density, final Random random) {
+        this.minX = minX;
+        this.minY = minY;
+        this.width = width;
+        this.height = height;
+        this.idPrefix = idPrefix;
+        this.density = density;
+        this.random = random;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized Density getDensity() {
+        return density;
+    }
+
+    public synchronized void setDensity(final Density density) {
+        this.density = density;
+    }
+
+    /**
+     * Number of foods the density asks for in the store's area.
+     */
+    public synchronized int target() {
+        return density.target(width, height);
+    }
+
+    /**
+     * Places a new food at a random position, in a recycled slot when there is one.
+     */
+    public synchronized Food spawn() {
+        final int slot = freeCount > 0 ? free[--freeCount] : nextSlot++;
+        ensureCapacity(slot + 1);
+        final Food food = randomFood(slot);
+        slots[slot] = food;
+        positions[slot] = size;
+        dense[size++] = slot;
+        invalidate();
+        return food;
+    }
+
+    /**
+     * Eats the given food if it is still in the store. While the store holds no more than its
+     * target, the food comes back elsewhere under the same id and the new food is returned;
+     * otherwise its slot is freed and null is returned. Food that was already eaten is ignored,
+     * and null is returned too.
+     */
+    public synchronized Food consume(final Food food) {
+        final int slot = slotOf(food.getId());
+        if (slot < 0 || slot >= nextSlot || slots[slot] != food) {
+            return null;
+        }
+        if (size <= target()) {
+            final Food respawned = randomFood(slot);
+            slots[slot] = respawned;
+            invalidate();
+            return respawned;
+        }
+        release(slot);
+        return null;
+    }
+
+    public synchronized Food get(final String id) {
+        final int slot = slotOf(id);
+        return slot >= 0 && slot < nextSlot ? slots[slot] : null;
+    }
+
+    public synchronized boolean contains(final Food food) {
+        final int slot = slotOf(food.getId());
+        return slot >= 0 && slot < nextSlot && slots[slot] == food;
+    }
+
+    /**
+     * All foods. The list is shared until the next change.
+     */
+    public synchronized List<Food> foods() {
+        if (snapshot == null) {
+            final List<Food> foods = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                foods.add(slots[dense[i]]);
+            }
+            snapshot = Collections.unmodifiableList(foods);
+        }
+        return snapshot;
+    }
+
+    /**
+     * All foods by id, in the order of {@link #foods()}. The map is shared until the next change.
+     */
+    public synchronized Map<String, Food> foodsById() {
+        if (snapshotById == null) {
+            final Map<String, Food> byId = new LinkedHashMap<>(size * 2);
+            foods().forEach(food -> byId.put(food.getId(), food));
+            snapshotById = Collections.unmodifiableMap(byId);
+        }
+        return snapshotById;
+    }
+
+    public synchronized State state() {
+        final List<Integer> freeSlots = new ArrayList<>(freeCount);
+        for (int i = 0; i < freeCount; i++) {
+            freeSlots.add(free[i]);
+        }
+        return new State(foods(), freeSlots, nextSlot, density);
+    }
+
+    /**
+     * Replaces the whole content of the store; with the same random numbers, it then evolves exactly
+     * like the store the state was taken from.
+     */
+    public synchronized void restore(final State state) {
+        slots = new Food[Math.max(INITIAL_CAPACITY, state.nextSlot())];
+        positions = new int[slots.length];
+        dense = new int[slots.length];
+        size = 0;
+        for (Food food : state.foods()) {
+            final int slot = slotOf(food.getId());
+            if (slot < 0 || slot >= state.nextSlot() || slots[slot] != null) {
+                throw new IllegalArgumentException("Food " + food.getId() + " does not fit this store");
+            }
+            slots[slot] = food;
+            positions[slot] = size;
+            dense[size++] = slot;
+        }
+        free = new int[Math.max(INITIAL_CAPACITY, state.freeSlots().size())];
+        freeCount = 0;
+        for (int slot : state.freeSlots()) {
+            free[freeCount++] = slot;
+        }
+        nextSlot = state.nextSlot();
+        density = state.density();
+        invalidate();
+    }
+
+    // Slot encoded in a food id, or -1 when the id was not given out by this store
+    private int slotOf(final String id) {
+        if (!id.startsWith(idPrefix) || id.length() == idPrefix.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(id, idPrefix.length(), id.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Food randomFood(final int slot) {
+        return new Food(idPrefix + slot, minX + random.nextInt(width), minY + random.nextInt(height), Food.DEFAULT_MASS);
+    }
+
+    // Moves the last live slot into the hole so the live slots stay packed
+    private void release(final int slot) {
+        final int position = positions[slot];
+        final int last = dense[--size];
+        dense[position] = last;
+        positions[last] = position;
+        slots[slot] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, free.length * 2);
+        }
+        free[freeCount++] = slot;
+        invalidate();
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > slots.length) {
+            final int grown = Math.max(capacity, slots.length * 2);
+            slots = Arrays.copyOf(slots, grown);
+            positions = Arrays.copyOf(positions, grown);
+            dense = Arrays.copyOf(dense, grown);
+        }
+    }
+
+    private void invalidate() {
+        snapshot = null;
+        snapshotById = null;
+    }
+}
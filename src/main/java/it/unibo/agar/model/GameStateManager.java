@@ -4,4 +4,22 @@ public interface GameStateManager {
     World getWorld();
     void setPlayerDirection(final String playerId, final double dx, final double dy);
     void tick();
+
+    /**
+     * Advances the simulation by the given amount of time; managers without time scaling run a plain tick.
+     */
+    default void tick(final double elapsedSeconds) {
+        tick();
+    }
+
+    /**
+     * Brings the world returned by {@link #getWorld()} up to the current time; called once per drawn frame.
+     * Managers whose world only changes on ticks have nothing to do.
+     */
+    default void advanceFrame() { }
+
+    /**
+     * Reports the size of the area the view shows around the player; local managers can ignore it.
+     */
+    default void setViewport(final String playerId, final double width, final double height) { }
 }
@@ -0,0 +1,356 @@
+package it.unibo.agar.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable hash array mapped trie. An update copies only the path from the root to the changed
+ * entry, so every version shares all untouched nodes with the one it was derived from.
+ * Bulk updates tag the nodes they create with a private edit token and mutate those in place,
+ * which makes building or batch-editing a map cost little more than a mutable one.
+ * Iteration follows hash order. Keys and values must not be null.
+ */
+public final class PersistentMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+    private List<V> values; // Computed on first use; racing threads compute equal lists
+
+    private PersistentMap(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> PersistentMap<K, V> of(final Collection<V> values, final Function<V, K> key) {
+        return PersistentMap.<K, V>empty().putAll(values, key);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final K key) {
+        return (V) root.find(0, hash(key), key);
+    }
+
+    public boolean containsKey(final K key) {
+        return get(key) != null;
+    }
+
+    public PersistentMap<K, V> put(final K key, final V value) {
+        final boolean[] added = new boolean[1];
+        final Node newRoot = root.assoc(null, 0, hash(key), key, value, added);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    public PersistentMap<K, V> remove(final K key) {
+        final boolean[] removed = new boolean[1];
+        final Node newRoot = root.without(null, 0, hash(key), key, removed);
+        return removed[0] ? new PersistentMap<>(newRoot != null ? newRoot : BitmapNode.EMPTY, size - 1) : this;
+    }
+
+    /**
+     * Adds or replaces every value under the key the function gives for it.
+     */
+    public PersistentMap<K, V> putAll(final Collection<V> values, final Function<V, K> key) {
+        final Object edit = new Object();
+        final boolean[] added = new boolean[1];
+        Node newRoot = root;
+        int newSize = size;
+        for (V value : values) {
+            final K k = key.apply(value);
+            added[0] = false;
+            newRoot = newRoot.assoc(edit, 0, hash(k), k, value, added);
+            if (added[0]) {
+                newSize++;
+            }
+        }
+        return newRoot == root ? this : new PersistentMap<>(newRoot, newSize);
+    }
+
+    public PersistentMap<K, V> removeAll(final Collection<K> keys) {
+        final Object edit = new Object();
+        final boolean[] removed = new boolean[1];
+        Node newRoot = root;
+        int newSize = size;
+        for (K key : keys) {
+            removed[0] = false;
+            final Node next = newRoot.without(edit, 0, hash(key), key, removed);
+            newRoot = next != null ? next : BitmapNode.EMPTY;
+            if (removed[0]) {
+                newSize--;
+            }
+        }
+        return newSize == size ? this : new PersistentMap<>(newRoot, newSize);
+    }
+
+    /**
+     * Returns the values as an unmodifiable list, computed once per map.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = values;
+        if (result == null) {
+            final List<Object> collected = new ArrayList<>(size);
+            root.collect(collected);
+            result = (List<V>) List.copyOf(collected); // Immutable and safely published through final fields
+            values = result;
+        }
+        return result;
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(final int hash, final int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private interface Node {
+        Object find(int shift, int hash, Object key);
+
+        Node assoc(Object edit, int shift, int hash, Object key, Object value, boolean[] added);
+
+        // Returns null when the node becomes empty
+        Node without(Object edit, int shift, int hash, Object key, boolean[] removed);
+
+        void collect(List<Object> out);
+    }
+
+    /**
+     * Up to 32 slots, one per 5-bit hash fragment, stored densely as key/value pairs.
+     * A null key marks a slot whose value is a child node.
+     */
+    private static final class BitmapNode implements Node {
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        private final Object edit;
+        private int bitmap;
+        private Object[] array;
+
+        BitmapNode(final Object edit, final int bitmap, final Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(final int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object find(final int shift, final int hash, final Object key) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            final int i = 2 * index(bit);
+            final Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        @Override
+        public Node assoc(final Object edit, final int shift, final int hash, final Object key,
+                          final Object value, final boolean[] added) {
+            final int bit = bit(hash, shift);
+            final int i = 2 * index(bit);
+            if ((bitmap & bit) != 0) {
+                final Object k = array[i];
+                final Object v = array[i + 1];
+                if (k == null) {
+                    final Node child = ((Node) v).assoc(edit, shift + BITS, hash, key, value, added);
+                    return child == v ? this : set(edit, i + 1, child);
+                }
+                if (key.equals(k)) {
+                    return v == value ? this : set(edit, i + 1, value);
+                }
+                added[0] = true;
+                final Node child = split(edit, shift + BITS, k, v, hash, key, value);
+                final BitmapNode target = editable(edit);
+                target.array[i] = null;
+                target.array[i + 1] = child;
+                return target;
+            }
+
+            added[0] = true;
+            final Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, i);
+            grown[i] = key;
+            grown[i + 1] = value;
+            System.arraycopy(array, i, grown, i + 2, array.length - i);
+            if (edit != null && edit == this.edit) {
+                this.array = grown;
+                this.bitmap |= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap | bit, grown);
+        }
+
+        @Override
+        public Node without(final Object edit, final int shift, final int hash, final Object key,
+                            final boolean[] removed) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            final int i = 2 * index(bit);
+            final Object k = array[i];
+            if (k == null) {
+                final Node child = (Node) array[i + 1];
+                final Node newChild = child.without(edit, shift + BITS, hash, key, removed);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    return set(edit, i + 1, newChild);
+                }
+            } else if (!key.equals(k)) {
+                return this;
+            } else {
+                removed[0] = true;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            final Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            if (edit != null && edit == this.edit) {
+                this.array = shrunk;
+                this.bitmap ^= bit;
+                return this;
+            }
+            return new BitmapNode(edit, bitmap ^ bit, shrunk);
+        }
+
+        @Override
+        public void collect(final List<Object> out) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).collect(out);
+                } else {
+                    out.add(array[i + 1]);
+                }
+            }
+        }
+
+        private BitmapNode set(final Object edit, final int index, final Object value) {
+            final BitmapNode target = editable(edit);
+            target.array[index] = value;
+            return target;
+        }
+
+        private BitmapNode editable(final Object edit) {
+            if (edit != null && edit == this.edit) {
+                return this;
+            }
+            return new BitmapNode(edit, bitmap, array.clone());
+        }
+
+        private static Node split(final Object edit, final int shift, final Object k1, final Object v1,
+                                  final int h2, final Object k2, final Object v2) {
+            final int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[] {k1, v1, k2, v2});
+            }
+            final boolean[] ignored = new boolean[1];
+            return EMPTY.assoc(edit, shift, h1, k1, v1, ignored).assoc(edit, shift, h2, k2, v2, ignored);
+        }
+    }
+
+    /**
+     * Entries whose whole hashes are equal, searched linearly.
+     */
+    private static final class CollisionNode implements Node {
+        private final int hash;
+        private final Object[] array;
+
+        CollisionNode(final int hash, final Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(final Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Object find(final int shift, final int hash, final Object key) {
+            final int i = indexOf(key);
+            return i >= 0 ? array[i + 1] : null;
+        }
+
+        @Override
+        public Node assoc(final Object edit, final int shift, final int hash, final Object key,
+                          final Object value, final boolean[] added) {
+            if (hash != this.hash) {
+                final Node nested = new BitmapNode(edit, bit(this.hash, shift), new Object[] {null, this});
+                return nested.assoc(edit, shift, hash, key, value, added);
+            }
+            final int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value) {
+                    return this;
+                }
+                final Object[] replaced = array.clone();
+                replaced[i + 1] = value;
+                return new CollisionNode(hash, replaced);
+            }
+            added[0] = true;
+            final Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            return new CollisionNode(hash, grown);
+        }
+
+        @Override
+        public Node without(final Object edit, final int shift, final int hash, final Object key,
+                            final boolean[] removed) {
+            final int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            removed[0] = true;
+            if (array.length == 2) {
+                return null;
+            }
+            final Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            return new CollisionNode(hash, shrunk);
+        }
+
+        @Override
+        public void collect(final List<Object> out) {
+            for (int i = 1; i < array.length; i += 2) {
+                out.add(array[i]);
+            }
+        }
+    }
+}
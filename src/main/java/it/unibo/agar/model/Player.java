@@ -3,6 +3,7 @@ package it.unibo.agar.model;
 import java.io.Serializable;
 
 public class Player extends AbstractEntity implements Serializable {
+    public static final double SPEED = 2.0 / 0.030; // World units per second at full direction
     public Player(final String id, final double x, final double y, final double mass) {
         super(id, x, y, mass);
     }
@@ -0,0 +1,56 @@
+package it.unibo.agar.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Split of the world into a grid of equal rectangular regions, numbered row by row.
+ * An entity belongs to the region that contains its center; entities on or past the world
+ * border belong to the nearest region.
+ */
+public class RegionPartition {
+    private final int columns;
+    private final int rows;
+    private final double regionWidth;
+    private final double regionHeight;
+
+    /**
+     * Uses as many regions per axis as fit regions of at least the given side, up to the maximum.
+     */
+    public RegionPartition(final int worldWidth, final int worldHeight, final double minRegionSize,
+                           final int maxRegionsPerAxis) {
+        this.columns = regionsAlong(worldWidth, minRegionSize, maxRegionsPerAxis);
+        this.rows = regionsAlong(worldHeight, minRegionSize, maxRegionsPerAxis);
+        this.regionWidth = (double) worldWidth / columns;
+        this.regionHeight = (double) worldHeight / rows;
+    }
+
+    private static int regionsAlong(final int length, final double minRegionSize, final int maxRegions) {
+        return (int) Math.max(1, Math.min(maxRegions, Math.floor(length / minRegionSize)));
+    }
+
+    public int size() {
+        return columns * rows;
+    }
+
+    public int regionOf(final double x, final double y) {
+        final int column = (int) Math.max(0, Math.min(columns - 1, Math.floor(x / regionWidth)));
+        final int row = (int) Math.max(0, Math.min(rows - 1, Math.floor(y / regionHeight)));
+        return row * columns + column;
+    }
+
+    /**
+     * Buckets the entities by region, keeping their iteration order within each bucket.
+     */
+    public <E extends Entity> List<List<E>> partition(final Collection<? extends E> entities) {
+        final List<List<E>> regions = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            regions.add(new ArrayList<>());
+        }
+        for (E entity : entities) {
+            regions.get(regionOf(entity.getX(), entity.getY())).add(entity);
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,265 @@
+package it.unibo.agar.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Uniform grid over world coordinates used to narrow collision checks to nearby entities.
+ * Entities are bucketed by the cell containing their center; the grid is unbounded, so
+ * coordinates outside the world are still indexed correctly.
+ * Query results are returned in insertion order, which keeps eating resolution identical
+ * to a scan over the original entity list.
+ * Changes are counted per block of cells, so callers can tell whether an area changed since they last looked.
+ * The radii of the indexed entities are counted too, so collision queries widen only as far as the
+ * largest entity currently indexed.
+ */
+public class SpatialGrid<E extends Entity> {
+
+    private static final int BLOCK_CELLS = 4; // Side of a block, in cells
+
+    private static final class Slot<E> {
+        private E entity;
+        private long cell;
+        private final long sequence;
+
+        private Slot(final E entity, final long cell, final long sequence) {
+            this.entity = entity;
+            this.cell = cell;
+            this.sequence = sequence;
+        }
+    }
+
+    private final double cellSize;
+    private final Map<Long, List<Slot<E>>> cells;
+    private final Map<String, Slot<E>> slots;
+    private final Map<Long, Long> blockVersions; // Change counts only grow, so a version never repeats
+    private long clearCount;
+    private long nextSequence;
+    private final TreeMap<Double, Integer> radii = new TreeMap<>(); // Radius -> number of entities with it
+
+    public SpatialGrid(final double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.cells = new HashMap<>();
+        this.slots = new HashMap<>();
+        this.blockVersions = new HashMap<>();
+    }
+
+    public SpatialGrid(final double cellSize, final List<? extends E> entities) {
+        this(cellSize);
+        entities.forEach(this::put);
+    }
+
+    /**
+     * Inserts the entity, or replaces the entity with the same id, moving it to a new cell only if needed.
+     */
+    public void put(final E entity) {
+        final long cell = cellOf(entity.getX(), entity.getY());
+        final Slot<E> existing = slots.get(entity.getId());
+        touch(cell);
+        if (existing == null) {
+            countRadius(entity.getRadius(), 1);
+            final Slot<E> slot = new Slot<>(entity, cell, nextSequence++);
+            slots.put(entity.getId(), slot);
+            cells.computeIfAbsent(cell, k -> new ArrayList<>()).add(slot);
+        } else {
+            if (existing.entity.getRadius() != entity.getRadius()) {
+                countRadius(existing.entity.getRadius(), -1);
+                countRadius(entity.getRadius(), 1);
+            }
+            existing.entity = entity;
+            if (existing.cell != cell) {
+                touch(existing.cell);
+                removeFromCell(existing);
+                existing.cell = cell;
+                cells.computeIfAbsent(cell, k -> new ArrayList<>()).add(existing);
+            }
+        }
+    }
+
+    public void remove(final String id) {
+        final Slot<E> slot = slots.remove(id);
+        if (slot != null) {
+            touch(slot.cell);
+            removeFromCell(slot);
+            countRadius(slot.entity.getRadius(), -1);
+        }
+    }
+
+    public void removeAll(final List<? extends Entity> entities) {
+        entities.forEach(e -> remove(e.getId()));
+    }
+
+    public void retainIds(final Collection<String> ids) {
+        final List<String> stale = slots.keySet().stream()
+                .filter(id -> !ids.contains(id))
+                .toList();
+        stale.forEach(this::remove);
+    }
+
+    public void clear() {
+        cells.clear();
+        slots.clear();
+        clearCount++;
+        radii.clear();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Every indexed entity, in insertion order. Putting them in this order into an empty grid gives
+     * a grid whose queries return the same results in the same order.
+     */
+    public List<E> entities() {
+        final List<Slot<E>> all = new ArrayList<>(slots.values());
+        all.sort(Comparator.comparingLong(s -> s.sequence));
+        final List<E> result = new ArrayList<>(all.size());
+        for (Slot<E> slot : all) {
+            result.add(slot.entity);
+        }
+        return result;
+    }
+
+    /**
+     * Returns every indexed entity whose center lies in a cell touched by the square of
+     * half-side {@code range} centered on (x, y). This is a superset of the entities within range.
+     */
+    public List<E> query(final double x, final double y, final double range) {
+        return queryRect(x - range, y - range, x + range, y + range);
+    }
+
+    public List<E> queryRect(final double minX, final double minY, final double maxX, final double maxY) {
+        final long minCx = cellCoordinate(minX);
+        final long maxCx = cellCoordinate(maxX);
+        final long minCy = cellCoordinate(minY);
+        final long maxCy = cellCoordinate(maxY);
+        final List<Slot<E>> hits = new ArrayList<>();
+        for (long cx = minCx; cx <= maxCx; cx++) {
+            for (long cy = minCy; cy <= maxCy; cy++) {
+                final List<Slot<E>> bucket = cells.get(key(cx, cy));
+                if (bucket != null) {
+                    hits.addAll(bucket);
+                }
+            }
+        }
+        if (hits.size() > 1) {
+            hits.sort(Comparator.comparingLong(s -> s.sequence));
+        }
+        final List<E> result = new ArrayList<>(hits.size());
+        for (Slot<E> slot : hits) {
+            result.add(slot.entity);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexed entities that may collide with the given one, whatever their radius.
+     */
+    public List<E> collisionCandidates(final Entity entity) {
+        return query(entity.getX(), entity.getY(), entity.getRadius() + maxRadius());
+    }
+
+    /**
+     * Radius of the largest entity indexed now, or 0 when the grid is empty.
+     */
+    public double maxRadius() {
+        return radii.isEmpty() ? 0 : radii.lastKey();
+    }
+
+    /**
+     * Returns the indexed entity nearest to (x, y) among those closer than {@code maxDistance}, or null.
+     * Cells are searched in rings of growing distance, so the cost depends on the distance, not on
+     * the grid's size; of equally near entities, the one inserted first wins.
+     */
+    public E nearest(final double x, final double y, final double maxDistance) {
+        final long centerX = cellCoordinate(x);
+        final long centerY = cellCoordinate(y);
+        final long maxRing = (long) Math.ceil(maxDistance / cellSize);
+        Slot<E> best = null;
+        double bestDistance = maxDistance;
+        // Entities in ring r are at least (r - 1) cells away
+        for (long ring = 0; ring <= maxRing && (ring - 1) * cellSize < bestDistance; ring++) {
+            for (long cx = centerX - ring; cx <= centerX + ring; cx++) {
+                final boolean edgeColumn = cx == centerX - ring || cx == centerX + ring;
+                final long step = edgeColumn ? 1 : Math.max(1, 2 * ring);
+                for (long cy = centerY - ring; cy <= centerY + ring; cy += step) {
+                    final List<Slot<E>> bucket = cells.get(key(cx, cy));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (Slot<E> slot : bucket) {
+                        final double distance = Math.hypot(slot.entity.getX() - x, slot.entity.getY() - y);
+                        if (distance < bestDistance || distance == bestDistance && best != null && slot.sequence < best.sequence) {
+                            best = slot;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return best == null ? null : best.entity;
+    }
+
+    long cellKey(final double x, final double y) {
+        return cellOf(x, y);
+    }
+
+    /**
+     * Number that changes whenever an entity enters, leaves or changes within {@code range} of any
+     * point of the block containing (x, y), so a query of that range from anywhere in the block
+     * can only give a different answer once it has changed.
+     */
+    long version(final double x, final double y, final double range) {
+        final long blockX = Math.floorDiv(cellCoordinate(x), BLOCK_CELLS);
+        final long blockY = Math.floorDiv(cellCoordinate(y), BLOCK_CELLS);
+        final long blocks = (long) Math.ceil(range / (cellSize * BLOCK_CELLS));
+        long version = clearCount;
+        for (long bx = blockX - blocks; bx <= blockX + blocks; bx++) {
+            for (long by = blockY - blocks; by <= blockY + blocks; by++) {
+                version += blockVersions.getOrDefault(key(bx, by), 0L);
+            }
+        }
+        return version;
+    }
+
+    private void countRadius(final double radius, final int delta) {
+        radii.merge(radius, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    private void touch(final long cell) {
+        final long cx = cell >> 32;
+        final long cy = (int) cell;
+        blockVersions.merge(key(Math.floorDiv(cx, BLOCK_CELLS), Math.floorDiv(cy, BLOCK_CELLS)), 1L, Long::sum);
+    }
+
+    private void removeFromCell(final Slot<E> slot) {
+        final List<Slot<E>> bucket = cells.get(slot.cell);
+        if (bucket != null) {
+            bucket.remove(slot);
+            if (bucket.isEmpty()) {
+                cells.remove(slot.cell);
+            }
+        }
+    }
+
+    private long cellCoordinate(final double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    private long cellOf(final double x, final double y) {
+        return key(cellCoordinate(x), cellCoordinate(y));
+    }
+
+    private static long key(final long cx, final long cy) {
+        return (cx << 32) ^ (cy & 0xffffffffL);
+    }
+}
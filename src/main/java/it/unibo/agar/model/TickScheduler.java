@@ -0,0 +1,279 @@
+package it.unibo.agar.model;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep game loop, on a dedicated thread or on a scheduler shared with other loops.
+ * Each tick is told how much simulated time it covers and whether its result should be
+ * broadcast; what happens when ticks fall behind is decided by the {@link OverrunPolicy}.
+ * Failures of a tick are logged and counted, and never stop the loop.
+ * A stopped loop can be started again; it then resumes from a fresh deadline.
+ */
+public class TickScheduler {
+
+    public enum OverrunPolicy {
+        /** Drop missed deadlines; the next tick covers all the elapsed time in one step. */
+        SKIP,
+        /** Run up to the catch-up limit of extra ticks back to back, then drop the rest. */
+        CATCH_UP,
+        /** Like CATCH_UP, but catch-up ticks are not broadcast and broadcasts thin out while overrunning. */
+        DEGRADE_BROADCAST
+    }
+
+    @FunctionalInterface
+    public interface Task {
+        void tick(double elapsedSeconds, boolean broadcast);
+    }
+
+    /**
+     * Counters since the scheduler started; durations are in nanoseconds.
+     */
+    public record Stats(long ticks, long missedDeadlines, long failures, long lastTickNanos, long maxTickNanos,
+                        double averageTickNanos, double averageJitterNanos, long maxJitterNanos, int broadcastDivisor) { }
+
+    private static final int MAX_BROADCAST_DIVISOR = 8;
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    private final String name;
+    private final long periodNanos;
+    private final OverrunPolicy policy;
+    private final int maxCatchUpTicks;
+    private final Task task;
+    private final ScheduledExecutorService executor; // Null when the loop runs on its own thread
+    private final LatencyHistogram tickDurations = new LatencyHistogram();
+    private final Object stepLock = new Object();
+    private Thread thread;
+    private volatile ScheduledFuture<?> nextStep;
+    private volatile boolean running;
+    private volatile long generation; // Bumped on every start and stop, so a loop from an earlier start winds down
+
+    // Used by one step at a time, under stepLock
+    private long deadline;
+    private long lastTickStart;
+    private long broadcastCounter;
+
+    // Written by the running loop only, read through stats()
+    private long ticks;
+    private long missedDeadlines;
+    private long failures;
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private long totalTickNanos;
+    private long totalJitterNanos;
+    private long maxJitterNanos;
+    private int broadcastDivisor = 1;
+
+    public TickScheduler(final String name, final double ticksPerSecond, final OverrunPolicy policy,
+                         final int maxCatchUpTicks, final Task task) {
+        this(name, ticksPerSecond, policy, maxCatchUpTicks, task, null);
+    }
+
+    /**
+     * Loop whose ticks run on the given scheduler, which may drive many loops with a few threads.
+     * A null scheduler gives the loop a dedicated thread.
+     */
+    public TickScheduler(final String name, final double ticksPerSecond, final OverrunPolicy policy,
+                         final int maxCatchUpTicks, final Task task, final ScheduledExecutorService executor) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + ticksPerSecond);
+        }
+        this.name = name;
+        this.periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ticksPerSecond);
+        this.policy = policy;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        this.task = task;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs a tick somewhere else, such as a GUI's event thread, and returns once it is done.
+     */
+    @FunctionalInterface
+    public interface Dispatcher {
+        void runAndWait(Runnable tick) throws Exception;
+    }
+
+    /**
+     * Scheduler that drives a local {@link GameStateManager}. Every tick runs {@code beforeTick}, advances the
+     * manager by the elapsed time and runs {@code afterTick}, all through the dispatcher; its duration, and so
+     * the overrun handling, includes the wait for the dispatcher.
+     */
+    public static TickScheduler driving(final GameStateManager manager, final double ticksPerSecond,
+                                        final Dispatcher dispatcher, final Runnable beforeTick,
+                                        final Runnable afterTick) {
+        return new TickScheduler("agar-local-tick", ticksPerSecond, OverrunPolicy.CATCH_UP, 3, (elapsed, broadcast) -> {
+            try {
+                dispatcher.runAndWait(() -> {
+                    beforeTick.run();
+                    manager.tick(elapsed);
+                    afterTick.run();
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Stopped while waiting
+            } catch (Exception e) {
+                throw new IllegalStateException("Local tick failed", e);
+            }
+        });
+    }
+
+    public double getPeriodSeconds() {
+        return periodNanos / 1e9;
+    }
+
+    /**
+     * Distribution of tick durations since the scheduler started.
+     */
+    public LatencyHistogram tickDurations() {
+        return tickDurations;
+    }
+
+    public synchronized void start(final long initialDelayMillis) {
+        if (running) {
+            return;
+        }
+        running = true;
+        final long startGeneration = ++generation;
+        final long firstDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(initialDelayMillis);
+        if (executor != null) {
+            nextStep = executor.schedule(() -> step(startGeneration, firstDeadline),
+                    initialDelayMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        thread = new Thread(() -> loop(startGeneration, firstDeadline), name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop. Called from a tick, it takes effect once that tick returns.
+     */
+    public synchronized void stop() {
+        running = false;
+        generation++;
+        if (thread != null && thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+        final ScheduledFuture<?> step = nextStep;
+        if (step != null) {
+            step.cancel(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(ticks, missedDeadlines, failures, lastTickNanos, maxTickNanos,
+                ticks == 0 ? 0 : (double) totalTickNanos / ticks,
+                ticks == 0 ? 0 : (double) totalJitterNanos / ticks,
+                maxJitterNanos, broadcastDivisor);
+    }
+
+    private void loop(final long loopGeneration, final long firstDeadline) {
+        synchronized (stepLock) {
+            resetDeadline(firstDeadline);
+            while (isCurrent(loopGeneration)) {
+                long now = System.nanoTime();
+                while (now < deadline && isCurrent(loopGeneration)) {
+                    LockSupport.parkNanos(deadline - now);
+                    now = System.nanoTime();
+                }
+                if (!isCurrent(loopGeneration)) {
+                    return;
+                }
+                runDueTicks(loopGeneration, now);
+            }
+        }
+    }
+
+    // One wake-up on the shared scheduler: runs the ticks that are due, then books the next one.
+    // The first wake-up after a start carries the first deadline, so start never waits on a running step
+    private void step(final long stepGeneration, final long firstDeadline) {
+        final long delay;
+        synchronized (stepLock) {
+            if (!isCurrent(stepGeneration)) {
+                return;
+            }
+            if (firstDeadline != NO_DEADLINE) {
+                resetDeadline(firstDeadline);
+            }
+            runDueTicks(stepGeneration, System.nanoTime());
+            delay = deadline - System.nanoTime();
+        }
+        // A step booked after a stop finds itself outdated and does nothing
+        if (isCurrent(stepGeneration)) {
+            nextStep = executor.schedule(() -> step(stepGeneration, NO_DEADLINE),
+                    Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean isCurrent(final long loopGeneration) {
+        return running && generation == loopGeneration;
+    }
+
+    private void resetDeadline(final long firstDeadline) {
+        deadline = firstDeadline;
+        lastTickStart = firstDeadline - periodNanos;
+    }
+
+    private void runDueTicks(final long loopGeneration, final long now) {
+        // Whole periods already overdue beyond this deadline
+        final long behind = (now - deadline) / periodNanos;
+        final int catchUpTicks = policy == OverrunPolicy.SKIP ? 0 : (int) Math.min(behind, maxCatchUpTicks);
+        if (policy == OverrunPolicy.DEGRADE_BROADCAST) {
+            synchronized (this) {
+                broadcastDivisor = behind > 0
+                        ? Math.min(MAX_BROADCAST_DIVISOR, broadcastDivisor * 2)
+                        : Math.max(1, broadcastDivisor / 2);
+            }
+        }
+
+        for (int i = catchUpTicks; i >= 0 && isCurrent(loopGeneration); i--) {
+            final long start = System.nanoTime();
+            final double elapsedSeconds = policy == OverrunPolicy.SKIP
+                    ? (start - lastTickStart) / 1e9
+                    : periodNanos / 1e9;
+            final boolean broadcast = policy != OverrunPolicy.DEGRADE_BROADCAST
+                    || (i == 0 && broadcastCounter++ % broadcastDivisor == 0);
+            runTick(elapsedSeconds, broadcast, start, deadline);
+            lastTickStart = start;
+            deadline += periodNanos;
+        }
+
+        // Overdue deadlines beyond the catch-up limit are dropped rather than replayed
+        final long dropped = behind - catchUpTicks;
+        deadline += dropped * periodNanos;
+        synchronized (this) {
+            missedDeadlines += dropped;
+        }
+    }
+
+    private void runTick(final double elapsedSeconds, final boolean broadcast, final long start, final long deadline) {
+        boolean failed = false;
+        try {
+            task.tick(elapsedSeconds, broadcast);
+        } catch (Throwable t) {
+            failed = true;
+            System.err.println("Error in " + name + " tick: " + t);
+            t.printStackTrace();
+        }
+        final long duration = System.nanoTime() - start;
+        final long jitter = Math.abs(start - deadline);
+        tickDurations.record(duration);
+        synchronized (this) {
+            ticks++;
+            if (failed) {
+                failures++;
+            }
+            lastTickNanos = duration;
+            maxTickNanos = Math.max(maxTickNanos, duration);
+            totalTickNanos += duration;
+            totalJitterNanos += jitter;
+            maxJitterNanos = Math.max(maxJitterNanos, jitter);
+        }
+    }
+}
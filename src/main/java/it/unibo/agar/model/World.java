@@ -1,20 +1,39 @@
 package it.unibo.agar.model;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Immutable world, indexed by entity id. Derived worlds share the entities they did not change
+ * with the world they come from, so a new snapshot costs work proportional to the changes.
+ * A world built from lists keeps them as they are and builds its index on first lookup.
+ */
 public class World {
     private final int width;
     private final int height;
-    private final List<Player> players;
-    private final List<Food> foods;
+    // Each kind is held as a list, an index or both; whichever is missing is derived on first use
+    private List<Player> playerList;
+    private List<Food> foodList;
+    private PersistentMap<String, Player> playerIndex;
+    private PersistentMap<String, Food> foodIndex;
 
     public World(int width, int height, List<Player> players, List<Food> foods) {
         this.width = width;
         this.height = height;
-        this.players = List.copyOf(players); // Ensure immutability
-        this.foods = List.copyOf(foods);     // Ensure immutability
+        this.playerList = List.copyOf(players); // Ensure immutability; free when the list already is
+        this.foodList = List.copyOf(foods);     // Ensure immutability; free when the list already is
+    }
+
+    private World(int width, int height, PersistentMap<String, Player> players, List<Player> playerList,
+                  PersistentMap<String, Food> foods, List<Food> foodList) {
+        this.width = width;
+        this.height = height;
+        this.playerIndex = players;
+        this.playerList = playerList;
+        this.foodIndex = foods;
+        this.foodList = foodList;
     }
 
     public int getWidth() {
@@ -26,38 +45,83 @@ public class World {
     }
 
     public List<Player> getPlayers() {
-        return players;
+        if (playerList == null) {
+            playerList = playerIndex.values();
+        }
+        return playerList;
     }
 
     public List<Food> getFoods() {
-        return foods;
+        if (foodList == null) {
+            foodList = foodIndex.values();
+        }
+        return foodList;
     }
 
     public List<Player> getPlayersExcludingSelf(final Player player) {
-        return players.stream()
+        return getPlayers().stream()
                 .filter(p -> !p.getId().equals(player.getId()))
                 .collect(Collectors.toList());
     }
 
     public Optional<Player> getPlayerById(final String id) {
-        return players.stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst();
+        return Optional.ofNullable(players().get(id));
     }
 
+    public Optional<Food> getFoodById(final String id) {
+        return Optional.ofNullable(foods().get(id));
+    }
 
     public World removePlayers(final List<Player> playersToRemove) {
         List<String> idsToRemove = playersToRemove.stream().map(Player::getId).toList();
-        List<Player> newPlayers = players.stream()
-                .filter(p -> !idsToRemove.contains(p.getId()))
-                .collect(Collectors.toList());
-        return new World(width, height, newPlayers, foods);
+        return withPlayerIndex(players().removeAll(idsToRemove));
     }
 
     public World removeFoods(List<Food> foodsToRemove) {
-        List<Food> newFoods = foods.stream()
-                .filter(f -> !foodsToRemove.contains(f)) // Assumes Food has proper equals/hashCode or relies on object identity if not overridden
-                .collect(Collectors.toList());
-        return new World(width, height, players, newFoods);
+        List<String> idsToRemove = foodsToRemove.stream().map(Food::getId).toList();
+        return withFoodIndex(foods().removeAll(idsToRemove));
+    }
+
+    /**
+     * Adds the given players, replacing those with the same id.
+     */
+    public World withPlayers(final Collection<Player> updatedPlayers) {
+        return withPlayerIndex(players().putAll(updatedPlayers, Player::getId));
+    }
+
+    /**
+     * Adds the given foods, replacing those with the same id.
+     */
+    public World withFoods(final Collection<Food> addedFoods) {
+        return withFoodIndex(foods().putAll(addedFoods, Food::getId));
+    }
+
+    private World withPlayerIndex(final PersistentMap<String, Player> players) {
+        if (players == playerIndex) {
+            return this;
+        }
+        return new World(width, height, players, null, foodIndex, foodList);
+    }
+
+    private World withFoodIndex(final PersistentMap<String, Food> foods) {
+        if (foods == foodIndex) {
+            return this;
+        }
+        return new World(width, height, playerIndex, playerList, foods, null);
+    }
+
+    // Racing threads build equal indexes, and the maps are safely published through their final fields
+    private PersistentMap<String, Player> players() {
+        if (playerIndex == null) {
+            playerIndex = PersistentMap.of(playerList, Player::getId);
+        }
+        return playerIndex;
+    }
+
+    private PersistentMap<String, Food> foods() {
+        if (foodIndex == null) {
+            foodIndex = PersistentMap.of(foodList, Food::getId);
+        }
+        return foodIndex;
     }
 }
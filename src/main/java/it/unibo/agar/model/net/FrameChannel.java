@@ -0,0 +1,157 @@
+package it.unibo.agar.model.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A connection carrying length-prefixed frames: {@code [int length][payload]}. Any thread may send;
+ * a frame is written right away as far as the socket takes it, and the rest is left to the
+ * selector loop. Received payloads are handed to the listener on the loop's thread, so the
+ * listener must not block. Bytes are counted into the given adders, which may be shared.
+ */
+final class FrameChannel {
+    static final int MAX_FRAME_SIZE = 64 << 20;
+    private static final int READ_BUFFER_SIZE = 64 << 10;
+
+    interface Listener {
+        void onFrame(byte[] payload);
+
+        void onClose(IOException cause); // The cause is null after a local close or an orderly shutdown
+    }
+
+    private final SocketChannel channel;
+    private final SelectorLoop loop;
+    private final Listener listener;
+    private final String peer;
+    private final LongAdder bytesRead;
+    private final LongAdder bytesWritten;
+    private final ArrayDeque<ByteBuffer> unsent = new ArrayDeque<>(); // Guarded by itself
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE); // Used by the loop only
+    private SelectionKey key; // Set by the loop before it runs anything else for this channel
+
+    FrameChannel(SocketChannel channel, SelectorLoop loop, Listener listener, LongAdder bytesRead,
+                 LongAdder bytesWritten) throws IOException {
+        this.channel = channel;
+        this.loop = loop;
+        this.listener = listener;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.peer = String.valueOf(channel.getRemoteAddress());
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        loop.execute(() -> {
+            try {
+                key = loop.register(channel, this);
+            } catch (IOException e) {
+                close(e);
+            }
+        });
+    }
+
+    String peer() {
+        return peer;
+    }
+
+    boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * Sends a frame whose first four bytes are left for its length, which is filled in here.
+     */
+    void send(ByteBuffer frame) throws IOException {
+        frame.putInt(0, frame.remaining() - 4);
+        synchronized (unsent) {
+            if (closed.get()) {
+                throw new IOException("Connection to " + peer + " is closed");
+            }
+            if (unsent.isEmpty()) {
+                bytesWritten.add(channel.write(frame));
+                if (!frame.hasRemaining()) return;
+                loop.execute(() -> setWriteInterest(true));
+            }
+            unsent.add(frame);
+        }
+    }
+
+    void close(IOException cause) {
+        if (!closed.compareAndSet(false, true)) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        synchronized (unsent) {
+            unsent.clear();
+        }
+        listener.onClose(cause);
+    }
+
+    // Called by the loop
+    void readable() {
+        try {
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                close(null);
+                return;
+            }
+            bytesRead.add(read);
+        } catch (IOException e) {
+            close(e);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.remaining() >= 4) {
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length < 0 || length > MAX_FRAME_SIZE) {
+                close(new IOException("Frame of " + length + " bytes from " + peer));
+                return;
+            }
+            if (readBuffer.remaining() < 4 + length) {
+                if (readBuffer.capacity() < 4 + length) {
+                    readBuffer = ByteBuffer.allocate(4 + length).put(readBuffer);
+                    return;
+                }
+                break;
+            }
+            readBuffer.position(readBuffer.position() + 4);
+            byte[] payload = new byte[length];
+            readBuffer.get(payload);
+            listener.onFrame(payload);
+        }
+        readBuffer.compact();
+        if (readBuffer.capacity() > READ_BUFFER_SIZE && readBuffer.position() <= READ_BUFFER_SIZE) {
+            // Back to the usual size once the large frame is out, so each connection keeps only that much
+            readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE).put(readBuffer.flip());
+        }
+    }
+
+    // Called by the loop
+    void writable() {
+        try {
+            synchronized (unsent) {
+                while (!unsent.isEmpty()) {
+                    ByteBuffer frame = unsent.peek();
+                    bytesWritten.add(channel.write(frame));
+                    if (frame.hasRemaining()) return;
+                    unsent.poll();
+                }
+                setWriteInterest(false);
+            }
+        } catch (IOException e) {
+            close(e);
+        }
+    }
+
+    private void setWriteInterest(boolean write) {
+        if (key != null && key.isValid()) {
+            key.interestOps(write ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package it.unibo.agar.model.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.rmi.Remote;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves remote objects over TCP, as an alternative to exporting them with RMI: clients look them
+ * up by name with {@link Transport#lookup} and a {@code tcp://host:port/name} URL. One selector
+ * thread handles every connection; calls run on a bounded pool of their own, and a call that finds
+ * every thread busy and the queue full fails with a {@link java.rmi.RemoteException}.
+ */
+public final class NioServer implements Closeable {
+    static final int MAX_CALL_THREADS = 64;
+    static final int MAX_QUEUED_CALLS = 1024;
+    private static final long IDLE_THREAD_SECONDS = 60;
+
+    private final ServerSocketChannel server;
+    private final SelectorLoop loop;
+    private final ExecutorService dispatcher;
+    private final Map<String, Remote> names = new ConcurrentHashMap<>();
+    private final Set<RpcEndpoint> connections = ConcurrentHashMap.newKeySet();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    public NioServer(int port) throws IOException {
+        this.server = ServerSocketChannel.open().bind(new InetSocketAddress(port));
+        this.loop = new SelectorLoop("agar-nio-server-" + getPort());
+        this.dispatcher = callPool("agar-nio-call-");
+        loop.listen(server, this::accept);
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public void bind(String name, Remote object) {
+        names.put(name, object);
+    }
+
+    public void unbind(String name) {
+        names.remove(name);
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public int getConnectionCount() {
+        connections.removeIf(connection -> !connection.isOpen());
+        return connections.size();
+    }
+
+    @Override
+    public void close() {
+        loop.close();
+        connections.forEach(RpcEndpoint::close);
+        dispatcher.shutdown();
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    private void accept(SocketChannel channel) {
+        connections.removeIf(connection -> !connection.isOpen());
+        try {
+            connections.add(new RpcEndpoint(channel, loop, names::get, dispatcher, bytesRead, bytesWritten));
+        } catch (IOException e) {
+            System.err.println("Could not set up a connection: " + e.getMessage());
+        }
+    }
+
+    // Idle threads exit, as in a cached pool, but a flood of calls cannot start more than the maximum
+    static ExecutorService callPool(String prefix) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_CALL_THREADS, MAX_CALL_THREADS,
+                IDLE_THREAD_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_QUEUED_CALLS), daemonThreads(prefix));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
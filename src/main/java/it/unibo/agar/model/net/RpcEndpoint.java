@@ -0,0 +1,508 @@
+package it.unibo.agar.model.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.rmi.ConnectException;
+import java.rmi.MarshalException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.NotBoundException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.UnmarshalException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Remote calls over one {@link FrameChannel}, in both directions. A {@link Remote} object passed
+ * as an argument or returned is exported on the connection and reaches the other side as a proxy
+ * implementing its remote interfaces, so a client's callback object is called back over the
+ * connection the client opened. Calls block their caller until the reply arrives, at most for the
+ * {@link Transport}'s call timeout; incoming calls run on the dispatcher, each on a thread of its
+ * own as with RMI, and fail with a {@link RemoteException} when the dispatcher takes no more.
+ * <p>
+ * Frames are {@code [type][call id]} followed by the lookup name, the call's target and
+ * arguments, or the result. Primitives, strings and byte arrays are written as they are; other
+ * values go through Java serialization, limited to the game's own classes and the JDK's basic ones.
+ */
+final class RpcEndpoint implements FrameChannel.Listener {
+    private static final byte LOOKUP = 1;
+    private static final byte CALL = 2;
+    private static final byte REPLY = 3;
+    private static final byte ERROR = 4;
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte BYTES = 6;
+    private static final byte EXPORTED = 7; // An object of the sender's, called through a proxy
+    private static final byte RETURNED = 8; // A proxy the sender holds for an object of the receiver's
+    private static final byte SERIALIZED = 9;
+
+    private static final ObjectInputFilter SERIAL_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=32;maxbytes=" + FrameChannel.MAX_FRAME_SIZE
+                    + ";it.unibo.agar.**;java.lang.*;java.util.*;java.rmi.*;java.io.IOException;!*");
+
+    private static final ClassValue<Class<?>[]> REMOTE_INTERFACES = new ClassValue<>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            Set<Class<?>> interfaces = new LinkedHashSet<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Class<?> implemented : c.getInterfaces()) {
+                    if (Remote.class.isAssignableFrom(implemented)) {
+                        interfaces.add(implemented);
+                    }
+                }
+            }
+            return interfaces.toArray(Class<?>[]::new);
+        }
+    };
+
+    // Methods of a class's remote interfaces by the hash of their signature
+    private static final ClassValue<Map<Integer, Method>> REMOTE_METHODS = new ClassValue<>() {
+        @Override
+        protected Map<Integer, Method> computeValue(Class<?> type) {
+            Map<Integer, Method> methods = new HashMap<>();
+            for (Class<?> remote : REMOTE_INTERFACES.get(type)) {
+                for (Method method : remote.getMethods()) {
+                    Method previous = methods.put(methodHash(method), method);
+                    if (previous != null && !signature(previous).equals(signature(method))) {
+                        throw new IllegalStateException("Methods " + previous + " and " + method + " share a hash");
+                    }
+                }
+            }
+            return methods;
+        }
+    };
+
+    private final FrameChannel channel;
+    private final Function<String, Remote> names; // Objects the other side may look up; null on a client
+    private final Executor dispatcher;
+    private final AtomicInteger nextCallId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<byte[]>> pendingCalls = new ConcurrentHashMap<>();
+    private final Map<Integer, Object> exports = new ConcurrentHashMap<>();
+    private final Map<Object, Integer> exportIds = new IdentityHashMap<>(); // Guarded by itself
+    private final Map<Integer, Object> proxies = new HashMap<>(); // Guarded by itself
+    private volatile IOException closeCause;
+
+    RpcEndpoint(SocketChannel socket, SelectorLoop loop, Function<String, Remote> names, Executor dispatcher,
+                LongAdder bytesRead, LongAdder bytesWritten) throws IOException {
+        this.names = names;
+        this.dispatcher = dispatcher;
+        this.channel = new FrameChannel(socket, loop, this, bytesRead, bytesWritten);
+    }
+
+    boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    void close() {
+        channel.close(null);
+    }
+
+    Remote lookup(String name) throws RemoteException, NotBoundException {
+        Frame frame = new Frame(LOOKUP, nextCallId.incrementAndGet());
+        try {
+            frame.out.writeUTF(name);
+        } catch (IOException e) {
+            throw new MarshalException("Could not write lookup of " + name, e);
+        }
+        try {
+            return (Remote) call(frame, "lookup of " + name);
+        } catch (NotBoundException | RemoteException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RemoteException("Lookup of " + name + " failed", e);
+        }
+    }
+
+    @Override
+    public void onFrame(byte[] payload) {
+        byte type = payload[0];
+        int callId = ByteBuffer.wrap(payload, 1, 4).getInt();
+        if (type == REPLY || type == ERROR) {
+            CompletableFuture<byte[]> reply = pendingCalls.remove(callId);
+            if (reply != null) {
+                reply.complete(payload);
+            }
+        } else {
+            try {
+                dispatcher.execute(() -> serve(type, callId, payload));
+            } catch (RejectedExecutionException e) {
+                reply(errorReply(callId, new RemoteException("Too many calls in progress, refused one from "
+                        + channel.peer())));
+            }
+        }
+    }
+
+    @Override
+    public void onClose(IOException cause) {
+        closeCause = cause;
+        ConnectException closed = closedException();
+        pendingCalls.values().forEach(reply -> reply.completeExceptionally(closed));
+        pendingCalls.clear();
+        exports.clear();
+        synchronized (exportIds) {
+            exportIds.clear();
+        }
+        synchronized (proxies) {
+            proxies.clear(); // They only fail from now on; a new connection makes new ones
+        }
+    }
+
+    private Object invoke(int objectId, Method method, Object[] args) throws Throwable {
+        Frame frame = new Frame(CALL, nextCallId.incrementAndGet());
+        try {
+            frame.out.writeInt(objectId);
+            frame.out.writeInt(methodHash(method));
+            frame.out.writeByte(args == null ? 0 : args.length);
+            if (args != null) {
+                for (Object arg : args) {
+                    writeValue(frame.out, arg);
+                }
+            }
+        } catch (IOException e) {
+            throw new MarshalException("Could not write arguments of " + method.getName(), e);
+        }
+        return call(frame, method.getName());
+    }
+
+    // Throws what the call threw on the other side, or a RemoteException if the call did not complete
+    private Object call(Frame frame, String description) throws Throwable {
+        CompletableFuture<byte[]> reply = new CompletableFuture<>();
+        pendingCalls.put(frame.callId, reply);
+        byte[] payload;
+        try {
+            if (!channel.isOpen()) {
+                throw closedException();
+            }
+            channel.send(frame.buffer());
+            payload = reply.get(Transport.callTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            channel.close(e);
+            throw new ConnectException("Could not send " + description + " to " + channel.peer(), e);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new RemoteException(description + " to " + channel.peer() + " timed out after "
+                    + Transport.callTimeoutMillis() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException(description + " to " + channel.peer() + " was interrupted");
+        } finally {
+            pendingCalls.remove(frame.callId);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 5, payload.length - 5));
+        Object result;
+        try {
+            result = readValue(in);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new UnmarshalException("Could not read the result of " + description, e);
+        }
+        if (payload[0] == ERROR) {
+            throw (Throwable) result;
+        }
+        return result;
+    }
+
+    private void serve(byte type, int callId, byte[] payload) {
+        Frame reply;
+        try {
+            Object result = type == LOOKUP ? serveLookup(payload) : serveCall(payload);
+            reply = new Frame(REPLY, callId);
+            writeValue(reply.out, result);
+        } catch (Throwable e) {
+            reply = errorReply(callId, e);
+        }
+        reply(reply);
+    }
+
+    private void reply(Frame reply) {
+        try {
+            channel.send(reply.buffer());
+        } catch (IOException e) {
+            channel.close(e);
+        }
+    }
+
+    private Object serveLookup(byte[] payload) throws IOException, NotBoundException {
+        String name = new DataInputStream(new ByteArrayInputStream(payload, 5, payload.length - 5)).readUTF();
+        Remote object = names == null ? null : names.apply(name);
+        if (object == null) {
+            throw new NotBoundException(name);
+        }
+        return object;
+    }
+
+    private Object serveCall(byte[] payload) throws Throwable {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 5, payload.length - 5));
+        int objectId = in.readInt();
+        int hash = in.readInt();
+        Object[] args = new Object[in.readUnsignedByte()];
+        Object target = exports.get(objectId);
+        if (target == null) {
+            throw new NoSuchObjectException("No object " + objectId + " is exported to " + channel.peer());
+        }
+        Method method = REMOTE_METHODS.get(target.getClass()).get(hash);
+        if (method == null || method.getParameterCount() != args.length) {
+            throw new UnmarshalException("Unknown method " + hash + " of " + target.getClass().getName());
+        }
+        try {
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readValue(in);
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new UnmarshalException("Could not read the arguments of " + method.getName(), e);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // A failure that cannot be sent as it is reaches the caller as a RemoteException with its message
+    private Frame errorReply(int callId, Throwable failure) {
+        Frame reply = new Frame(ERROR, callId);
+        try {
+            writeValue(reply.out, failure);
+        } catch (IOException e) {
+            reply = new Frame(ERROR, callId);
+            try {
+                writeValue(reply.out, new RemoteException(failure.toString()));
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+        return reply;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            out.writeUTF(s);
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Remote remote) {
+            if (Proxy.isProxyClass(remote.getClass())
+                    && Proxy.getInvocationHandler(remote) instanceof RemoteObject handle && handle.endpoint() == this) {
+                out.writeByte(RETURNED);
+                out.writeInt(handle.objectId());
+            } else {
+                out.writeByte(EXPORTED);
+                out.writeInt(export(remote));
+                Class<?>[] interfaces = REMOTE_INTERFACES.get(remote.getClass());
+                out.writeByte(interfaces.length);
+                for (Class<?> type : interfaces) {
+                    out.writeUTF(type.getName());
+                }
+            }
+        } else if (value instanceof Serializable) {
+            out.writeByte(SERIALIZED);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(value);
+            }
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        } else {
+            throw new IOException(value.getClass().getName() + " is neither remote nor serializable");
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return in.readBoolean();
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case STRING:
+                return in.readUTF();
+            case BYTES:
+                return readBytes(in);
+            case EXPORTED: {
+                int objectId = in.readInt();
+                List<Class<?>> interfaces = new ArrayList<>();
+                for (int i = in.readUnsignedByte(); i > 0; i--) {
+                    Class<?> type = Class.forName(in.readUTF(), false, RpcEndpoint.class.getClassLoader());
+                    if (!type.isInterface() || !Remote.class.isAssignableFrom(type)) {
+                        throw new IOException(type.getName() + " is not a remote interface");
+                    }
+                    interfaces.add(type);
+                }
+                return proxy(objectId, interfaces);
+            }
+            case RETURNED: {
+                int objectId = in.readInt();
+                Object object = exports.get(objectId);
+                if (object == null) {
+                    throw new IOException("No object " + objectId + " is exported to " + channel.peer());
+                }
+                return object;
+            }
+            case SERIALIZED: {
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    objects.setObjectInputFilter(SERIAL_FILTER);
+                    return objects.readObject();
+                }
+            }
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    /**
+     * Reads a length-prefixed byte array, refusing a length the rest of the frame cannot hold before allocating it.
+     */
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        int remaining = in.available(); // Exact, since frames are read from memory
+        if (length < 0 || length > remaining) {
+            throw new IOException("Byte array of " + length + " bytes in a frame with " + remaining + " bytes left");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private int export(Object object) {
+        synchronized (exportIds) {
+            Integer id = exportIds.get(object);
+            if (id == null) {
+                id = exportIds.size() + 1;
+                exportIds.put(object, id);
+                exports.put(id, object);
+            }
+            return id;
+        }
+    }
+
+    // The same remote object always gets the same proxy, so proxies compare equal by identity
+    private Object proxy(int objectId, List<Class<?>> interfaces) {
+        synchronized (proxies) {
+            return proxies.computeIfAbsent(objectId, id -> Proxy.newProxyInstance(RpcEndpoint.class.getClassLoader(),
+                    interfaces.toArray(Class<?>[]::new), new RemoteObject(this, id)));
+        }
+    }
+
+    private ConnectException closedException() {
+        IOException cause = closeCause;
+        return new ConnectException("Connection to " + channel.peer() + " is closed", cause);
+    }
+
+    private static String signature(Method method) {
+        StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        for (Class<?> parameter : method.getParameterTypes()) {
+            signature.append(parameter.getName()).append(';');
+        }
+        return signature.append(')').toString();
+    }
+
+    private static int methodHash(Method method) {
+        return signature(method).hashCode();
+    }
+
+    /**
+     * Handler of the proxy for an object exported by the other side.
+     */
+    private record RemoteObject(RpcEndpoint endpoint, int objectId) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "Proxy[" + endpoint.channel.peer() + ", " + objectId + "]";
+                };
+            }
+            return endpoint.invoke(objectId, method, args);
+        }
+    }
+
+    /**
+     * A frame being written; the first four bytes are left for the length.
+     */
+    private static final class Frame {
+        private final Buffer bytes = new Buffer();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final int callId;
+
+        Frame(byte type, int callId) {
+            this.callId = callId;
+            try {
+                out.writeInt(0);
+                out.writeByte(type);
+                out.writeInt(callId);
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible);
+            }
+        }
+
+        ByteBuffer buffer() {
+            return bytes.wrap();
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(128);
+        }
+
+        ByteBuffer wrap() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
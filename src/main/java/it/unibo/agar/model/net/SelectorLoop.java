@@ -0,0 +1,120 @@
+package it.unibo.agar.model.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * One thread multiplexing any number of non-blocking channels. Accepted connections are handed to
+ * the listener's callback; {@link FrameChannel}s are told when they can be read or written.
+ * Changes to the registrations are queued with {@link #execute} and run on the loop's thread.
+ */
+final class SelectorLoop implements Closeable {
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean open = true;
+
+    SelectorLoop(String threadName) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this::run, threadName);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    void listen(ServerSocketChannel server, Consumer<SocketChannel> onAccept) {
+        execute(() -> {
+            try {
+                server.configureBlocking(false);
+                server.register(selector, SelectionKey.OP_ACCEPT, onAccept);
+            } catch (IOException e) {
+                System.err.println("Could not listen on " + server + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // Runs on the loop's thread
+    SelectionKey register(SelectableChannel channel, FrameChannel frames) throws ClosedChannelException {
+        return channel.register(selector, SelectionKey.OP_READ, frames);
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        selector.wakeup();
+    }
+
+    private void run() {
+        try {
+            while (open) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Selector loop " + thread.getName() + " failed: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof FrameChannel frames) {
+                    frames.close(null);
+                } else {
+                    closeQuietly(key.channel());
+                }
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            try {
+                SocketChannel accepted = ((ServerSocketChannel) key.channel()).accept();
+                if (accepted != null) {
+                    ((Consumer<SocketChannel>) key.attachment()).accept(accepted);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not accept a connection: " + e.getMessage());
+            }
+            return;
+        }
+        FrameChannel frames = (FrameChannel) key.attachment();
+        if (key.isReadable()) {
+            frames.readable();
+        }
+        if (key.isValid() && key.isWritable()) {
+            frames.writable();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Already going away
+        }
+    }
+}
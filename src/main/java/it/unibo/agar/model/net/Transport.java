@@ -0,0 +1,143 @@
+package it.unibo.agar.model.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.channels.SocketChannel;
+import java.rmi.ConnectException;
+import java.rmi.Naming;
+import java.rmi.NotBoundException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.server.RMISocketFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Looks up remote objects by URL, over the transport the URL names: {@code tcp://host:port/name}
+ * for a {@link NioServer}, anything else for the RMI registry. Either way the result is used
+ * the same way, so game code does not depend on the transport.
+ * <p>
+ * Every TCP server is reached through one connection, opened by the first lookup and shared by
+ * all objects obtained from it; the server calls back this process's objects over it too.
+ * A lookup after the connection broke opens a new one.
+ * <p>
+ * {@link #setTimeouts} bounds how long connecting to a peer and waiting for its replies may take,
+ * so a peer that vanished costs a bounded time instead of blocking a thread for good.
+ */
+public final class Transport {
+    public static final String TCP_SCHEME = "tcp";
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 2000;
+    public static final long DEFAULT_CALL_TIMEOUT_MILLIS = 5000;
+
+    private static final Map<String, RpcEndpoint> connections = new HashMap<>(); // Guarded by itself
+    private static SelectorLoop loop;
+    private static ExecutorService dispatcher;
+    private static volatile long connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private static volatile long callTimeoutMillis = DEFAULT_CALL_TIMEOUT_MILLIS;
+    private static boolean rmiSocketsInstalled;
+
+    private Transport() { }
+
+    /**
+     * Sets the timeouts of both transports. RMI reads its part once, so this must run before
+     * the process's first RMI call; {@code sun.rmi} properties given on the command line are kept.
+     */
+    public static synchronized void setTimeouts(long connectMillis, long callMillis) {
+        if (connectMillis <= 0 || callMillis <= 0) {
+            throw new IllegalArgumentException("Timeouts must be positive: " + connectMillis + ", " + callMillis);
+        }
+        connectTimeoutMillis = connectMillis;
+        callTimeoutMillis = callMillis;
+        setPropertyUnlessGiven("sun.rmi.transport.tcp.responseTimeout", callMillis);
+        setPropertyUnlessGiven("sun.rmi.transport.tcp.handshakeTimeout", connectMillis);
+        if (!rmiSocketsInstalled) {
+            try {
+                RMISocketFactory.setSocketFactory(new TimeoutSocketFactory());
+                rmiSocketsInstalled = true;
+            } catch (IOException e) {
+                System.err.println("RMI connections keep their socket factory, without a connect timeout: " + e.getMessage());
+            }
+        }
+    }
+
+    static long callTimeoutMillis() {
+        return callTimeoutMillis;
+    }
+
+    public static Remote lookup(String url) throws RemoteException, NotBoundException, MalformedURLException {
+        if (!url.startsWith(TCP_SCHEME + "://")) {
+            return Naming.lookup(url);
+        }
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (Exception e) {
+            throw new MalformedURLException(url + ": " + e.getMessage());
+        }
+        String name = uri.getPath() == null ? "" : uri.getPath().replaceFirst("^/", "");
+        if (uri.getHost() == null || uri.getPort() < 0 || name.isEmpty()) {
+            throw new MalformedURLException(url + " is not of the form tcp://host:port/name");
+        }
+        return connection(uri.getHost(), uri.getPort()).lookup(name);
+    }
+
+    private static RpcEndpoint connection(String host, int port) throws RemoteException {
+        String address = host + ":" + port;
+        synchronized (connections) {
+            RpcEndpoint connection = connections.get(address);
+            if (connection != null && connection.isOpen()) {
+                return connection;
+            }
+            try {
+                if (loop == null) {
+                    loop = new SelectorLoop("agar-nio-client");
+                    dispatcher = NioServer.callPool("agar-nio-callback-");
+                }
+                SocketChannel channel = SocketChannel.open();
+                try {
+                    channel.socket().connect(new InetSocketAddress(host, port), (int) connectTimeoutMillis);
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                connection = new RpcEndpoint(channel, loop, null, dispatcher, new LongAdder(), new LongAdder());
+            } catch (IOException e) {
+                throw new ConnectException("Could not connect to " + address, e);
+            }
+            connections.put(address, connection);
+            return connection;
+        }
+    }
+
+    private static void setPropertyUnlessGiven(String name, long millis) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, String.valueOf(millis));
+        }
+    }
+
+    // Client sockets of RMI, connected with the current connect timeout
+    private static final class TimeoutSocketFactory extends RMISocketFactory {
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), (int) connectTimeoutMillis);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            return socket;
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            return new ServerSocket(port);
+        }
+    }
+}
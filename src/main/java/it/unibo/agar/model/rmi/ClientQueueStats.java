@@ -0,0 +1,9 @@
+package it.unibo.agar.model.rmi;
+
+import java.io.Serializable;
+
+/**
+ * Outbound queue counters of one connected client.
+ */
+public record ClientQueueStats(String playerId, int queueDepth, long sentFrames, long droppedFrames) implements Serializable {
+}
@@ -0,0 +1,282 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side view of one connected client: the state it last acknowledged, whether it needs
+ * a keyframe to resynchronize, and the sender thread that delivers its updates.
+ * The tick only ever drops the newest frame into a one-slot mailbox, so a slow client
+ * loses stale frames instead of stalling the simulation.
+ */
+class ClientSession {
+    private static final long KEYFRAME_INTERVAL = 100; // versions between periodic keyframes
+
+    private final String playerId;
+    private final GameClient client;
+    private final ServerMetrics metrics;
+    private final Thread sender;
+    private final Object mailboxLock = new Object();
+    private Frame pending;
+    private boolean deathPending;
+    private String redirectPending;
+    private boolean running = true;
+    private long droppedFrames;
+    private long consecutiveDrops;
+    private volatile long sentFrames;
+    private volatile boolean failed;
+    private volatile long lastDeliveryNanos = System.nanoTime();
+    private final SnapshotCodec.Encoder encoder = new SnapshotCodec.Encoder();
+    private long ackedVersion = -1;
+    private long lastKeyframeVersion = -1;
+    private volatile boolean keyframeRequested = true;
+    private Map<String, Player> ackedPlayers = new HashMap<>();
+    private Map<String, Food> ackedFoods = new HashMap<>();
+    private volatile double viewWidth;
+    private volatile double viewHeight;
+    private volatile boolean fullWorld;
+    private double lastCenterX = Double.NaN;
+    private double lastCenterY = Double.NaN;
+
+    private record Frame(long version, Map<String, Player> players, Map<String, Food> foods) { }
+
+    ClientSession(String playerId, GameClient client, ServerMetrics metrics) {
+        this.playerId = playerId;
+        this.client = client;
+        this.metrics = metrics;
+        this.sender = new Thread(this::runSender, "agar-sender-" + playerId);
+        this.sender.setDaemon(true);
+    }
+
+    String getPlayerId() {
+        return playerId;
+    }
+
+    GameClient getClient() {
+        return client;
+    }
+
+    void setViewport(double width, double height) {
+        this.viewWidth = width;
+        this.viewHeight = height;
+    }
+
+    boolean hasReportedViewport() {
+        return viewWidth > 0 && viewHeight > 0;
+    }
+
+    double getViewWidth() {
+        return viewWidth;
+    }
+
+    double getViewHeight() {
+        return viewHeight;
+    }
+
+    void setFullWorld(boolean fullWorld) {
+        this.fullWorld = fullWorld;
+    }
+
+    boolean isFullWorld() {
+        return fullWorld;
+    }
+
+    /**
+     * Remembers where the client's player was last seen, so a dead player keeps watching the same area.
+     */
+    void setCenter(double x, double y) {
+        this.lastCenterX = x;
+        this.lastCenterY = y;
+    }
+
+    boolean hasCenter() {
+        return !Double.isNaN(lastCenterX);
+    }
+
+    double getCenterX() {
+        return lastCenterX;
+    }
+
+    double getCenterY() {
+        return lastCenterY;
+    }
+
+    void requestKeyframe() {
+        keyframeRequested = true;
+    }
+
+    void start() {
+        sender.start();
+    }
+
+    void close() {
+        synchronized (mailboxLock) {
+            running = false;
+            mailboxLock.notifyAll();
+        }
+        sender.interrupt();
+    }
+
+    /**
+     * Hands the latest visible state to the sender without blocking. An unsent frame is replaced, never queued.
+     */
+    void offer(long version, Map<String, Player> players, Map<String, Food> foods) {
+        synchronized (mailboxLock) {
+            if (pending != null) {
+                droppedFrames++;
+                consecutiveDrops++;
+            }
+            pending = new Frame(version, players, foods);
+            mailboxLock.notifyAll();
+        }
+    }
+
+    /**
+     * Queues a notice that this server now hosts the player, delivered before any frame.
+     */
+    void offerRedirect(String serverUrl) {
+        synchronized (mailboxLock) {
+            redirectPending = serverUrl;
+            mailboxLock.notifyAll();
+        }
+    }
+
+    void offerDeathNotice() {
+        synchronized (mailboxLock) {
+            deathPending = true;
+            mailboxLock.notifyAll();
+        }
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    // When the client last acknowledged an update, which proves it is still there
+    long getLastDeliveryNanos() {
+        return lastDeliveryNanos;
+    }
+
+    long getConsecutiveDrops() {
+        synchronized (mailboxLock) {
+            return consecutiveDrops;
+        }
+    }
+
+    ClientQueueStats stats() {
+        synchronized (mailboxLock) {
+            return new ClientQueueStats(playerId, pending != null ? 1 : 0, sentFrames, droppedFrames);
+        }
+    }
+
+    private void runSender() {
+        while (true) {
+            Frame frame;
+            boolean sendDeath;
+            String redirect;
+            synchronized (mailboxLock) {
+                while (running && pending == null && !deathPending && redirectPending == null) {
+                    try {
+                        mailboxLock.wait();
+                    } catch (InterruptedException e) {
+                        if (!running) return;
+                    }
+                }
+                if (!running) return;
+                frame = pending;
+                sendDeath = deathPending;
+                redirect = redirectPending;
+                pending = null;
+                deathPending = false;
+                redirectPending = null;
+            }
+
+            try {
+                if (redirect != null) {
+                    client.redirect(redirect);
+                }
+                if (frame != null) {
+                    push(frame);
+                    sentFrames++;
+                    synchronized (mailboxLock) {
+                        consecutiveDrops = 0;
+                    }
+                }
+                if (sendDeath) {
+                    client.notifyPlayerDeath();
+                }
+            } catch (RemoteException e) {
+                System.err.println("Failed to notify client " + playerId + ": " + e.getMessage());
+                metrics.notificationFailed();
+                failed = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends the changes between the last acknowledged state and the given one, and records the client's ack.
+     */
+    private void push(Frame frame) throws RemoteException {
+        long version = frame.version();
+        boolean keyframe = keyframeRequested || ackedVersion < 0 || version - lastKeyframeVersion >= KEYFRAME_INTERVAL;
+        StateDelta delta = keyframe
+                ? StateDelta.keyframe(version, new ArrayList<>(frame.players().values()), new ArrayList<>(frame.foods().values()))
+                : diff(version, frame.players(), frame.foods());
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        long ack = client.applyEncodedDelta(encoder.encode(delta));
+        lastDeliveryNanos = System.nanoTime();
+        if (ack == version) {
+            ackedVersion = version;
+            ackedPlayers = frame.players();
+            ackedFoods = frame.foods();
+            keyframeRequested = false;
+            if (keyframe) {
+                lastKeyframeVersion = version;
+            }
+        } else {
+            // The client could not apply the delta on top of its state
+            keyframeRequested = true;
+        }
+    }
+
+    private StateDelta diff(long version, Map<String, Player> players, Map<String, Food> foods) {
+        List<Player> added = new ArrayList<>();
+        List<Player> moved = new ArrayList<>();
+        for (Player player : players.values()) {
+            Player previous = ackedPlayers.get(player.getId());
+            if (previous == null) {
+                added.add(player);
+            } else if (previous.getX() != player.getX() || previous.getY() != player.getY()
+                    || previous.getMass() != player.getMass()) {
+                moved.add(player);
+            }
+        }
+        List<String> removedPlayers = ackedPlayers.keySet().stream()
+                .filter(id -> !players.containsKey(id))
+                .toList();
+
+        // Food does not move, so a food whose id is known but whose position changed was respawned
+        List<Food> addedFoods = foods.values().stream()
+                .filter(food -> {
+                    Food previous = ackedFoods.get(food.getId());
+                    return previous == null || previous.getX() != food.getX() || previous.getY() != food.getY()
+                            || previous.getMass() != food.getMass();
+                })
+                .toList();
+        List<String> removedFoods = ackedFoods.keySet().stream()
+                .filter(id -> !foods.containsKey(id))
+                .toList();
+
+        return new StateDelta(version, ackedVersion, false, added, moved, removedPlayers, addedFoods, removedFoods);
+    }
+}
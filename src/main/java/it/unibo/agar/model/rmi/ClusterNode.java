@@ -0,0 +1,309 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.SpatialGrid;
+
+import java.net.MalformedURLException;
+import java.rmi.Naming;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * One server's side of a cluster: its links to the other nodes, the entities its neighbours
+ * reported near the shared borders (ghosts), and the players it handed off.
+ * A player eaten across a border is remembered for a while, so neither a border update sent
+ * before the news arrived nor a handoff already on its way can bring it back. Ghost food is only
+ * claimed from its owner, which grants it once; the eater gets the mass when the claim is granted.
+ * Calls to a peer run in order on a thread of their own, so neither the tick nor an incoming
+ * call ever waits on another node; border updates are coalesced, so a slow peer only gets the newest.
+ * Apart from {@link #receiveBorder}, methods are called under the server's lock.
+ */
+class ClusterNode {
+    private static final double HANDOFF_HYSTERESIS = 20.0; // Keeps a player on a border from bouncing between nodes
+    private static final long BORDER_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(2); // Ghosts of a silent peer are dropped
+    private static final long EATEN_MEMORY_NANOS = BORDER_TIMEOUT_NANOS; // Longer than any update in flight
+    private static final Border NO_BORDER = new Border(List.of(), List.of(), 0);
+
+    private record Border(List<Player> players, List<Food> foods, long receivedAtNanos) { }
+
+    private final ClusterTopology topology;
+    private final int index;
+    private final double borderWidth;
+    private final Map<Integer, PeerLink> peers = new HashMap<>();
+    private final Map<Integer, Border> received = new ConcurrentHashMap<>();
+    private final Map<Integer, Border> applied = new HashMap<>();
+    private final Map<String, Integer> ghostPlayerOwners = new HashMap<>();
+    private final Map<String, Integer> ghostFoodOwners = new HashMap<>();
+    private final Map<String, Integer> handedOff = new HashMap<>();
+    private final Map<String, Long> eatenPlayers = new HashMap<>(); // When each player was eaten
+
+    ClusterNode(ClusterTopology topology, int index, double borderWidth) {
+        if (index < 0 || index >= topology.size()) {
+            throw new IllegalArgumentException("Node " + index + " is not part of a " + topology.size() + "-node cluster");
+        }
+        this.topology = topology;
+        this.index = index;
+        this.borderWidth = borderWidth;
+    }
+
+    int index() {
+        return index;
+    }
+
+    String url() {
+        return topology.url(index);
+    }
+
+    double minX() {
+        return topology.minX(index);
+    }
+
+    double maxX() {
+        return topology.maxX(index);
+    }
+
+    List<Integer> neighbours() {
+        List<Integer> neighbours = new ArrayList<>(2);
+        if (index > 0) {
+            neighbours.add(index - 1);
+        }
+        if (index < topology.size() - 1) {
+            neighbours.add(index + 1);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Node a player at the given x must be handed to, or -1 while it is close enough to stay here.
+     */
+    int handoffTarget(double x) {
+        if (x >= minX() - HANDOFF_HYSTERESIS && x < maxX() + HANDOFF_HYSTERESIS) {
+            return -1;
+        }
+        return topology.ownerOf(x);
+    }
+
+    /**
+     * Band along the border shared with a neighbour, on both sides since players may be
+     * slightly past it before they are handed off.
+     */
+    InterestArea borderArea(int neighbour) {
+        double edge = neighbour < index ? minX() : maxX();
+        return new InterestArea(edge - borderWidth, 0, edge + borderWidth, topology.worldHeight());
+    }
+
+    // Called by RMI threads; takes effect on the next applyBorders
+    void receiveBorder(int fromNode, List<Player> players, List<Food> foods) {
+        received.put(fromNode, new Border(players, foods, System.nanoTime()));
+    }
+
+    /**
+     * Replaces the ghosts in the grids with those of the latest border updates. Ghosts of players
+     * this server owns, which happens right after a handoff, are skipped.
+     */
+    void applyBorders(SpatialGrid<Player> playerGrid, SpatialGrid<Food> foodGrid, Predicate<String> ownsPlayer) {
+        long now = System.nanoTime();
+        eatenPlayers.values().removeIf(eatenAt -> now - eatenAt > EATEN_MEMORY_NANOS);
+        for (Map.Entry<Integer, Border> entry : received.entrySet()) {
+            int from = entry.getKey();
+            Border border = entry.getValue();
+            if (border != NO_BORDER && now - border.receivedAtNanos() > BORDER_TIMEOUT_NANOS) {
+                received.replace(from, border, NO_BORDER);
+                border = NO_BORDER;
+            }
+            Border previous = applied.put(from, border);
+            if (previous == border) {
+                continue;
+            }
+            if (previous != null) {
+                for (Player ghost : previous.players()) {
+                    if (ghostPlayerOwners.remove(ghost.getId(), from) && !ownsPlayer.test(ghost.getId())) {
+                        playerGrid.remove(ghost.getId());
+                    }
+                }
+                for (Food ghost : previous.foods()) {
+                    if (ghostFoodOwners.remove(ghost.getId(), from)) {
+                        foodGrid.remove(ghost.getId());
+                    }
+                }
+            }
+            for (Player ghost : border.players()) {
+                if (!ownsPlayer.test(ghost.getId()) && !eatenPlayers.containsKey(ghost.getId())) {
+                    ghostPlayerOwners.put(ghost.getId(), from);
+                    playerGrid.put(ghost);
+                }
+            }
+            for (Food ghost : border.foods()) {
+                ghostFoodOwners.put(ghost.getId(), from);
+                foodGrid.put(ghost);
+            }
+        }
+    }
+
+    /**
+     * Tells the owner of a ghost player that it was eaten here; returns false if the player is no ghost.
+     */
+    boolean forwardEatenPlayer(String playerId) {
+        Integer owner = ghostPlayerOwners.remove(playerId);
+        if (owner == null) {
+            return false;
+        }
+        rememberEaten(playerId);
+        peer(owner).send(peer -> peer.removeEatenPlayer(playerId), null);
+        return true;
+    }
+
+    /**
+     * Remembers a player that was eaten while it was not hosted here, in case it is adopted later.
+     */
+    void rememberEaten(String playerId) {
+        eatenPlayers.put(playerId, System.nanoTime());
+    }
+
+    boolean wasEaten(String playerId) {
+        Long eatenAt = eatenPlayers.get(playerId);
+        return eatenAt != null && System.nanoTime() - eatenAt <= EATEN_MEMORY_NANOS;
+    }
+
+    boolean isGhostFood(String foodId) {
+        return ghostFoodOwners.containsKey(foodId);
+    }
+
+    /**
+     * Asks the owner of a ghost food for it; returns false if the food is no ghost. The ghost is
+     * dropped either way, and the grant handler runs on the peer's thread if the owner still had the food.
+     */
+    boolean claimFood(Food food, Runnable onGranted) {
+        Integer owner = ghostFoodOwners.remove(food.getId());
+        if (owner == null) {
+            return false;
+        }
+        peer(owner).send(peer -> {
+            if (peer.claimFood(food)) {
+                onGranted.run();
+            }
+        }, null);
+        return true;
+    }
+
+    /**
+     * Sends each neighbour the players and foods of the grids in the band along their shared border,
+     * leaving out the ghosts: only the entities this server hosts and owns are sent.
+     */
+    void sendBorders(SpatialGrid<Player> playerGrid, SpatialGrid<Food> foodGrid, Predicate<Player> hosts,
+                     Predicate<Food> owns) {
+        for (int neighbour : neighbours()) {
+            InterestArea area = borderArea(neighbour);
+            List<Player> players = area.select(playerGrid).stream().filter(hosts).toList();
+            List<Food> foods = area.select(foodGrid).stream().filter(owns).toList();
+            peer(neighbour).sendBorder(index, new Border(players, foods, 0));
+        }
+    }
+
+    // The failure handler runs on the peer's thread
+    void handOff(int target, PlayerHandoff handoff, Runnable onFailure) {
+        handedOff.put(handoff.player().getId(), target);
+        peer(target).send(peer -> peer.acceptPlayer(handoff), onFailure);
+    }
+
+    /**
+     * Sends a client to the node its player was handed to; returns false if the player was not handed off from here.
+     */
+    boolean forwardClient(String playerId, GameClient client) {
+        Integer target = handedOff.remove(playerId);
+        if (target == null) {
+            return false;
+        }
+        peer(target).send(peer -> peer.attachClient(client), null);
+        return true;
+    }
+
+    // The player is hosted here again
+    void forget(String playerId) {
+        handedOff.remove(playerId);
+    }
+
+    void close() {
+        peers.values().forEach(PeerLink::close);
+    }
+
+    private PeerLink peer(int node) {
+        return peers.computeIfAbsent(node, n -> new PeerLink(topology.url(n), "agar-peer-" + n));
+    }
+
+    private interface PeerCall {
+        void invoke(ClusterPeer peer) throws RemoteException;
+    }
+
+    /**
+     * Ordered, asynchronous calls to one peer. The stub is looked up on first use and again after a failure.
+     */
+    private static final class PeerLink {
+        private final String url;
+        private final ExecutorService executor;
+        private final AtomicReference<Border> pendingBorder = new AtomicReference<>();
+        // Used by the executor thread only
+        private ClusterPeer stub;
+        private boolean reachable = true;
+
+        PeerLink(String url, String threadName) {
+            this.url = url;
+            this.executor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void send(PeerCall call, Runnable onFailure) {
+            executor.execute(() -> {
+                try {
+                    if (stub == null) {
+                        stub = (ClusterPeer) Naming.lookup(url);
+                    }
+                    call.invoke(stub);
+                    if (!reachable) {
+                        System.out.println("Peer " + url + " is reachable again");
+                        reachable = true;
+                    }
+                } catch (RemoteException | NotBoundException | MalformedURLException e) {
+                    if (reachable) {
+                        System.err.println("Peer " + url + " is unreachable: " + e.getMessage());
+                        reachable = false;
+                    }
+                    stub = null;
+                    if (onFailure != null) {
+                        onFailure.run();
+                    }
+                }
+            });
+        }
+
+        // Only the newest border is sent; a send already queued picks up later updates
+        void sendBorder(int fromNode, Border border) {
+            if (pendingBorder.getAndSet(border) == null) {
+                send(peer -> {
+                    Border latest = pendingBorder.getAndSet(null);
+                    if (latest != null) {
+                        peer.updateBorder(fromNode, latest.players(), latest.foods());
+                    }
+                }, () -> pendingBorder.set(null)); // The next tick's border is queued afresh
+            }
+        }
+
+        void close() {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Remote interface between the servers of a cluster
+ */
+public interface ClusterPeer extends Remote {
+    void acceptPlayer(PlayerHandoff handoff) throws RemoteException; // The player crossed into the receiver's strip
+    void attachClient(GameClient client) throws RemoteException; // Client of a player handed off before the client registered
+    void updateBorder(int fromNode, List<Player> players, List<Food> foods) throws RemoteException; // Sender's entities near the shared border
+    void removeEatenPlayer(String playerId) throws RemoteException; // Eaten across the border by one of the sender's players
+    boolean claimFood(Food food) throws RemoteException; // Eaten across the border; true if it was still there, so the eater gets its mass
+}
@@ -0,0 +1,50 @@
+package it.unibo.agar.model.rmi;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Split of the world among the servers of a cluster: node {@code i} of {@code n} owns the vertical
+ * strip {@code [i * width / n, (i + 1) * width / n)} and is bound at the i-th URL.
+ * Every node of a cluster must be started with the same topology.
+ */
+public record ClusterTopology(int worldWidth, int worldHeight, List<String> nodeUrls) implements Serializable {
+
+    public ClusterTopology {
+        if (nodeUrls.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one node");
+        }
+        nodeUrls = List.copyOf(nodeUrls);
+    }
+
+    /**
+     * Nodes on one machine, each with its own registry on consecutive ports from the base port.
+     */
+    public static ClusterTopology local(int worldWidth, int worldHeight, int nodes, int basePort, String serverName) {
+        return new ClusterTopology(worldWidth, worldHeight, IntStream.range(0, nodes)
+                .mapToObj(i -> "rmi://localhost:" + (basePort + i) + "/" + serverName)
+                .toList());
+    }
+
+    public int size() {
+        return nodeUrls.size();
+    }
+
+    public String url(int node) {
+        return nodeUrls.get(node);
+    }
+
+    public double minX(int node) {
+        return (double) worldWidth * node / size();
+    }
+
+    public double maxX(int node) {
+        return (double) worldWidth * (node + 1) / size();
+    }
+
+    // Positions on or past the world border belong to the nearest strip
+    public int ownerOf(double x) {
+        return (int) Math.max(0, Math.min(size() - 1, Math.floor(x * size() / worldWidth)));
+    }
+}
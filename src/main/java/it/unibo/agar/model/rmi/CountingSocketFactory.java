@@ -0,0 +1,97 @@
+package it.unibo.agar.model.rmi;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIServerSocketFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server socket factory for exporting remote objects that counts the bytes read from and
+ * written to every accepted connection. Objects exported with the same instance share one port.
+ */
+public class CountingSocketFactory implements RMIServerSocketFactory {
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new ServerSocket(port) {
+            @Override
+            public Socket accept() throws IOException {
+                Socket socket = new CountingSocket();
+                implAccept(socket);
+                return socket;
+            }
+        };
+    }
+
+    /**
+     * Bytes received by the exported objects: incoming calls and their arguments.
+     */
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    /**
+     * Bytes sent by the exported objects: return values and protocol acknowledgements.
+     */
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    private class CountingSocket extends Socket {
+        private InputStream countingIn;
+        private OutputStream countingOut;
+
+        @Override
+        public synchronized InputStream getInputStream() throws IOException {
+            if (countingIn == null) {
+                countingIn = new FilterInputStream(super.getInputStream()) {
+                    @Override
+                    public int read() throws IOException {
+                        int value = super.read();
+                        if (value >= 0) {
+                            bytesRead.increment();
+                        }
+                        return value;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int read = super.read(buffer, offset, length);
+                        if (read > 0) {
+                            bytesRead.add(read);
+                        }
+                        return read;
+                    }
+                };
+            }
+            return countingIn;
+        }
+
+        @Override
+        public synchronized OutputStream getOutputStream() throws IOException {
+            if (countingOut == null) {
+                countingOut = new FilterOutputStream(super.getOutputStream()) {
+                    @Override
+                    public void write(int value) throws IOException {
+                        out.write(value);
+                        bytesWritten.increment();
+                    }
+
+                    @Override
+                    public void write(byte[] buffer, int offset, int length) throws IOException {
+                        out.write(buffer, offset, length);
+                        bytesWritten.add(length);
+                    }
+                };
+            }
+            return countingOut;
+        }
+    }
+}
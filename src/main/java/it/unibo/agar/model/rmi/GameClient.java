@@ -11,6 +11,23 @@ import java.util.List;
  */
 public interface GameClient extends Remote {
     void updateGameState(List<Player> players, List<Food> foods) throws RemoteException;
+
+    /**
+     * Applies a numbered state change and returns the version the client holds afterwards.
+     * A return value other than the delta's version tells the server to resend a keyframe.
+     */
+    long applyDelta(StateDelta delta) throws RemoteException;
+
+    /**
+     * Same as {@link #applyDelta(StateDelta)} for a delta in the {@link SnapshotCodec} wire format.
+     */
+    long applyEncodedDelta(byte[] frame) throws RemoteException;
     void notifyPlayerDeath() throws RemoteException;
+
+    /**
+     * The player moved to the server bound at the given URL, which sends the updates from now on
+     * and must receive the client's input.
+     */
+    void redirect(String serverUrl) throws RemoteException;
     String getPlayerId() throws RemoteException;
 }
\ No newline at end of file
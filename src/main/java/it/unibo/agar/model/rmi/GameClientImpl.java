@@ -5,41 +5,101 @@ import it.unibo.agar.model.Food;
 import it.unibo.agar.model.Player;
 import it.unibo.agar.view.GlobalView;
 import it.unibo.agar.view.LocalView;
+import java.io.UncheckedIOException;
 import java.rmi.RemoteException;
+import java.rmi.server.RMIServerSocketFactory;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import javax.swing.SwingUtilities;
 
 public class GameClientImpl extends UnicastRemoteObject implements GameClient {
+
+    /**
+     * State as of one applied update, stamped with the local time it arrived.
+     */
+    public record Snapshot(long version, List<Player> players, List<Food> foods, long receivedAtNanos) { }
+
     private final String playerId;
     private LocalView localView;
     private GlobalView globalView;
     private volatile List<Player> currentPlayers;
     private volatile List<Food> currentFoods;
+    private volatile Snapshot snapshot;
     private volatile boolean isAlive = true;
+    private volatile Consumer<String> redirectListener;
+    private final Map<String, Player> playersById = new LinkedHashMap<>();
+    private final Map<String, Food> foodsById = new LinkedHashMap<>();
+    private long stateVersion = -1;
+    private final SnapshotCodec.Decoder decoder = new SnapshotCodec.Decoder();
 
     public GameClientImpl(String playerId) throws RemoteException {
-        super();
+        this(playerId, null);
+    }
+
+    // A null socket factory exports with the default RMI sockets
+    public GameClientImpl(String playerId, RMIServerSocketFactory socketFactory) throws RemoteException {
+        super(0, null, socketFactory);
         this.playerId = playerId;
         System.out.println("GameClient created for " + playerId);
     }
 
     @Override
-    public void updateGameState(List<Player> players, List<Food> foods) throws RemoteException {
-        this.currentPlayers = players;
-        this.currentFoods = foods;
+    public synchronized void updateGameState(List<Player> players, List<Food> foods) throws RemoteException {
+        playersById.clear();
+        foodsById.clear();
+        players.forEach(p -> playersById.put(p.getId(), p));
+        foods.forEach(f -> foodsById.put(f.getId(), f));
+        publishState(true);
+    }
 
-        // Debug logging
-        if (players != null && foods != null) {
-            System.out.println("GameState update received: " + players.size() + " players, " + foods.size() + " foods");
+    @Override
+    public synchronized long applyDelta(StateDelta delta) throws RemoteException {
+        if (delta.isKeyframe()) {
+            playersById.clear();
+            foodsById.clear();
+        } else if (delta.getBaseVersion() != stateVersion) {
+            // Missed an update: keep the current state and let the server send a keyframe
+            System.out.println("Delta " + delta.getVersion() + " does not apply to version " + stateVersion + ", resynchronizing");
+            return stateVersion;
         }
 
-        if (localView != null) {
-            SwingUtilities.invokeLater(() -> localView.repaintView());
+        delta.getRemovedPlayerIds().forEach(playersById::remove);
+        delta.getAddedPlayers().forEach(p -> playersById.put(p.getId(), p));
+        delta.getMovedPlayers().forEach(p -> playersById.put(p.getId(), p));
+        delta.getRemovedFoodIds().forEach(foodsById::remove);
+        delta.getAddedFoods().forEach(f -> foodsById.put(f.getId(), f));
+        stateVersion = delta.getVersion();
+        publishState(delta.isKeyframe() || !delta.getAddedFoods().isEmpty() || !delta.getRemovedFoodIds().isEmpty());
+        return stateVersion;
+    }
+
+    @Override
+    public synchronized long applyEncodedDelta(byte[] frame) throws RemoteException {
+        if (!SnapshotCodec.isKeyframe(frame) && SnapshotCodec.baseVersion(frame) != stateVersion) {
+            // Decoding would corrupt the handle table, so skip straight to resynchronizing
+            return stateVersion;
+        }
+        try {
+            return applyDelta(decoder.decode(frame));
+        } catch (UncheckedIOException e) {
+            System.err.println("Could not decode state update: " + e.getMessage());
+            return stateVersion;
         }
+    }
 
-        if (globalView != null) {
-            SwingUtilities.invokeLater(() -> globalView.repaintView());
+    // An unchanged food list keeps its identity, so views can tell that cached food drawings are still valid
+    private void publishState(boolean foodsChanged) {
+        this.currentPlayers = List.copyOf(playersById.values());
+        if (foodsChanged || currentFoods == null) {
+            this.currentFoods = List.copyOf(foodsById.values());
+        }
+        this.snapshot = new Snapshot(stateVersion, currentPlayers, currentFoods, System.nanoTime());
+
+        if (localView != null) {
+            SwingUtilities.invokeLater(() -> localView.repaintView());
         }
     }
 
@@ -55,6 +115,15 @@ public class GameClientImpl extends UnicastRemoteObject implements GameClient {
         });
     }
 
+    @Override
+    public void redirect(String serverUrl) throws RemoteException {
+        System.out.println("Player " + playerId + " is now hosted by " + serverUrl);
+        Consumer<String> listener = redirectListener;
+        if (listener != null) {
+            listener.accept(serverUrl);
+        }
+    }
+
     @Override
     public String getPlayerId() throws RemoteException {
         return playerId;
@@ -65,6 +134,11 @@ public class GameClientImpl extends UnicastRemoteObject implements GameClient {
         System.out.println("LocalView set for " + playerId);
     }
 
+    // Called with the new server's URL whenever the player is handed to another server
+    public void setRedirectListener(Consumer<String> redirectListener) {
+        this.redirectListener = redirectListener;
+    }
+
     public void setGlobalView(GlobalView globalView) {
         this.globalView = globalView;
         System.out.println("GlobalView set for " + playerId);
@@ -78,6 +152,11 @@ public class GameClientImpl extends UnicastRemoteObject implements GameClient {
         return currentFoods;
     }
 
+    // Null until the first update arrives
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
     public boolean isAlive() {
         return isAlive;
     }
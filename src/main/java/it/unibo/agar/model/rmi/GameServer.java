@@ -11,13 +11,23 @@ import java.util.List;
  */
 public interface GameServer extends Remote {
     void registerPlayer(RemotePlayer player) throws RemoteException;
+    Player joinGame(String playerId) throws RemoteException; // Spawned by the server; refused while another client plays the id
     void registerClient(GameClient client) throws RemoteException; // Added to interface
     void unregisterPlayer(String playerId) throws RemoteException;
     void setPlayerDirection(String playerId, double dx, double dy) throws RemoteException;
+    void submitInput(String playerId, long sequence, double dx, double dy) throws RemoteException; // Ignored unless sequence is the newest seen
+    void requestKeyframe(String playerId) throws RemoteException;
+    void setViewport(String playerId, double width, double height) throws RemoteException; // Size of the client's visible area
+    void setFullWorldView(String playerId, boolean fullWorld) throws RemoteException; // Spectator views receive every entity
     List<Player> getAllPlayers() throws RemoteException;
     List<Food> getAllFoods() throws RemoteException;
+    byte[] getWorldSnapshot() throws RemoteException; // Whole world as a SnapshotCodec keyframe
     int getWorldWidth() throws RemoteException;
     int getWorldHeight() throws RemoteException;
+    double getTicksPerSecond() throws RemoteException;
     void notifyPlayerEaten(String playerId) throws RemoteException;
     boolean isPlayerAlive(String playerId) throws RemoteException;
+    int addBots(int count) throws RemoteException; // Players steered by the server itself; returns how many it hosts
+    int removeBots(int count) throws RemoteException; // Newest first; returns how many are left
+    long renewLease(String playerId) throws RemoteException; // Returns the lease length in ms, 0 once the player was evicted
 }
\ No newline at end of file
@@ -1,107 +1,485 @@
 package it.unibo.agar.model.rmi;
 
 import it.unibo.agar.model.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.rmi.RemoteException;
+import java.rmi.server.RMIServerSocketFactory;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-public class GameServerImpl extends UnicastRemoteObject implements GameServer {
-    private static final double PLAYER_SPEED = 2.0;
+public class GameServerImpl extends UnicastRemoteObject implements GameServer, ClusterPeer {
+    private static final double DEFAULT_TICK_RATE = 1000.0 / 30; // ticks per second
+    private static final int MAX_CATCH_UP_TICKS = 3;
     private static final int MAX_FOOD_ITEMS = 150;
-    private static final Random random = new Random();
+    private static final double GRID_CELL_SIZE = 50.0;
+    private static final double DEFAULT_VIEW_SIZE = 600.0;
+    private static final double VIEW_SIZE_PER_RADIUS = 10.0; // Bigger players see further when no viewport is reported
+    private static final double DEFAULT_INTEREST_MARGIN = 100.0;
+    private static final long EVICTION_DROP_THRESHOLD = 100; // Consecutive dropped frames (~3 s) before a client is evicted
+    private static final long DEFAULT_LEASE_MILLIS = 5000;
+    private static final long REAP_INTERVAL_MILLIS = 250;
+    // Shared by every server of the process; evictions never run on a tick thread
+    private static final ScheduledExecutorService LEASE_REAPER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "agar-lease-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final double INITIAL_MASS = 120.0; // Of every newly spawned player, bots included
+    private static final int BOT_DECISION_INTERVAL = 3; // Ticks between two decisions of a bot, ~100 ms like AIClient
+    private static final long BOT_SEED_SALT = 0x5DEECE66DL; // Bots draw from their own sequence, so the world's does not depend on them
+    private static final long SPAWN_SEED_SALT = 0x2545F4914F6CDD1DL; // So do spawns; the journal records where players appeared
+    private static final double CLUSTER_BORDER_WIDTH = DEFAULT_VIEW_SIZE / 2 + DEFAULT_INTEREST_MARGIN; // Ghosts fill a default view across the border
 
     private final int worldWidth;
     private final int worldHeight;
-    private final Map<String, RemotePlayer> remotePlayers;
-    private final Map<String, GameClient> clients;
+    private final Map<String, Player> players;
+    private final Map<String, ClientSession> clients;
     private final Map<String, Position> playerDirections;
-    private List<Food> foods;
-    private final Timer gameTimer;
+    private final Map<String, Position> pendingDirections = new ConcurrentHashMap<>(); // Applied at the start of the next tick
+    private final Map<String, Long> inputSequences;
+    private final FoodStore foods;
+    private final SpatialGrid<Food> foodGrid;
+    private final SpatialGrid<Player> playerGrid;
+    private final TickScheduler gameLoop;
+    private final ServerMetrics metrics;
+    private final Random random;
+    private final Random botRandom;
+    private final Random spawnRandom;
+    private final RegionWorkers regions;
+    private final ClusterNode cluster; // Null when this server owns the whole world
+    private final Map<String, Bot> bots = new LinkedHashMap<>(); // Guarded by the server's lock
+    private final String roomName; // Null unless the server is a room of a lobby
+    private final int capacity;
+    private final boolean suspendWhenIdle; // Rooms stop ticking while nobody is in them
+    private volatile boolean shutDown;
+    private final JournalRecorder journal;
+    private final SnapshotSaver snapshots;
+    private final Map<String, Long> leaseExpiries = new ConcurrentHashMap<>(); // System.nanoTime deadlines of the players' leases
+    private volatile long leaseNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LEASE_MILLIS);
+    private final ScheduledFuture<?> reaper;
+    private long worldVersion;
+    private long botSerial;
+    private long botTurn;
+    private volatile double interestMargin = DEFAULT_INTEREST_MARGIN;
 
     public GameServerImpl(int worldWidth, int worldHeight, int numFoods) throws RemoteException {
-        super();
+        this(worldWidth, worldHeight, numFoods, DEFAULT_TICK_RATE, TickScheduler.OverrunPolicy.CATCH_UP);
+    }
+
+    public GameServerImpl(int worldWidth, int worldHeight, int numFoods,
+                          double ticksPerSecond, TickScheduler.OverrunPolicy overrunPolicy) throws RemoteException {
+        this(worldWidth, worldHeight, numFoods, ticksPerSecond, overrunPolicy, null);
+    }
+
+    // A null socket factory exports with the default RMI sockets
+    public GameServerImpl(int worldWidth, int worldHeight, int numFoods, double ticksPerSecond,
+                          TickScheduler.OverrunPolicy overrunPolicy, RMIServerSocketFactory socketFactory) throws RemoteException {
+        this(worldWidth, worldHeight, numFoods, ticksPerSecond, overrunPolicy, socketFactory,
+                System.nanoTime(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The seed drives every random choice of the server, so the same seed and the same inputs
+     * give the same game whatever the parallelism. A parallelism of 1 ticks on the game loop thread only.
+     */
+    public GameServerImpl(int worldWidth, int worldHeight, int numFoods, double ticksPerSecond,
+                          TickScheduler.OverrunPolicy overrunPolicy, RMIServerSocketFactory socketFactory,
+                          long seed, int parallelism) throws RemoteException {
+        this(worldWidth, worldHeight, null, 0, numFoods, ticksPerSecond, overrunPolicy, socketFactory, seed, parallelism,
+                null, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Node of a cluster, owning its strip of the topology's world. Its food stays in the strip, and
+     * players leaving the strip are handed to the node that owns their new position.
+     */
+    public GameServerImpl(ClusterTopology topology, int nodeIndex, int numFoods, double ticksPerSecond,
+                          TickScheduler.OverrunPolicy overrunPolicy, RMIServerSocketFactory socketFactory) throws RemoteException {
+        this(topology.worldWidth(), topology.worldHeight(), topology, nodeIndex, numFoods, ticksPerSecond, overrunPolicy,
+                socketFactory, System.nanoTime(), Runtime.getRuntime().availableProcessors(), null, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Room of a {@link LobbyImpl}, ticked on the lobby's shared scheduler. It holds at most
+     * {@code capacity} players and only ticks while someone is in it.
+     */
+    GameServerImpl(String roomName, int worldWidth, int worldHeight, int numFoods, int capacity,
+                   ScheduledExecutorService tickPool) throws RemoteException {
+        this(worldWidth, worldHeight, null, 0, numFoods, DEFAULT_TICK_RATE, TickScheduler.OverrunPolicy.CATCH_UP, null,
+                System.nanoTime(), 1, roomName, capacity, tickPool);
+    }
+
+    private GameServerImpl(int worldWidth, int worldHeight, ClusterTopology topology, int nodeIndex, int numFoods,
+                           double ticksPerSecond, TickScheduler.OverrunPolicy overrunPolicy,
+                           RMIServerSocketFactory socketFactory, long seed, int parallelism,
+                           String roomName, int capacity, ScheduledExecutorService tickPool) throws RemoteException {
+        super(0, null, socketFactory);
+        this.roomName = roomName;
+        this.capacity = capacity;
+        this.suspendWhenIdle = tickPool != null;
         this.worldWidth = worldWidth;
         this.worldHeight = worldHeight;
-        this.remotePlayers = new ConcurrentHashMap<>();
+        this.cluster = topology != null ? new ClusterNode(topology, nodeIndex, CLUSTER_BORDER_WIDTH) : null;
+        this.players = new ConcurrentHashMap<>();
         this.clients = new ConcurrentHashMap<>();
         this.playerDirections = new ConcurrentHashMap<>();
-        this.foods = new CopyOnWriteArrayList<>(GameInitializer.initialFoods(numFoods, worldWidth, worldHeight));
+        this.inputSequences = new ConcurrentHashMap<>();
+        this.random = new Random(seed);
+        this.botRandom = new Random(seed ^ BOT_SEED_SALT);
+        this.spawnRandom = new Random(seed ^ SPAWN_SEED_SALT);
+        this.foods = cluster == null
+                ? new FoodStore(worldWidth, worldHeight, FoodStore.Density.fixed(MAX_FOOD_ITEMS), random)
+                : new FoodStore((int) cluster.minX(), 0, (int) cluster.maxX() - (int) cluster.minX(), worldHeight,
+                        "n" + nodeIndex + "f", FoodStore.Density.fixed(MAX_FOOD_ITEMS), random);
+        this.foodGrid = new SpatialGrid<>(GRID_CELL_SIZE);
+        for (int i = 0; i < numFoods; i++) {
+            foodGrid.put(foods.spawn());
+        }
+        this.playerGrid = new SpatialGrid<>(GRID_CELL_SIZE);
+        this.regions = new RegionWorkers(worldWidth, worldHeight, parallelism);
+        this.journal = new JournalRecorder(random, this::captureCheckpoint);
+        this.snapshots = new SnapshotSaver(worldWidth, worldHeight,
+                roomName == null ? "agar-snapshot" : "agar-snapshot-" + roomName);
 
-        System.out.println("GameServer initialized with " + numFoods + " foods");
+        System.out.println("GameServer initialized with " + numFoods + " foods, " + regions.regionCount() + " regions, "
+                + (regions.isParallel() ? parallelism + " worker threads" : "single-threaded ticks"));
+        if (cluster != null) {
+            System.out.println("Cluster node " + nodeIndex + " of " + topology.size() + ", owning x in ["
+                    + cluster.minX() + ", " + cluster.maxX() + ")");
+        }
 
-        // Start game loop
-        this.gameTimer = new Timer(true);
-        this.gameTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                tick();
-            }
-        }, 1000, 30); // Start after 1 second, then 30ms intervals
+        this.gameLoop = new TickScheduler(roomName == null ? "agar-game-loop" : "agar-room-" + roomName,
+                ticksPerSecond, overrunPolicy, MAX_CATCH_UP_TICKS, this::tick, tickPool);
+        this.metrics = new ServerMetrics(players::size, clients::size, foods::size, this::getBotCount, gameLoop);
+        this.metrics.register(roomName);
+        this.reaper = LEASE_REAPER.scheduleWithFixedDelay(this::reapSessions, REAP_INTERVAL_MILLIS, REAP_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        if (suspendWhenIdle) {
+            System.out.println("Room " + roomName + " created for "
+                    + (capacity == Integer.MAX_VALUE ? "any number of" : String.valueOf(capacity))
+                    + " players; it ticks while it has any");
+        } else {
+            // Start game loop after 1 second
+            this.gameLoop.start(1000);
+            System.out.println("Game loop started at " + ticksPerSecond + " ticks/s, overrun policy " + overrunPolicy);
+        }
+    }
 
-        System.out.println("Game loop started");
+    @Override
+    public void registerPlayer(RemotePlayer player) throws RemoteException {
+        // Only the id of the client-hosted object is read; the server spawns the player itself
+        joinGame(player.getId());
     }
 
+    /**
+     * Spawns the player at a random position with the initial mass, or where a restored snapshot left it.
+     * An id already in play is refused once a client is registered for it, or when a bot has it; before
+     * that, joining again is a retry and returns the player as it is.
+     */
     @Override
-    public synchronized void registerPlayer(RemotePlayer player) throws RemoteException {
+    public synchronized Player joinGame(String playerId) throws RemoteException {
+        Player current = players.get(playerId);
+        if (current != null) {
+            if (clients.containsKey(playerId) || bots.containsKey(playerId)) {
+                throw new RemoteException("Player " + playerId + " is already in play");
+            }
+            return current;
+        }
+        if (players.size() >= capacity) {
+            throw new RemoteException("Room " + roomName + " is full (" + capacity + " players)");
+        }
+        Player player = snapshots.unpark(playerId);
+        if (player != null) {
+            System.out.println("Player " + playerId + " resumed with mass " + (int) player.getMass());
+        } else {
+            double x = ownedMinX() + spawnRandom.nextDouble() * (ownedMaxX() - ownedMinX());
+            player = new Player(playerId, x, spawnRandom.nextDouble() * worldHeight, INITIAL_MASS);
+        }
+        placePlayer(player);
+        return player;
+    }
+
+    /**
+     * Puts the given player in the game as it is, replacing any player with its id. For journal replays,
+     * tests and benchmarks; remote clients go through {@link #joinGame(String)}.
+     */
+    synchronized void placePlayer(Player player) {
         String playerId = player.getId();
-        remotePlayers.put(playerId, player);
+        players.put(playerId, player);
         playerDirections.put(playerId, Position.ZERO);
-        System.out.println("Player " + playerId + " registered. Total players: " + remotePlayers.size());
+        pendingDirections.remove(playerId);
+        inputSequences.remove(playerId); // A new client numbers its input from scratch
+        bots.remove(playerId);
+        grantLease(playerId);
+        journal.record(journal -> journal.join(player));
+        if (cluster != null) {
+            cluster.forget(playerId);
+        }
+        System.out.println("Player " + playerId + " registered. Total players: " + players.size());
+        wake();
     }
 
     @Override
-    public synchronized void registerClient(GameClient client) throws RemoteException {
+    public void registerClient(GameClient client) throws RemoteException {
+        registerClient(client, null);
+    }
+
+    // A client registered through a peer is told to send its input here from now on
+    private void registerClient(GameClient client, String redirectUrl) throws RemoteException {
         String playerId = client.getPlayerId();
-        clients.put(playerId, client);
-        System.out.println("Client " + playerId + " registered. Total clients: " + clients.size());
+        synchronized (this) {
+            if (cluster != null && !players.containsKey(playerId) && cluster.forwardClient(playerId, client)) {
+                System.out.println("Client " + playerId + " forwarded to the node its player was handed to");
+                return;
+            }
+            startSession(new ClientSession(playerId, client, metrics), redirectUrl);
+        }
+    }
 
-        // Send initial game state immediately
-        try {
-            List<Player> allPlayers = getAllPlayers();
-            List<Food> allFoods = getAllFoods();
-            System.out.println("Sending initial state to " + playerId + ": " + allPlayers.size() + " players, " + allFoods.size() + " foods");
-            client.updateGameState(allPlayers, allFoods);
-            System.out.println("Initial game state sent to " + playerId);
-        } catch (RemoteException e) {
-            System.err.println("Failed to send initial game state to " + playerId + ": " + e.getMessage());
+    private void startSession(ClientSession session, String redirectUrl) {
+        ClientSession previous = clients.put(session.getPlayerId(), session);
+        if (previous != null) {
+            previous.close();
+        }
+        if (redirectUrl != null) {
+            session.offerRedirect(redirectUrl);
+        }
+        session.start();
+        grantLease(session.getPlayerId());
+        System.out.println("Client " + session.getPlayerId() + " registered. Total clients: " + clients.size());
+        wake();
+
+        // Queue the initial keyframe; the session's sender delivers it
+        InterestArea area = interestArea(session);
+        session.offer(worldVersion, visiblePlayers(area), visibleFoods(area));
+    }
+
+    @Override
+    public synchronized void acceptPlayer(PlayerHandoff handoff) throws RemoteException {
+        requireCluster();
+        System.out.println("Player " + handoff.player().getId() + " handed over from a peer");
+        adopt(handoff, cluster.url());
+    }
+
+    @Override
+    public void attachClient(GameClient client) throws RemoteException {
+        requireCluster();
+        registerClient(client, cluster.url());
+    }
+
+    @Override
+    public void updateBorder(int fromNode, List<Player> borderPlayers, List<Food> borderFoods) throws RemoteException {
+        requireCluster();
+        cluster.receiveBorder(fromNode, borderPlayers, borderFoods);
+    }
+
+    @Override
+    public synchronized void removeEatenPlayer(String playerId) throws RemoteException {
+        requireCluster();
+        if (players.containsKey(playerId)) {
+            markEaten(playerId);
+        } else {
+            cluster.rememberEaten(playerId); // Handed off meanwhile; a failed handoff must not bring it back
+        }
+    }
+
+    // Granted only for the very food the claimer saw, so food eaten on both sides is credited once
+    @Override
+    public synchronized boolean claimFood(Food food) throws RemoteException {
+        requireCluster();
+        Food current = foods.get(food.getId());
+        if (current == null || current.getX() != food.getX() || current.getY() != food.getY()) {
+            return false;
+        }
+        eatFood(current);
+        return true;
+    }
+
+    // A claim granted after the tick that ate the food; the mass goes to the eater if it is still here
+    private synchronized void creditFood(String playerId, Food food) {
+        Player player = players.get(playerId);
+        if (player != null) {
+            Player grown = player.grow(food);
+            players.put(playerId, grown);
+            playerGrid.put(grown);
+        }
+    }
+
+    // Resumes the game loop of an idle room; called under the server's lock, like the idle check in tick
+    private void wake() {
+        if (suspendWhenIdle && !shutDown && !gameLoop.isRunning()) {
+            gameLoop.start(0);
+            System.out.println("Room " + roomName + " resumed ticking");
+        }
+    }
+
+    private void requireCluster() throws RemoteException {
+        if (cluster == null) {
+            throw new RemoteException("This server is not part of a cluster");
+        }
+    }
+
+    private void adopt(PlayerHandoff handoff, String redirectUrl) {
+        Player player = handoff.player();
+        String playerId = player.getId();
+        players.put(playerId, player);
+        playerDirections.put(playerId, Position.of(handoff.directionX(), handoff.directionY()));
+        inputSequences.remove(playerId);
+        playerGrid.put(player);
+        grantLease(playerId);
+        cluster.forget(playerId);
+        if (handoff.client() != null) {
+            ClientSession session = new ClientSession(playerId, handoff.client(), metrics);
+            session.setViewport(handoff.viewWidth(), handoff.viewHeight());
+            session.setFullWorld(handoff.fullWorld());
+            startSession(session, redirectUrl);
+        }
+        if (cluster.wasEaten(playerId)) {
+            System.out.println("Player " + playerId + " was eaten while it was being handed over");
+            markEaten(playerId);
         }
     }
 
+    // The peer could not take the player, so it stays here, kept inside the strip
+    private synchronized void readopt(PlayerHandoff handoff) {
+        Player player = handoff.player();
+        double x = Math.max(cluster.minX(), Math.min(cluster.maxX(), player.getX()));
+        System.err.println("Handoff of player " + player.getId() + " failed, keeping it on this node");
+        adopt(new PlayerHandoff(player.moveTo(x, player.getY()), handoff.directionX(), handoff.directionY(),
+                handoff.client(), handoff.viewWidth(), handoff.viewHeight(), handoff.fullWorld()), null);
+    }
+
     @Override
     public synchronized void unregisterPlayer(String playerId) throws RemoteException {
-        remotePlayers.remove(playerId);
-        clients.remove(playerId);
+        if (players.remove(playerId) != null) {
+            journal.record(journal -> journal.leave(playerId));
+        }
+        bots.remove(playerId);
+        ClientSession session = clients.remove(playerId);
+        if (session != null) {
+            session.close();
+        }
         playerDirections.remove(playerId);
+        pendingDirections.remove(playerId);
+        inputSequences.remove(playerId);
+        leaseExpiries.remove(playerId);
+        playerGrid.remove(playerId);
         System.out.println("Player " + playerId + " unregistered");
     }
 
     @Override
     public void setPlayerDirection(String playerId, double dx, double dy) throws RemoteException {
-        if (remotePlayers.containsKey(playerId)) {
-            playerDirections.put(playerId, Position.of(dx, dy));
+        if (players.containsKey(playerId)) {
+            pendingDirections.put(playerId, Position.of(dx, dy));
+            metrics.directionUpdated();
         }
+        renewLease(playerId);
     }
 
     @Override
-    public List<Player> getAllPlayers() throws RemoteException {
-        List<Player> players = new ArrayList<>();
-        for (RemotePlayer remotePlayer : remotePlayers.values()) {
-            try {
-                if (remotePlayer.isAlive()) {
-                    players.add(remotePlayer.getPlayerData());
-                }
-            } catch (RemoteException e) {
-                System.err.println("Error getting player data: " + e.getMessage());
+    public void submitInput(String playerId, long sequence, double dx, double dy) throws RemoteException {
+        if (!players.containsKey(playerId)) {
+            return;
+        }
+        renewLease(playerId);
+        // The sequence check and the direction update happen atomically per player
+        inputSequences.compute(playerId, (id, last) -> {
+            if (last != null && sequence <= last) {
+                metrics.inputDiscarded();
+                return last;
             }
+            pendingDirections.put(id, Position.of(dx, dy));
+            metrics.directionUpdated();
+            return sequence;
+        });
+    }
+
+    @Override
+    public void requestKeyframe(String playerId) throws RemoteException {
+        ClientSession session = clients.get(playerId);
+        if (session != null) {
+            session.requestKeyframe();
         }
-        return players;
+        renewLease(playerId);
+    }
+
+    @Override
+    public void setViewport(String playerId, double width, double height) throws RemoteException {
+        ClientSession session = clients.get(playerId);
+        if (session != null) {
+            session.setViewport(width, height);
+        }
+        renewLease(playerId);
+    }
+
+    @Override
+    public void setFullWorldView(String playerId, boolean fullWorld) throws RemoteException {
+        ClientSession session = clients.get(playerId);
+        if (session != null) {
+            session.setFullWorld(fullWorld);
+        }
+    }
+
+    /**
+     * Changes how much food the world holds. Missing food appears on the next tick; surplus food
+     * disappears as it is eaten.
+     */
+    public synchronized void setFoodDensity(FoodStore.Density density) {
+        foods.setDensity(density);
+        journal.record(journal -> journal.density(density));
+    }
+
+    public void setInterestMargin(double interestMargin) {
+        this.interestMargin = interestMargin;
+    }
+
+    public List<ClientQueueStats> getClientQueueStats() {
+        return clients.values().stream()
+                .map(ClientSession::stats)
+                .toList();
+    }
+
+    public TickScheduler.Stats getTickStats() {
+        return gameLoop.stats();
+    }
+
+    public LatencyHistogram getTickDurations() {
+        return gameLoop.tickDurations();
+    }
+
+    public long getEvictedClients() {
+        return metrics.getEvictedClients();
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public RoomInfo getRoomInfo() {
+        TickScheduler.Stats stats = gameLoop.stats();
+        return new RoomInfo(roomName, worldWidth, worldHeight, capacity, players.size(), clients.size(),
+                gameLoop.isRunning(), stats.ticks(), metrics.getTickP99Millis(), stats.missedDeadlines());
+    }
+
+    @Override
+    public List<Player> getAllPlayers() throws RemoteException {
+        return new ArrayList<>(players.values());
     }
 
     @Override
     public List<Food> getAllFoods() throws RemoteException {
-        return new ArrayList<>(foods);
+        return new ArrayList<>(foods.foods());
+    }
+
+    @Override
+    public synchronized byte[] getWorldSnapshot() throws RemoteException {
+        return SnapshotCodec.encodeWorld(worldVersion, new ArrayList<>(players.values()), foods.foods());
     }
 
     @Override
@@ -115,143 +493,618 @@ public class GameServerImpl extends UnicastRemoteObject implements GameServer {
     }
 
     @Override
-    public void notifyPlayerEaten(String playerId) throws RemoteException {
-        RemotePlayer player = remotePlayers.get(playerId);
-        if (player instanceof RemotePlayerImpl) {
-            ((RemotePlayerImpl) player).setAlive(false);
-        }
-
-        GameClient client = clients.get(playerId);
-        if (client != null) {
-            try {
-                client.notifyPlayerDeath();
-            } catch (RemoteException e) {
-                System.err.println("Error notifying client of death: " + e.getMessage());
-            }
+    public double getTicksPerSecond() throws RemoteException {
+        return 1.0 / gameLoop.getPeriodSeconds();
+    }
+
+    @Override
+    public synchronized void notifyPlayerEaten(String playerId) throws RemoteException {
+        if (players.containsKey(playerId)) {
+            journal.record(journal -> journal.eaten(playerId));
         }
+        markEaten(playerId);
     }
 
     @Override
     public boolean isPlayerAlive(String playerId) throws RemoteException {
-        RemotePlayer player = remotePlayers.get(playerId);
-        return player != null && player.isAlive();
+        return players.containsKey(playerId);
+    }
+
+    @Override
+    public synchronized int addBots(int count) throws RemoteException {
+        int added = 0;
+        for (; added < count && players.size() < capacity; added++) {
+            String botId = (cluster != null ? "n" + cluster.index() + "_" : "") + "bot_" + botSerial;
+            double x = ownedMinX() + botRandom.nextDouble() * (ownedMaxX() - ownedMinX());
+            Player player = new Player(botId, x, botRandom.nextDouble() * worldHeight, INITIAL_MASS);
+            players.put(botId, player);
+            playerDirections.put(botId, Position.ZERO);
+            journal.record(journal -> journal.join(player));
+            bots.put(botId, new Bot(botId, new Random(botRandom.nextLong()), (int) (botSerial++ % BOT_DECISION_INTERVAL),
+                    new AIMovement.FoodMemory()));
+        }
+        System.out.println(added + " bots added. Total bots: " + bots.size());
+        wake();
+        return bots.size();
     }
 
-    private synchronized void tick() {
+    @Override
+    public synchronized int removeBots(int count) throws RemoteException {
+        List<String> newestFirst = new ArrayList<>(bots.keySet());
+        Collections.reverse(newestFirst);
+        for (String botId : newestFirst.subList(0, Math.min(count, newestFirst.size()))) {
+            bots.remove(botId);
+            players.remove(botId);
+            journal.record(journal -> journal.leave(botId));
+            playerDirections.remove(botId);
+            playerGrid.remove(botId);
+        }
+        System.out.println("Bots removed. Total bots: " + bots.size());
+        return bots.size();
+    }
+
+    public synchronized int getBotCount() {
+        return bots.size();
+    }
+
+    @Override
+    public long renewLease(String playerId) throws RemoteException {
+        long leaseNanos = this.leaseNanos;
+        return leaseExpiries.replace(playerId, System.nanoTime() + leaseNanos) != null
+                ? TimeUnit.NANOSECONDS.toMillis(leaseNanos)
+                : 0;
+    }
+
+    /**
+     * How long a client may stay silent before it is evicted with its player. Any input renews
+     * the lease, as does every update the client acknowledges.
+     */
+    public void setLeaseMillis(long leaseMillis) {
+        if (leaseMillis <= 0) {
+            throw new IllegalArgumentException("Lease must be positive: " + leaseMillis);
+        }
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(leaseMillis);
+    }
+
+    public long getLeaseMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(leaseNanos);
+    }
+
+    private void grantLease(String playerId) {
+        leaseExpiries.put(playerId, System.nanoTime() + leaseNanos);
+    }
+
+    // Runs on the reaper thread and only takes the server's lock to evict
+    private void reapSessions() {
         try {
-            moveAllPlayers();
-            handleEating();
-            notifyClients();
-        } catch (Exception e) {
-            System.err.println("Error in game tick: " + e.getMessage());
-            e.printStackTrace();
+            long now = System.nanoTime();
+            for (String playerId : leaseExpiries.keySet()) {
+                String reason = evictionReason(playerId, now);
+                if (reason != null) {
+                    evict(playerId, reason);
+                }
+            }
+            snapshots.dropExpired(now);
+        } catch (RuntimeException e) {
+            System.err.println("Reaping sessions failed: " + e.getMessage());
         }
     }
 
-    private void moveAllPlayers() throws RemoteException {
-        for (Map.Entry<String, RemotePlayer> entry : remotePlayers.entrySet()) {
-            String playerId = entry.getKey();
-            RemotePlayer remotePlayer = entry.getValue();
+    private synchronized void evict(String playerId, String reason) {
+        if (!Objects.equals(evictionReason(playerId, System.nanoTime()), reason)) {
+            return; // Renewed or gone meanwhile
+        }
+        System.err.println("Client " + playerId + " " + reason + ", evicting");
+        metrics.clientEvicted();
+        try {
+            unregisterPlayer(playerId);
+        } catch (RemoteException e) {
+            // Local call, never thrown
+        }
+    }
 
-            try {
-                if (!remotePlayer.isAlive()) continue;
+    private String evictionReason(String playerId, long now) {
+        Long expiry = leaseExpiries.get(playerId);
+        if (expiry == null) {
+            return null;
+        }
+        ClientSession session = clients.get(playerId);
+        if (session != null && session.isFailed()) {
+            return "is unreachable";
+        }
+        if (session != null && session.getConsecutiveDrops() > EVICTION_DROP_THRESHOLD) {
+            return "is too far behind";
+        }
+        if (now - expiry > 0 && (session == null || now - session.getLastDeliveryNanos() > leaseNanos)) {
+            return "let its lease expire";
+        }
+        return null;
+    }
 
-                Position direction = playerDirections.getOrDefault(playerId, Position.ZERO);
-                Player currentPlayer = remotePlayer.getPlayerData();
+    /**
+     * What one player eats during a tick, found from the positions after movement.
+     */
+    private record Meal(Player eater, List<Food> foods, List<Player> players) { }
 
-                double newX = Math.max(0, Math.min(worldWidth, currentPlayer.getX() + direction.x() * PLAYER_SPEED));
-                double newY = Math.max(0, Math.min(worldHeight, currentPlayer.getY() + direction.y() * PLAYER_SPEED));
+    /**
+     * Server-driven player. Each bot draws from its own random source and keeps its own food memory,
+     * so its choices do not depend on the thread that makes them, and decides on the ticks of its phase only.
+     */
+    private record Bot(String id, Random random, int phase, AIMovement.FoodMemory memory) { }
 
-                Player updatedPlayer = currentPlayer.moveTo(newX, newY);
-                remotePlayer.updatePlayerData(updatedPlayer);
-            } catch (RemoteException e) {
-                System.err.println("Error moving player " + playerId + ": " + e.getMessage());
+    // Failures are logged and counted by the scheduler, which keeps ticking. Package-private for benchmarks
+    // Each phase runs region by region on the RegionWorkers, in parallel when there are any. A region owns the players
+    // whose center it held when the tick started; a player that crosses a border is handed to its new
+    // region at the start of the next tick. Within a phase, regions only read the shared grids, so
+    // collisions across borders are seen from both sides; their effects are applied afterwards on this
+    // thread in a fixed order, which makes the outcome independent of the number of workers.
+    // In a cluster, the neighbours' border entities take part in eating as ghosts, and players
+    // that left the strip are handed off before the broadcast. A room stops its loop once it is empty.
+    synchronized void tick(double elapsedSeconds, boolean broadcast) {
+        long start = System.nanoTime();
+        applyDirections();
+        if (cluster != null) {
+            cluster.applyBorders(playerGrid, foodGrid, players::containsKey);
+        }
+        steerBots();
+        List<List<Player>> moved = moveAllPlayers(elapsedSeconds);
+        long movedAt = System.nanoTime();
+        handleEating(moved);
+        if (cluster != null) {
+            handOffLeavers();
+            cluster.sendBorders(playerGrid, foodGrid, player -> players.get(player.getId()) == player,
+                    foods::contains);
+        }
+        journal.record(journal -> journal.tick(elapsedSeconds, broadcast));
+        long eaten = System.nanoTime();
+        if (broadcast) {
+            notifyClients();
+        }
+        journal.afterTick();
+        snapshots.afterTick(this::captureSnapshot);
+        metrics.recordPhases(movedAt - start, eaten - movedAt, System.nanoTime() - eaten, broadcast);
+        if (suspendWhenIdle && players.isEmpty() && clients.isEmpty()) {
+            gameLoop.stop();
+            System.out.println("Room " + roomName + " is empty, suspended ticking");
+        }
+    }
+
+    // Directions received since the last tick take effect together, so a tick never sees half of them
+    private void applyDirections() {
+        for (String playerId : pendingDirections.keySet()) {
+            Position direction = pendingDirections.remove(playerId);
+            if (direction != null && players.containsKey(playerId)) {
+                playerDirections.put(playerId, direction);
+                journal.record(journal -> journal.direction(playerId, direction));
             }
         }
     }
 
-    private void handleEating() throws RemoteException {
-        List<Player> currentPlayers = getAllPlayers();
-        List<Food> foodsToRemove = new ArrayList<>();
-        List<String> playersToRemove = new ArrayList<>();
+    // Decisions of the bots due this tick are made in batches on the workers against the grids as the
+    // tick found them, and applied in bot order. Each decision looks at the cells around its bot only
+    private void steerBots() {
+        if (bots.isEmpty()) return;
+        long turn = botTurn++;
+        List<Bot> due = bots.values().stream()
+                .filter(bot -> (turn + bot.phase()) % BOT_DECISION_INTERVAL == 0)
+                .toList();
+        List<List<Position>> directions = regions.inParallel(regions.split(due), batch -> batch.stream()
+                .map(bot -> {
+                    Player self = players.get(bot.id());
+                    AIMovement.Decision decision = AIMovement.decide(self, playerGrid, foodGrid, bot.memory());
+                    return AIMovement.steer(self, decision, ownedMinX(), 0, ownedMaxX(), worldHeight, bot.random());
+                })
+                .toList());
+        int i = 0;
+        for (List<Position> batch : directions) {
+            for (Position direction : batch) {
+                String botId = due.get(i++).id();
+                playerDirections.put(botId, direction);
+                journal.record(journal -> journal.direction(botId, direction));
+            }
+        }
+    }
 
-        for (Player player : currentPlayers) {
-            RemotePlayer remotePlayer = remotePlayers.get(player.getId());
-            try {
-                if (!remotePlayer.isAlive()) continue;
+    // Bounds of the strip this node owns, where bots stay and players spawn
+    private double ownedMinX() {
+        return cluster != null ? cluster.minX() : 0;
+    }
 
-                List<Food> eatenFoods = foods.stream()
-                        .filter(food -> EatingManager.canEatFood(player, food))
-                        .toList();
+    private double ownedMaxX() {
+        return cluster != null ? cluster.maxX() : worldWidth;
+    }
 
-                List<Player> eatenPlayers = currentPlayers.stream()
-                        .filter(other -> !other.getId().equals(player.getId()))
-                        .filter(other -> EatingManager.canEatPlayer(player, other)).toList();
+    // Returns the moved players by region
+    private List<List<Player>> moveAllPlayers(double elapsedSeconds) {
+        double step = Player.SPEED * elapsedSeconds;
+        List<List<Player>> moved = regions.inParallel(regions.partition(players.values()), region -> {
+            region.sort(Comparator.comparing(Player::getId));
+            List<Player> result = new ArrayList<>(region.size());
+            for (Player currentPlayer : region) {
+                Position direction = playerDirections.getOrDefault(currentPlayer.getId(), Position.ZERO);
+                double newX = Math.max(0, Math.min(worldWidth, currentPlayer.getX() + direction.x() * step));
+                double newY = Math.max(0, Math.min(worldHeight, currentPlayer.getY() + direction.y() * step));
+                result.add(currentPlayer.moveTo(newX, newY));
+            }
+            return result;
+        });
+        for (List<Player> region : moved) {
+            for (Player updatedPlayer : region) {
+                players.put(updatedPlayer.getId(), updatedPlayer);
+                playerGrid.put(updatedPlayer);
+            }
+        }
+        return moved;
+    }
 
-                Player grownPlayer = player;
-                for (Food food : eatenFoods) {
-                    grownPlayer = grownPlayer.grow(food);
-                    foodsToRemove.add(food);
-                }
-                for (Player eatenPlayer : eatenPlayers) {
-                    grownPlayer = grownPlayer.grow(eatenPlayer);
-                    playersToRemove.add(eatenPlayer.getId());
+    private void handleEating(List<List<Player>> moved) {
+        List<List<Meal>> mealsByRegion = regions.inParallel(moved, region -> {
+            List<Meal> meals = new ArrayList<>();
+            for (Player player : region) {
+                List<Food> eatenFoods = EatingManager.edibleFoods(player, foodGrid);
+                List<Player> eatenPlayers = EatingManager.ediblePlayers(player, playerGrid);
+                if (!eatenFoods.isEmpty() || !eatenPlayers.isEmpty()) {
+                    meals.add(new Meal(player, eatenFoods, eatenPlayers));
                 }
+            }
+            return meals;
+        });
 
-                if (grownPlayer.getMass() != player.getMass()) {
-                    remotePlayer.updatePlayerData(grownPlayer);
+        // Applied in player id order, so food respawns draw the same random numbers for any partition
+        List<Meal> meals = new ArrayList<>();
+        mealsByRegion.forEach(meals::addAll);
+        meals.sort(Comparator.comparing(meal -> meal.eater().getId()));
+
+        List<Player> grownPlayers = new ArrayList<>();
+        List<Food> foodsToRemove = new ArrayList<>();
+        List<String> playersToRemove = new ArrayList<>();
+        Map<Food, String> ghostFoodEaters = new LinkedHashMap<>();
+        for (Meal meal : meals) {
+            Player grownPlayer = meal.eater();
+            for (Food food : meal.foods()) {
+                if (cluster != null && cluster.isGhostFood(food.getId())) {
+                    ghostFoodEaters.putIfAbsent(food, meal.eater().getId()); // Credited once its owner grants it
+                    continue;
                 }
-            } catch (RemoteException e) {
-                System.err.println("Error handling eating for player " + player.getId() + ": " + e.getMessage());
+                grownPlayer = grownPlayer.grow(food);
+                foodsToRemove.add(food);
+            }
+            for (Player eatenPlayer : meal.players()) {
+                grownPlayer = grownPlayer.grow(eatenPlayer);
+                playersToRemove.add(eatenPlayer.getId());
+            }
+
+            if (grownPlayer.getMass() != meal.eater().getMass()) {
+                players.put(grownPlayer.getId(), grownPlayer);
+                grownPlayers.add(grownPlayer);
             }
         }
 
-        foods.removeAll(foodsToRemove);
+        // Eaten food respawns in its slot; food eaten by several players is consumed once
+        for (Food food : foodsToRemove) {
+            if (foods.contains(food)) {
+                eatFood(food);
+            }
+        }
+        ghostFoodEaters.forEach((food, eaterId) -> {
+            if (cluster.claimFood(food, () -> creditFood(eaterId, food))) {
+                foodGrid.remove(food.getId());
+            }
+        });
 
         for (String playerId : playersToRemove) {
-            notifyPlayerEaten(playerId);
+            if (players.containsKey(playerId)) {
+                markEaten(playerId);
+            } else if (cluster != null && cluster.forwardEatenPlayer(playerId)) {
+                playerGrid.remove(playerId);
+            }
+        }
+        for (Player grownPlayer : grownPlayers) {
+            if (players.get(grownPlayer.getId()) == grownPlayer) {
+                playerGrid.put(grownPlayer);
+            }
         }
 
-        while (foods.size() < MAX_FOOD_ITEMS) {
-            String foodId = "f" + System.currentTimeMillis() + "_" + random.nextInt(1000);
-            Food newFood = new Food(foodId, random.nextInt(worldWidth), random.nextInt(worldHeight), Food.DEFAULT_MASS);
-            foods.add(newFood);
+        for (int missing = foods.target() - foods.size(); missing > 0; missing--) {
+            foodGrid.put(foods.spawn());
         }
     }
 
+    private void eatFood(Food food) {
+        Food respawned = foods.consume(food);
+        if (respawned != null) {
+            foodGrid.put(respawned);
+        } else {
+            foodGrid.remove(food.getId());
+        }
+    }
+
+    private void handOffLeavers() {
+        for (Player player : players.values()) {
+            int target = cluster.handoffTarget(player.getX());
+            if (target < 0) {
+                continue;
+            }
+            String playerId = player.getId();
+            if (bots.containsKey(playerId)) {
+                Player kept = player.moveTo(Math.max(ownedMinX(), Math.min(ownedMaxX(), player.getX())), player.getY());
+                players.put(playerId, kept);
+                playerGrid.put(kept);
+                continue;
+            }
+            Position direction = playerDirections.getOrDefault(playerId, Position.ZERO);
+            players.remove(playerId);
+            playerDirections.remove(playerId);
+            inputSequences.remove(playerId);
+            leaseExpiries.remove(playerId);
+            playerGrid.remove(playerId);
+            ClientSession session = clients.remove(playerId);
+            PlayerHandoff handoff;
+            if (session != null) {
+                session.close();
+                handoff = new PlayerHandoff(player, direction.x(), direction.y(), session.getClient(),
+                        session.getViewWidth(), session.getViewHeight(), session.isFullWorld());
+            } else {
+                handoff = new PlayerHandoff(player, direction.x(), direction.y(), null, 0, 0, false);
+            }
+            cluster.handOff(target, handoff, () -> readopt(handoff));
+            System.out.println("Player " + playerId + " handed off to node " + target);
+        }
+    }
+
+    private void markEaten(String playerId) {
+        if (players.remove(playerId) != null) {
+            bots.remove(playerId);
+            playerDirections.remove(playerId);
+            playerGrid.remove(playerId);
+            ClientSession session = clients.get(playerId);
+            if (session != null) {
+                session.offerDeathNotice();
+            }
+        }
+    }
+
+    // Only hands frames to the per-client senders; no client I/O happens on the tick thread
     private void notifyClients() {
+        worldVersion++;
         if (clients.isEmpty()) return;
 
-        try {
-            List<Player> allPlayers = getAllPlayers();
-            List<Food> allFoods = getAllFoods();
-
-            Iterator<Map.Entry<String, GameClient>> iterator = clients.entrySet().iterator();
-            while (iterator.hasNext()) {
-                Map.Entry<String, GameClient> entry = iterator.next();
-                String playerId = entry.getKey();
-                GameClient client = entry.getValue();
-
-                try {
-                    client.updateGameState(allPlayers, allFoods);
-                } catch (RemoteException e) {
-                    System.err.println("Failed to notify client " + playerId + ", removing: " + e.getMessage());
-                    iterator.remove();
-                    try {
-                        unregisterPlayer(playerId);
-                    } catch (RemoteException ex) {
-                        // Client is dead
-                    }
-                }
+        // Failed sessions are left to the reaper
+        List<ClientSession> live = new ArrayList<>(clients.size());
+        for (ClientSession session : clients.values()) {
+            if (!session.isFailed()) {
+                live.add(session);
+            }
+        }
+
+        // Frames are built from the grids, which nothing writes to until the next tick
+        Map<String, Player> allPlayers = Map.copyOf(players);
+        regions.inParallel(regions.split(live), batch -> {
+            for (ClientSession session : batch) {
+                InterestArea area = interestArea(session);
+                Map<String, Player> visiblePlayers = area == null ? allPlayers : visiblePlayers(area);
+                session.offer(worldVersion, visiblePlayers, visibleFoods(area));
+            }
+            return null;
+        });
+    }
+
+    // Returns null when the client should receive the whole world
+    private InterestArea interestArea(ClientSession session) {
+        Player player = players.get(session.getPlayerId());
+        if (player != null) {
+            session.setCenter(player.getX(), player.getY());
+        }
+        if (session.isFullWorld() || !session.hasCenter()) {
+            return null;
+        }
+
+        double width = session.getViewWidth();
+        double height = session.getViewHeight();
+        if (!session.hasReportedViewport()) {
+            double radius = player != null ? player.getRadius() : 0;
+            width = DEFAULT_VIEW_SIZE + radius * VIEW_SIZE_PER_RADIUS;
+            height = width;
+        }
+        return InterestArea.around(session.getCenterX(), session.getCenterY(), width, height, interestMargin);
+    }
+
+    private Map<String, Player> visiblePlayers(InterestArea area) {
+        if (area == null) {
+            return Map.copyOf(players);
+        }
+        Map<String, Player> visible = new HashMap<>();
+        area.select(playerGrid).forEach(player -> visible.put(player.getId(), player));
+        return visible;
+    }
+
+    // Full-world clients all share the store's snapshot
+    private Map<String, Food> visibleFoods(InterestArea area) {
+        if (area == null) {
+            return foods.foodsById();
+        }
+        Map<String, Food> visible = new LinkedHashMap<>();
+        area.select(foodGrid).forEach(food -> visible.put(food.getId(), food));
+        return visible;
+    }
+
+    /**
+     * Starts recording the world's inputs to a journal file, beginning with a checkpoint of the
+     * current world and adding one every {@code checkpointInterval} ticks. A journal already being
+     * recorded is closed first. Clusters cannot be journaled, since their borders are not recorded.
+     * The tick only captures a checkpoint; the journal encodes it on its own thread, and rolls over
+     * to a new file at a checkpoint once the current one is large, keeping a few older files.
+     */
+    public void startJournal(Path file, int checkpointInterval) throws IOException {
+        startJournal(file, checkpointInterval, TickJournal.DEFAULT_SEGMENT_SIZE, TickJournal.DEFAULT_KEPT_SEGMENTS);
+    }
+
+    synchronized void startJournal(Path file, int checkpointInterval, long segmentSize, int keptSegments)
+            throws IOException {
+        if (cluster != null) {
+            throw new IllegalStateException("Cluster nodes cannot record a journal");
+        }
+        journal.start(file, worldWidth, worldHeight, 1.0 / gameLoop.getPeriodSeconds(), checkpointInterval,
+                segmentSize, keptSegments);
+    }
+
+    public synchronized void stopJournal() {
+        journal.stop();
+    }
+
+    /**
+     * The world as it is now, for a checkpoint of the given tick.
+     */
+    synchronized WorldCheckpoint captureCheckpoint(long tick, long seed) {
+        List<Player> checkpointPlayers = new ArrayList<>(players.size());
+        for (Player indexed : playerGrid.entities()) {
+            Player player = players.get(indexed.getId());
+            if (player != null) {
+                checkpointPlayers.add(player);
+            }
+        }
+        int indexedPlayers = checkpointPlayers.size();
+        Set<String> inGrid = new HashSet<>();
+        checkpointPlayers.forEach(player -> inGrid.add(player.getId()));
+        players.values().stream()
+                .filter(player -> !inGrid.contains(player.getId()))
+                .sorted(Comparator.comparing(Player::getId))
+                .forEach(checkpointPlayers::add);
+        List<Position> directions = checkpointPlayers.stream()
+                .map(player -> playerDirections.getOrDefault(player.getId(), Position.ZERO))
+                .toList();
+        return new WorldCheckpoint(tick, worldVersion, seed, checkpointPlayers, indexedPlayers, directions,
+                foodGrid.entities(), foods.state());
+    }
+
+    /**
+     * Replaces the whole world with a checkpoint's; clients and bots are dropped.
+     */
+    synchronized void restoreCheckpoint(WorldCheckpoint checkpoint) {
+        players.clear();
+        playerDirections.clear();
+        pendingDirections.clear();
+        inputSequences.clear();
+        bots.clear();
+        playerGrid.clear();
+        foodGrid.clear();
+        for (int i = 0; i < checkpoint.players().size(); i++) {
+            Player player = checkpoint.players().get(i);
+            players.put(player.getId(), player);
+            playerDirections.put(player.getId(), checkpoint.directions().get(i));
+            if (i < checkpoint.indexedPlayers()) {
+                playerGrid.put(player);
+            }
+        }
+        foods.restore(checkpoint.store());
+        checkpoint.foods().forEach(foodGrid::put);
+        random.setSeed(checkpoint.seed());
+        worldVersion = checkpoint.worldVersion();
+    }
+
+    /**
+     * Starts saving the world to a snapshot file every {@code interval} ticks, so that a restarted
+     * server can resume from it with {@link #restoreSnapshot}. The tick only copies references to
+     * its immutable players and foods; encoding and writing happen on a thread of their own, and a
+     * snapshot still being written when the next one is due makes the tick skip it.
+     */
+    public synchronized void startSnapshots(Path file, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive: " + interval);
+        }
+        stopSnapshots();
+        snapshots.start(file, interval);
+    }
+
+    /**
+     * Stops snapshotting, after a last snapshot of the world as it is now.
+     */
+    public void stopSnapshots() {
+        Runnable lastSnapshot;
+        synchronized (this) {
+            if (!snapshots.isSaving()) return;
+            lastSnapshot = snapshots.stop(captureSnapshot());
+        }
+        lastSnapshot.run();
+    }
+
+    /**
+     * Resumes the world saved in a snapshot file: its foods replace the current ones, and its players
+     * are held back until they join again, so each gets its mass and position back without being
+     * eaten while its client is away. Bots are not saved. A player whose client does not join within
+     * the {@linkplain #setParkedPlayerTtlMillis parked player TTL} is dropped, and is no longer saved
+     * in later snapshots; the TTL counts from this restore, not from when the snapshot was written.
+     * Returns the number of players held back.
+     */
+    public synchronized int restoreSnapshot(Path file) throws IOException {
+        long start = System.nanoTime();
+        WorldCheckpoint snapshot = snapshots.read(file);
+        foodGrid.clear();
+        foods.restore(snapshot.store());
+        snapshot.store().foods().forEach(foodGrid::put);
+        int parked = snapshots.park(snapshot.players(), players::containsKey);
+        random.setSeed(snapshot.seed());
+        worldVersion = Math.max(worldVersion, snapshot.worldVersion()) + 1; // Clients see the new foods as a change
+        journal.checkpoint(); // The journal did not see the world change
+        System.out.printf("Restored %s: %d foods and %d players waiting to rejoin, in %.1f ms%n", file,
+                snapshot.store().foods().size(), parked, (System.nanoTime() - start) / 1e6);
+        return parked;
+    }
+
+    public int getParkedPlayerCount() {
+        return snapshots.parkedCount();
+    }
+
+    /**
+     * How long a player restored by {@link #restoreSnapshot} waits for its client before it is
+     * dropped. Applies to the snapshots restored after the call.
+     */
+    public void setParkedPlayerTtlMillis(long ttlMillis) {
+        snapshots.setParkedTtlMillis(ttlMillis);
+    }
+
+    public long getParkedPlayerTtlMillis() {
+        return snapshots.parkedTtlMillis();
+    }
+
+    // Players and foods are immutable, so copying the references is enough; unlike a journal
+    // checkpoint, nothing here is sorted and the random numbers are left alone
+    private WorldCheckpoint captureSnapshot() {
+        List<Player> parked = snapshots.parkedPlayers();
+        List<Player> saved = new ArrayList<>(players.size() + parked.size());
+        for (Player player : players.values()) {
+            if (!bots.containsKey(player.getId())) {
+                saved.add(player);
             }
-        } catch (RemoteException e) {
-            System.err.println("Error notifying clients: " + e.getMessage());
         }
+        saved.addAll(parked);
+        FoodStore.State store = foods.state();
+        return new WorldCheckpoint(gameLoop.stats().ticks(), worldVersion, System.nanoTime(), saved, 0,
+                Collections.nCopies(saved.size(), Position.ZERO), store.foods(), store);
+    }
+
+    // Continues the random sequence from a later checkpoint's seed, as the recording server did
+    synchronized void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    // Leaves ticking to the caller; for tests, which drive the server tick by tick
+    void stopLoop() {
+        gameLoop.stop();
     }
 
     public void shutdown() {
-        if (gameTimer != null) {
-            gameTimer.cancel();
+        reaper.cancel(false);
+        stopSnapshots();
+        synchronized (this) {
+            shutDown = true; // An idle room is not woken up again
+            stopJournal();
+        }
+        gameLoop.stop();
+        if (cluster != null) {
+            cluster.close();
         }
+        metrics.unregister();
+        clients.values().forEach(ClientSession::close);
     }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.net.Transport;
+
+import java.net.MalformedURLException;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background sender for a client's input. Callers only record the latest direction and viewport,
+ * which never blocks; the sender thread forwards them at most once per send interval, numbering
+ * directions so the server can drop stale ones. Intermediate values are coalesced away.
+ * After a redirect, the sender looks the new server up and sends everything there.
+ * Input whose call fails is sent again on the next interval.
+ * When there is nothing to send for a third of the server's lease, the sender renews the lease instead.
+ */
+class InputSender {
+    private static final long INITIAL_RENEW_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private volatile GameServer server; // Replaced by the sender thread only
+    private final String playerId;
+    private final long sendIntervalNanos;
+    private final Thread thread;
+    private final Object lock = new Object();
+    private boolean running = true;
+    private boolean directionPending;
+    private double dx;
+    private double dy;
+    private boolean viewportPending;
+    private double viewWidth;
+    private double viewHeight;
+    private String redirectUrl;
+
+    // Used by the sender thread only
+    private long sequence;
+    private double sentDx = Double.NaN;
+    private double sentDy = Double.NaN;
+    private long renewIntervalNanos = INITIAL_RENEW_INTERVAL_NANOS;
+    private long lastSentAt = System.nanoTime();
+
+    InputSender(GameServer server, String playerId, long sendIntervalNanos) {
+        this.server = server;
+        this.playerId = playerId;
+        this.sendIntervalNanos = sendIntervalNanos;
+        this.thread = new Thread(this::run, "agar-input-" + playerId);
+        this.thread.setDaemon(true);
+    }
+
+    // The server input currently goes to, which changes on redirects
+    GameServer server() {
+        return server;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void close() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    void setDirection(double dx, double dy) {
+        synchronized (lock) {
+            this.dx = dx;
+            this.dy = dy;
+            directionPending = true;
+            lock.notifyAll();
+        }
+    }
+
+    void redirect(String serverUrl) {
+        synchronized (lock) {
+            this.redirectUrl = serverUrl;
+            lock.notifyAll();
+        }
+    }
+
+    void setViewport(double width, double height) {
+        synchronized (lock) {
+            this.viewWidth = width;
+            this.viewHeight = height;
+            viewportPending = true;
+            lock.notifyAll();
+        }
+    }
+
+    // Unless a newer redirect arrived meanwhile, the lookup is tried again after the send interval
+    private void retryRedirect(String serverUrl) {
+        synchronized (lock) {
+            if (redirectUrl == null) {
+                redirectUrl = serverUrl;
+            }
+        }
+    }
+
+    // What failed to go out is sent again, with whatever value is the latest by then
+    private void retryInput(boolean direction, boolean viewport) {
+        synchronized (lock) {
+            directionPending |= direction;
+            viewportPending |= viewport;
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean sendDirection;
+            boolean sendViewport;
+            double nextDx;
+            double nextDy;
+            double width;
+            double height;
+            String nextServerUrl;
+            boolean renew = false;
+            synchronized (lock) {
+                while (running && !directionPending && !viewportPending && redirectUrl == null) {
+                    long idle = renewIntervalNanos - (System.nanoTime() - lastSentAt);
+                    if (idle <= 0) {
+                        renew = true;
+                        break;
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, idle);
+                    } catch (InterruptedException e) {
+                        if (!running) return;
+                    }
+                }
+                if (!running) return;
+                sendDirection = directionPending && (dx != sentDx || dy != sentDy);
+                sendViewport = viewportPending;
+                nextDx = dx;
+                nextDy = dy;
+                width = viewWidth;
+                height = viewHeight;
+                nextServerUrl = redirectUrl;
+                directionPending = false;
+                viewportPending = false;
+                redirectUrl = null;
+            }
+
+            long sentAt = System.nanoTime();
+            if (sendDirection || sendViewport || renew) {
+                lastSentAt = sentAt; // Unchanged directions are not sent, so they do not count
+            }
+            try {
+                if (nextServerUrl != null) {
+                    server = (GameServer) Transport.lookup(nextServerUrl);
+                    nextServerUrl = null;
+                }
+                if (sendDirection) {
+                    server.submitInput(playerId, ++sequence, nextDx, nextDy);
+                    sentDx = nextDx;
+                    sentDy = nextDy;
+                    sendDirection = false;
+                }
+                if (sendViewport) {
+                    server.setViewport(playerId, width, height);
+                    sendViewport = false;
+                }
+                if (renew && !sendDirection && !sendViewport) {
+                    long lease = server.renewLease(playerId);
+                    if (lease > 0) {
+                        renewIntervalNanos = TimeUnit.MILLISECONDS.toNanos(lease) / 3;
+                    }
+                }
+            } catch (RemoteException | NotBoundException | MalformedURLException e) {
+                System.err.println("Error sending input: " + e.getMessage());
+                if (nextServerUrl != null) {
+                    retryRedirect(nextServerUrl);
+                }
+                retryInput(sendDirection, sendViewport);
+            }
+
+            // Whatever arrives meanwhile is coalesced into the next send
+            long wait = sendIntervalNanos - (System.nanoTime() - sentAt);
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
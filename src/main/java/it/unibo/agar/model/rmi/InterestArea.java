@@ -0,0 +1,38 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Entity;
+import it.unibo.agar.model.SpatialGrid;
+
+import java.util.List;
+
+/**
+ * Rectangle of the world a client receives updates for. An entity is in the area as soon as any
+ * part of its body is, so large players and food on the edge show up before their centers do.
+ */
+record InterestArea(double minX, double minY, double maxX, double maxY) {
+
+    static InterestArea around(final double centerX, final double centerY,
+                               final double width, final double height, final double margin) {
+        final double halfWidth = width / 2.0 + margin;
+        final double halfHeight = height / 2.0 + margin;
+        return new InterestArea(centerX - halfWidth, centerY - halfHeight, centerX + halfWidth, centerY + halfHeight);
+    }
+
+    boolean contains(final Entity entity) {
+        // Distance from the center to the nearest point of the rectangle
+        final double dx = entity.getX() - Math.max(minX, Math.min(maxX, entity.getX()));
+        final double dy = entity.getY() - Math.max(minY, Math.min(maxY, entity.getY()));
+        final double radius = entity.getRadius();
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /**
+     * The grid's entities in the area; the grid is searched as far out as its largest entity reaches.
+     */
+    <E extends Entity> List<E> select(final SpatialGrid<E> grid) {
+        final double reach = grid.maxRadius();
+        return grid.queryRect(minX - reach, minY - reach, maxX + reach, maxY + reach).stream()
+                .filter(this::contains)
+                .toList();
+    }
+}
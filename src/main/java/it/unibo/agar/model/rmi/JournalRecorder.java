@@ -0,0 +1,91 @@
+package it.unibo.agar.model.rmi;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * A server's recording of its world to a {@link TickJournal}, starting with a checkpoint and adding
+ * one every few ticks. Each checkpoint restarts the server's random sequence from a recorded seed,
+ * which is all a replay needs to draw the same numbers. A journal that fails is dropped; the game
+ * goes on without it. Not thread-safe; the server records under its lock.
+ */
+final class JournalRecorder {
+    interface Write {
+        void to(TickJournal journal) throws IOException;
+    }
+
+    /**
+     * Captures the world as it is now, for a checkpoint of the given tick.
+     */
+    interface CheckpointSource {
+        WorldCheckpoint capture(long tick, long seed);
+    }
+
+    private final Random random;
+    private final CheckpointSource source;
+    private TickJournal journal; // Null unless recording
+    private int checkpointInterval;
+
+    JournalRecorder(Random random, CheckpointSource source) {
+        this.random = random;
+        this.source = source;
+    }
+
+    /**
+     * Starts recording to a new journal, closing the current one first.
+     */
+    void start(Path file, int worldWidth, int worldHeight, double ticksPerSecond, int checkpointInterval,
+               long segmentSize, int keptSegments) throws IOException {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + checkpointInterval);
+        }
+        stop();
+        journal = new TickJournal(file, worldWidth, worldHeight, ticksPerSecond, segmentSize, keptSegments);
+        this.checkpointInterval = checkpointInterval;
+        checkpoint();
+        System.out.println("Recording journal to " + file + ", with a checkpoint every " + checkpointInterval + " ticks");
+    }
+
+    void stop() {
+        if (journal == null) return;
+        try {
+            journal.close();
+            System.out.println("Journal " + journal.file() + " closed after " + journal.ticks() + " ticks");
+        } catch (IOException e) {
+            System.err.println("Could not close journal " + journal.file() + ": " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    boolean isRecording() {
+        return journal != null;
+    }
+
+    void record(Write write) {
+        if (journal == null) return;
+        try {
+            write.to(journal);
+        } catch (IOException e) {
+            System.err.println("Journal " + journal.file() + " failed, recording stopped: " + e.getMessage());
+            stop();
+        }
+    }
+
+    /**
+     * Writes a checkpoint if one is due after the tick just recorded.
+     */
+    void afterTick() {
+        if (journal != null && journal.ticks() % checkpointInterval == 0) {
+            checkpoint();
+        }
+    }
+
+    void checkpoint() {
+        if (journal == null) return;
+        long seed = random.nextLong();
+        random.setSeed(seed);
+        WorldCheckpoint checkpoint = source.capture(journal.ticks(), seed);
+        record(journal -> journal.checkpoint(checkpoint));
+    }
+}
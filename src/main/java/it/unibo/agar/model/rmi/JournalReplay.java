@@ -0,0 +1,212 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.FoodStore;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.TickScheduler;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds the world of any tick recorded in a {@link TickJournal} by restoring the nearest
+ * earlier checkpoint into a private {@link GameServerImpl} and re-simulating the recorded inputs,
+ * back to back and without a game loop. Every checkpoint met on the way is compared with the
+ * re-simulated world, which shows whether the recording server and the replay diverged.
+ */
+public final class JournalReplay {
+
+    /**
+     * The world right after the simulation of the requested tick. Mismatches are the ticks of
+     * checkpoints that differ from the re-simulated world.
+     */
+    public record Result(long tick, long worldVersion, List<Player> players, List<Food> foods, long simulatedTicks,
+                         long elapsedNanos, int verifiedCheckpoints, List<Long> mismatches) { }
+
+    private record CheckpointEntry(long tick, long offset) { }
+
+    private final Path file;
+    private final int worldWidth;
+    private final int worldHeight;
+    private final double ticksPerSecond;
+    private final long startedAtMillis;
+    private final List<CheckpointEntry> checkpoints = new ArrayList<>();
+    private long ticks;
+
+    private JournalReplay(Path file) throws IOException {
+        this.file = file;
+        try (DataInputStream in = input(file)) {
+            if (in.readByte() != TickJournal.HEADER) {
+                throw new IOException(file + " is not a journal");
+            }
+            in.readInt();
+            if (in.readInt() != TickJournal.MAGIC || in.readInt() != TickJournal.FORMAT_VERSION) {
+                throw new IOException(file + " is not a journal of a supported version");
+            }
+            this.worldWidth = in.readInt();
+            this.worldHeight = in.readInt();
+            this.ticksPerSecond = in.readDouble();
+            this.startedAtMillis = in.readLong();
+            indexRecords(in);
+        }
+    }
+
+    public static JournalReplay open(Path file) throws IOException {
+        return new JournalReplay(file);
+    }
+
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    // Last tick recorded, counted from the start of the recording; a rolled-over segment starts at its first checkpoint
+    public long getTicks() {
+        return ticks;
+    }
+
+    public List<Long> getCheckpointTicks() {
+        return checkpoints.stream().map(CheckpointEntry::tick).toList();
+    }
+
+    /**
+     * Replays from the nearest checkpoint at or before the tick.
+     */
+    public Result replay(long tick, int parallelism) throws IOException {
+        CheckpointEntry from = null;
+        for (CheckpointEntry checkpoint : checkpoints) {
+            if (checkpoint.tick() <= tick) {
+                from = checkpoint;
+            }
+        }
+        return replay(from, tick, parallelism);
+    }
+
+    /**
+     * Replays from the first checkpoint, so every later checkpoint up to the tick is verified.
+     */
+    public Result replayFromStart(long tick, int parallelism) throws IOException {
+        return replay(checkpoints.isEmpty() ? null : checkpoints.get(0), tick, parallelism);
+    }
+
+    private Result replay(CheckpointEntry from, long tick, int parallelism) throws IOException {
+        if (tick < 0 || tick > ticks) {
+            throw new IllegalArgumentException("Tick " + tick + " is not in the journal, which holds ticks "
+                    + (checkpoints.isEmpty() ? 0 : checkpoints.get(0).tick()) + " to " + ticks);
+        }
+        if (from == null) {
+            throw new IllegalArgumentException("No checkpoint at or before tick " + tick);
+        }
+        GameServerImpl server = new GameServerImpl(worldWidth, worldHeight, 0, ticksPerSecond,
+                TickScheduler.OverrunPolicy.CATCH_UP, null, 0, parallelism);
+        server.shutdown(); // Only this thread ticks it
+        try (DataInputStream in = input(file)) {
+            in.skipNBytes(from.offset());
+            long start = System.nanoTime();
+            server.restoreCheckpoint(WorldCheckpoint.decode(ByteBuffer.wrap(readRecord(in, TickJournal.CHECKPOINT))));
+            long current = from.tick();
+            int verified = 0;
+            List<Long> mismatches = new ArrayList<>();
+            while (current < tick) {
+                byte type = in.readByte();
+                ByteBuffer record = ByteBuffer.wrap(readPayload(in));
+                switch (type) {
+                    case TickJournal.JOIN -> server.placePlayer(new Player(WorldCheckpoint.getString(record),
+                            record.getDouble(), record.getDouble(), record.getDouble()));
+                    case TickJournal.LEAVE -> server.unregisterPlayer(WorldCheckpoint.getString(record));
+                    case TickJournal.EATEN -> server.notifyPlayerEaten(WorldCheckpoint.getString(record));
+                    case TickJournal.DIRECTION -> server.setPlayerDirection(WorldCheckpoint.getString(record),
+                            record.getDouble(), record.getDouble());
+                    case TickJournal.DENSITY -> server.setFoodDensity(
+                            new FoodStore.Density(record.getInt(), record.getInt(), record.getDouble()));
+                    case TickJournal.TICK -> {
+                        server.tick(record.getDouble(), record.get() != 0);
+                        current++;
+                    }
+                    case TickJournal.CHECKPOINT -> {
+                        WorldCheckpoint recorded = WorldCheckpoint.decode(record);
+                        if (!server.captureCheckpoint(recorded.tick(), recorded.seed()).sameWorld(recorded)) {
+                            mismatches.add(recorded.tick());
+                        }
+                        verified++;
+                        server.reseed(recorded.seed());
+                    }
+                    default -> throw new IOException("Unknown record type " + type + " in " + file);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            WorldCheckpoint world = server.captureCheckpoint(current, 0);
+            return new Result(current, world.worldVersion(), world.players(), world.foods(), current - from.tick(),
+                    elapsed, verified, mismatches);
+        } finally {
+            UnicastRemoteObject.unexportObject(server, true);
+        }
+    }
+
+    // Records up to the first one that is incomplete or not yet committed
+    private void indexRecords(DataInputStream in) throws IOException {
+        long offset = TickJournal.RECORD_HEADER_SIZE + 4 + 4 + 4 + 4 + 8 + 8;
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == TickJournal.END) {
+                    return;
+                }
+                int length = in.readInt();
+                if (type == TickJournal.CHECKPOINT) {
+                    long tick = in.readLong();
+                    in.skipNBytes(length - 8);
+                    if (checkpoints.isEmpty()) {
+                        ticks = tick; // Ticks are counted on from the segment's first checkpoint
+                    }
+                    checkpoints.add(new CheckpointEntry(tick, offset));
+                } else {
+                    in.skipNBytes(length);
+                    if (type == TickJournal.TICK) {
+                        ticks++;
+                    }
+                }
+                offset += TickJournal.RECORD_HEADER_SIZE + length;
+            }
+        } catch (EOFException e) {
+            // A record cut short by a crash; the ticks before it are complete
+        }
+    }
+
+    private static byte[] readRecord(DataInputStream in, byte expectedType) throws IOException {
+        byte type = in.readByte();
+        if (type != expectedType) {
+            throw new IOException("Expected a record of type " + expectedType + ", found " + type);
+        }
+        return readPayload(in);
+    }
+
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        byte[] payload = new byte[in.readInt()];
+        in.readFully(payload);
+        return payload;
+    }
+
+    private static DataInputStream input(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    }
+}
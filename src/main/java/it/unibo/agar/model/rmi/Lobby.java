@@ -0,0 +1,15 @@
+package it.unibo.agar.model.rmi;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Remote interface for a server hosting several rooms, each an independent world
+ */
+public interface Lobby extends Remote {
+    RoomInfo createRoom(String name, int worldWidth, int worldHeight, int capacity) throws RemoteException;
+    List<RoomInfo> listRooms() throws RemoteException;
+    GameServer joinRoom(String name) throws RemoteException; // The room's server, joined like a standalone one
+    void closeRoom(String name) throws RemoteException; // Its clients stop receiving updates
+}
@@ -0,0 +1,117 @@
+package it.unibo.agar.model.rmi;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Rooms of one server process. Every room has its own world and players, while their game loops
+ * share a scheduler with a fixed number of threads, so the cost of a room is its ticks rather than
+ * a thread. Empty rooms stop ticking until someone joins.
+ */
+public class LobbyImpl extends UnicastRemoteObject implements Lobby {
+    private static final Pattern ROOM_NAME = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+    private static final int MAX_WORLD_SIZE = 20000;
+
+    private final Map<String, GameServerImpl> rooms = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor tickPool;
+    private final int maxRooms;
+    private final int numFoods;
+
+    public LobbyImpl(int maxRooms, int numFoods) throws RemoteException {
+        this(maxRooms, numFoods, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The tick threads are shared by all rooms; a room ticks on one of them at a time.
+     */
+    public LobbyImpl(int maxRooms, int numFoods, int tickThreads) throws RemoteException {
+        this.maxRooms = maxRooms;
+        this.numFoods = numFoods;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.tickPool = new ScheduledThreadPoolExecutor(tickThreads, task -> {
+            Thread thread = new Thread(task, "agar-room-tick-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Steps cancelled by suspended rooms would otherwise wait in the queue until their delay expires
+        this.tickPool.setRemoveOnCancelPolicy(true);
+        System.out.println("Lobby started for up to " + maxRooms + " rooms on " + tickThreads + " tick threads");
+    }
+
+    @Override
+    public synchronized RoomInfo createRoom(String name, int worldWidth, int worldHeight, int capacity) throws RemoteException {
+        if (name == null || !ROOM_NAME.matcher(name).matches()) {
+            throw new RemoteException("Invalid room name: " + name);
+        }
+        if (worldWidth <= 0 || worldHeight <= 0 || worldWidth > MAX_WORLD_SIZE || worldHeight > MAX_WORLD_SIZE) {
+            throw new RemoteException("Invalid world size: " + worldWidth + "x" + worldHeight);
+        }
+        if (capacity <= 0) {
+            throw new RemoteException("Invalid room capacity: " + capacity);
+        }
+        if (rooms.containsKey(name)) {
+            throw new RemoteException("Room " + name + " already exists");
+        }
+        if (rooms.size() >= maxRooms) {
+            throw new RemoteException("No more rooms can be created (" + maxRooms + " open)");
+        }
+        GameServerImpl room = new GameServerImpl(name, worldWidth, worldHeight, numFoods, capacity, tickPool);
+        rooms.put(name, room);
+        return room.getRoomInfo();
+    }
+
+    @Override
+    public List<RoomInfo> listRooms() throws RemoteException {
+        return rooms.values().stream()
+                .map(GameServerImpl::getRoomInfo)
+                .sorted(Comparator.comparing(RoomInfo::name))
+                .toList();
+    }
+
+    @Override
+    public GameServer joinRoom(String name) throws RemoteException {
+        return room(name);
+    }
+
+    @Override
+    public synchronized void closeRoom(String name) throws RemoteException {
+        GameServerImpl room = room(name);
+        rooms.remove(name);
+        close(room);
+        System.out.println("Room " + name + " closed");
+    }
+
+    /**
+     * The room itself, for the process hosting the lobby.
+     */
+    public GameServerImpl room(String name) throws RemoteException {
+        GameServerImpl room = rooms.get(name);
+        if (room == null) {
+            throw new RemoteException("No room named " + name);
+        }
+        return room;
+    }
+
+    public synchronized void shutdown() {
+        rooms.values().forEach(LobbyImpl::close);
+        rooms.clear();
+        tickPool.shutdownNow();
+    }
+
+    private static void close(GameServerImpl room) {
+        room.shutdown();
+        try {
+            UnicastRemoteObject.unexportObject(room, true);
+        } catch (NoSuchObjectException e) {
+            // Already unexported
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+import java.io.Serializable;
+
+/**
+ * Everything a server needs to take over a player from another one. The client is null when
+ * the player has not registered one yet.
+ */
+public record PlayerHandoff(Player player, double directionX, double directionY, GameClient client,
+                            double viewWidth, double viewHeight, boolean fullWorld) implements Serializable { }
@@ -0,0 +1,83 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.RegionPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs the phases of a server's tick region by region, in parallel when there are workers.
+ * Results always come back in input order, so whoever applies them does so in a fixed order
+ * whatever the number of workers. With a parallelism of 1, or a world with a single region,
+ * everything runs on the calling thread.
+ */
+final class RegionWorkers {
+    private static final double MIN_REGION_SIZE = 1000.0; // Smaller regions cost more in task overhead than they save
+    private static final int MAX_REGIONS_PER_AXIS = 8;
+
+    private final RegionPartition regions;
+    private final ForkJoinPool workers; // Null when ticks run on the calling thread alone; idle workers exit on their own
+
+    RegionWorkers(int worldWidth, int worldHeight, int parallelism) {
+        this.regions = new RegionPartition(worldWidth, worldHeight, MIN_REGION_SIZE, MAX_REGIONS_PER_AXIS);
+        this.workers = parallelism > 1 && regions.size() > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    int regionCount() {
+        return regions.size();
+    }
+
+    boolean isParallel() {
+        return workers != null;
+    }
+
+    /**
+     * The players of each region, one list per region.
+     */
+    List<List<Player>> partition(Collection<Player> players) {
+        return regions.partition(players);
+    }
+
+    /**
+     * Runs the task on every input, on the workers when there are any, and returns the results in input order.
+     */
+    <T, R> List<R> inParallel(List<T> inputs, Function<T, R> task) {
+        if (workers == null) {
+            return inputs.stream().map(task).toList();
+        }
+        List<Callable<R>> tasks = inputs.stream()
+                .<Callable<R>>map(input -> () -> task.apply(input))
+                .toList();
+        List<R> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<R> future : workers.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Region task failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for region tasks", e);
+        }
+        return results;
+    }
+
+    /**
+     * Consecutive batches of the items, one per worker thread.
+     */
+    <T> List<List<T>> split(List<T> items) {
+        int batches = workers == null ? 1 : Math.max(1, Math.min(items.size(), workers.getParallelism()));
+        List<List<T>> result = new ArrayList<>(batches);
+        for (int i = 0; i < batches; i++) {
+            result.add(items.subList(i * items.size() / batches, (i + 1) * items.size() / batches));
+        }
+        return result;
+    }
+}
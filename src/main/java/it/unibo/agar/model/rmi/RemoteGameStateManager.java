@@ -7,49 +7,173 @@ import it.unibo.agar.model.World;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Client-side game state backed by the server. Nothing here blocks the Swing thread on the network:
+ * the world comes from the updates the client received, and input is handed to an
+ * {@link InputSender} that forwards it at most once per server tick.
+ * Other players are drawn interpolated between the last two updates, one update interval in the
+ * past. The local player is drawn where its current direction predicts it to be, and is pulled
+ * back towards the authoritative position whenever an update disagrees.
+ * The drawn world moves on only in {@link #advanceFrame()}; {@link #getWorld()} returns it unchanged.
+ */
 public class RemoteGameStateManager implements GameStateManager {
-    private final GameServer gameServer;
+    private static final int FALLBACK_WORLD_SIZE = 1000;
+    private static final double FALLBACK_TICKS_PER_SECOND = 1000.0 / 30;
+    private static final double MAX_PREDICTION_SECONDS = 0.5; // Stop extrapolating after a longer delivery gap
+    private static final double CORRECTION_RATE = 10.0; // Share of the prediction error removed per second
+    private static final double SNAP_DISTANCE = 100.0; // Larger errors (e.g. a respawn) are not smoothed
+
     private final GameClientImpl gameClient;
     private final String playerId;
+    private final int worldWidth;
+    private final int worldHeight;
+    private final InputSender inputSender;
+    private volatile World rendered;
+    private volatile double directionX;
+    private volatile double directionY;
+    private volatile long movingSinceNanos;
+
+    // Render state, guarded by this
+    private GameClientImpl.Snapshot previous;
+    private GameClientImpl.Snapshot latest;
+    private final Map<String, Player> previousPlayers = new HashMap<>();
+    private double predictedX = Double.NaN;
+    private double predictedY = Double.NaN;
+    private long lastRenderNanos;
 
     public RemoteGameStateManager(GameServer gameServer, GameClientImpl gameClient, String playerId) {
-        this.gameServer = gameServer;
         this.gameClient = gameClient;
         this.playerId = playerId;
+
+        // The world size and tick rate never change, so they are fetched once instead of on every repaint
+        int width = FALLBACK_WORLD_SIZE;
+        int height = FALLBACK_WORLD_SIZE;
+        double ticksPerSecond = FALLBACK_TICKS_PER_SECOND;
+        try {
+            width = gameServer.getWorldWidth();
+            height = gameServer.getWorldHeight();
+            ticksPerSecond = gameServer.getTicksPerSecond();
+        } catch (RemoteException e) {
+            System.err.println("Error getting world settings: " + e.getMessage());
+        }
+        this.worldWidth = width;
+        this.worldHeight = height;
+        this.rendered = emptyWorld();
+        this.inputSender = new InputSender(gameServer, playerId, (long) (1e9 / ticksPerSecond));
+        this.inputSender.start();
+        gameClient.setRedirectListener(inputSender::redirect);
         System.out.println("RemoteGameStateManager created for " + playerId);
     }
 
     @Override
     public World getWorld() {
-        try {
-            List<Player> players = gameClient.getCurrentPlayers();
-            List<Food> foods = gameClient.getCurrentFoods();
-            int width = gameServer.getWorldWidth();
-            int height = gameServer.getWorldHeight();
+        return rendered;
+    }
+
+    @Override
+    public synchronized void advanceFrame() {
+        rendered = renderAt(System.nanoTime());
+    }
+
+    private World emptyWorld() {
+        return new World(worldWidth, worldHeight, new ArrayList<>(), new ArrayList<>());
+    }
 
-            if (players == null) {
-                players = new ArrayList<>();
+    private World renderAt(long now) {
+        GameClientImpl.Snapshot snapshot = gameClient.getSnapshot();
+        if (snapshot == null) {
+            return emptyWorld();
+        }
+        if (snapshot != latest) {
+            previous = latest;
+            latest = snapshot;
+            previousPlayers.clear();
+            if (previous != null) {
+                previous.players().forEach(p -> previousPlayers.put(p.getId(), p));
             }
-            if (foods == null) {
-                foods = new ArrayList<>();
+        }
+
+        // Render one update interval behind the latest update, so there are always two to blend
+        double alpha = 1;
+        if (previous != null) {
+            long interval = latest.receivedAtNanos() - previous.receivedAtNanos();
+            alpha = interval > 0 ? Math.min(1, (double) (now - latest.receivedAtNanos()) / interval) : 1;
+        }
+
+        List<Player> players = new ArrayList<>(latest.players().size());
+        boolean localPlayerSeen = false;
+        for (Player player : latest.players()) {
+            if (player.getId().equals(playerId)) {
+                players.add(predict(player, now));
+                localPlayerSeen = true;
+            } else {
+                players.add(interpolate(previousPlayers.get(player.getId()), player, alpha));
             }
+        }
+        if (!localPlayerSeen) {
+            predictedX = Double.NaN;
+        }
+        lastRenderNanos = now;
+        return new World(worldWidth, worldHeight, players, latest.foods());
+    }
 
-            return new World(width, height, players, foods);
-        } catch (RemoteException e) {
-            System.err.println("Error getting world state: " + e.getMessage());
-            return new World(1000, 1000, new ArrayList<>(), new ArrayList<>());
+    private static Player interpolate(Player from, Player to, double alpha) {
+        if (from == null || alpha >= 1) {
+            return to;
+        }
+        return new Player(to.getId(),
+                from.getX() + (to.getX() - from.getX()) * alpha,
+                from.getY() + (to.getY() - from.getY()) * alpha,
+                from.getMass() + (to.getMass() - from.getMass()) * alpha);
+    }
+
+    private Player predict(Player authoritative, long now) {
+        // Where the authoritative position would be by now, had the current direction been applied since it arrived.
+        // The server sends nothing while nothing changes, so a resting player's last update may be old
+        long since = Math.max(latest.receivedAtNanos(), movingSinceNanos);
+        double sinceUpdate = Math.min(MAX_PREDICTION_SECONDS, (now - since) / 1e9);
+        double targetX = clampX(authoritative.getX() + directionX * Player.SPEED * sinceUpdate);
+        double targetY = clampY(authoritative.getY() + directionY * Player.SPEED * sinceUpdate);
+
+        double elapsed = (now - lastRenderNanos) / 1e9;
+        if (Double.isNaN(predictedX) || Math.hypot(targetX - predictedX, targetY - predictedY) > SNAP_DISTANCE) {
+            predictedX = targetX;
+            predictedY = targetY;
+        } else {
+            predictedX = clampX(predictedX + directionX * Player.SPEED * elapsed);
+            predictedY = clampY(predictedY + directionY * Player.SPEED * elapsed);
+            double correction = Math.min(1, CORRECTION_RATE * elapsed);
+            predictedX += (targetX - predictedX) * correction;
+            predictedY += (targetY - predictedY) * correction;
         }
+        return authoritative.moveTo(predictedX, predictedY);
+    }
+
+    private double clampX(double x) {
+        return Math.max(0, Math.min(worldWidth, x));
+    }
+
+    private double clampY(double y) {
+        return Math.max(0, Math.min(worldHeight, y));
     }
 
     @Override
     public void setPlayerDirection(String playerId, double dx, double dy) {
-        try {
-            gameServer.setPlayerDirection(playerId, dx, dy);
-        } catch (RemoteException e) {
-            System.err.println("Error setting player direction: " + e.getMessage());
+        if (directionX == 0 && directionY == 0) {
+            movingSinceNanos = System.nanoTime();
         }
+        this.directionX = dx;
+        this.directionY = dy;
+        inputSender.setDirection(dx, dy);
+    }
+
+    @Override
+    public void setViewport(String playerId, double width, double height) {
+        inputSender.setViewport(width, height);
     }
 
     @Override
@@ -60,4 +184,16 @@ public class RemoteGameStateManager implements GameStateManager {
     public boolean isPlayerAlive() {
         return gameClient.isAlive();
     }
+
+    public void close() {
+        inputSender.close();
+    }
+
+    /**
+     * Removes the player from the server now hosting it, which after a handoff is not the one it joined.
+     */
+    public void leave() throws RemoteException {
+        close();
+        inputSender.server().unregisterPlayer(playerId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package it.unibo.agar.model.rmi;
+
+import java.io.Serializable;
+
+/**
+ * Size, occupancy and tick statistics of a room. A room that is not ticking is empty and costs
+ * no scheduler time.
+ */
+public record RoomInfo(String name, int worldWidth, int worldHeight, int capacity, int players, int clients,
+                       boolean ticking, long ticks, double tickP99Millis, long missedDeadlines) implements Serializable { }
@@ -0,0 +1,254 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.LatencyHistogram;
+import it.unibo.agar.model.TickScheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Always-on metrics of a {@link GameServerImpl}, published as an MBean under
+ * {@code it.unibo.agar:type=GameServer,id=<n>}, with a {@code room} key for the rooms of a lobby.
+ * Recording is a counter increment or a histogram bucket increment; gauges are read from the
+ * server only when JMX asks for them, and percentiles are computed at read time too.
+ */
+public class ServerMetrics implements ServerMetricsMBean {
+    private static final String DOMAIN = "it.unibo.agar";
+    private static final AtomicInteger instances = new AtomicInteger();
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final IntSupplier players;
+    private final IntSupplier clients;
+    private final IntSupplier foods;
+    private final IntSupplier bots;
+    private final TickScheduler gameLoop;
+    private final LatencyHistogram movePhase = new LatencyHistogram();
+    private final LatencyHistogram eatingPhase = new LatencyHistogram();
+    private final LatencyHistogram broadcastPhase = new LatencyHistogram();
+    private final LongAdder failedNotifications = new LongAdder();
+    private final LongAdder evictedClients = new LongAdder();
+    private final LongAdder directionUpdates = new LongAdder();
+    private final LongAdder discardedInputs = new LongAdder();
+    private ObjectName objectName;
+
+    // Written by the tick thread only
+    private long rateWindowStart = System.nanoTime();
+    private long rateWindowUpdates;
+    private volatile double directionUpdatesPerSecond;
+
+    ServerMetrics(IntSupplier players, IntSupplier clients, IntSupplier foods, IntSupplier bots, TickScheduler gameLoop) {
+        this.players = players;
+        this.clients = clients;
+        this.foods = foods;
+        this.bots = bots;
+        this.gameLoop = gameLoop;
+    }
+
+    /**
+     * Registers the MBean with the platform MBean server. Failing to do so only disables JMX access.
+     * The room name is null for a server that is not a room.
+     */
+    void register(String room) {
+        try {
+            MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+            objectName = new ObjectName(DOMAIN + ":type=GameServer,id=" + instances.getAndIncrement()
+                    + (room != null ? ",room=" + ObjectName.quote(room) : ""));
+            mbeanServer.registerMBean(this, objectName);
+            System.out.println("Server metrics published as " + objectName);
+        } catch (JMException e) {
+            System.err.println("Could not register server metrics: " + e.getMessage());
+            objectName = null;
+        }
+    }
+
+    void unregister() {
+        if (objectName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            System.err.println("Could not unregister server metrics: " + e.getMessage());
+        }
+        objectName = null;
+    }
+
+    void recordPhases(long moveNanos, long eatingNanos, long broadcastNanos, boolean broadcast) {
+        movePhase.record(moveNanos);
+        eatingPhase.record(eatingNanos);
+        if (broadcast) {
+            broadcastPhase.record(broadcastNanos);
+        }
+        long now = System.nanoTime();
+        if (now - rateWindowStart >= RATE_WINDOW_NANOS) {
+            long updates = directionUpdates.sum();
+            directionUpdatesPerSecond = (updates - rateWindowUpdates) * 1e9 / (now - rateWindowStart);
+            rateWindowUpdates = updates;
+            rateWindowStart = now;
+        }
+    }
+
+    void directionUpdated() {
+        directionUpdates.increment();
+    }
+
+    void inputDiscarded() {
+        discardedInputs.increment();
+    }
+
+    void notificationFailed() {
+        failedNotifications.increment();
+    }
+
+    void clientEvicted() {
+        evictedClients.increment();
+    }
+
+    public LatencyHistogram getMovePhase() {
+        return movePhase;
+    }
+
+    public LatencyHistogram getEatingPhase() {
+        return eatingPhase;
+    }
+
+    public LatencyHistogram getBroadcastPhase() {
+        return broadcastPhase;
+    }
+
+    @Override
+    public int getConnectedPlayers() {
+        return players.getAsInt();
+    }
+
+    @Override
+    public int getConnectedClients() {
+        return clients.getAsInt();
+    }
+
+    @Override
+    public int getFoodCount() {
+        return foods.getAsInt();
+    }
+
+    @Override
+    public int getBotCount() {
+        return bots.getAsInt();
+    }
+
+    @Override
+    public boolean isTicking() {
+        return gameLoop.isRunning();
+    }
+
+    @Override
+    public long getTickCount() {
+        return gameLoop.stats().ticks();
+    }
+
+    @Override
+    public long getMissedDeadlines() {
+        return gameLoop.stats().missedDeadlines();
+    }
+
+    @Override
+    public double getTickP50Millis() {
+        return millis(gameLoop.tickDurations().percentile(50));
+    }
+
+    @Override
+    public double getTickP99Millis() {
+        return millis(gameLoop.tickDurations().percentile(99));
+    }
+
+    @Override
+    public double getTickMaxMillis() {
+        return millis(gameLoop.tickDurations().max());
+    }
+
+    @Override
+    public double getMovePhaseP50Millis() {
+        return millis(movePhase.percentile(50));
+    }
+
+    @Override
+    public double getMovePhaseP99Millis() {
+        return millis(movePhase.percentile(99));
+    }
+
+    @Override
+    public double getMovePhaseMaxMillis() {
+        return millis(movePhase.max());
+    }
+
+    @Override
+    public double getEatingPhaseP50Millis() {
+        return millis(eatingPhase.percentile(50));
+    }
+
+    @Override
+    public double getEatingPhaseP99Millis() {
+        return millis(eatingPhase.percentile(99));
+    }
+
+    @Override
+    public double getEatingPhaseMaxMillis() {
+        return millis(eatingPhase.max());
+    }
+
+    @Override
+    public double getBroadcastPhaseP50Millis() {
+        return millis(broadcastPhase.percentile(50));
+    }
+
+    @Override
+    public double getBroadcastPhaseP99Millis() {
+        return millis(broadcastPhase.percentile(99));
+    }
+
+    @Override
+    public double getBroadcastPhaseMaxMillis() {
+        return millis(broadcastPhase.max());
+    }
+
+    @Override
+    public long getFailedNotifications() {
+        return failedNotifications.sum();
+    }
+
+    @Override
+    public long getEvictedClients() {
+        return evictedClients.sum();
+    }
+
+    @Override
+    public long getDirectionUpdates() {
+        return directionUpdates.sum();
+    }
+
+    @Override
+    public double getDirectionUpdatesPerSecond() {
+        return directionUpdatesPerSecond;
+    }
+
+    @Override
+    public long getDiscardedInputs() {
+        return discardedInputs.sum();
+    }
+
+    @Override
+    public void resetHistograms() {
+        gameLoop.tickDurations().reset();
+        movePhase.reset();
+        eatingPhase.reset();
+        broadcastPhase.reset();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
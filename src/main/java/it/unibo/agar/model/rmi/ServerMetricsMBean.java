@@ -0,0 +1,36 @@
+package it.unibo.agar.model.rmi;
+
+/**
+ * JMX view of a running {@link GameServerImpl}. Durations are in milliseconds.
+ */
+public interface ServerMetricsMBean {
+    int getConnectedPlayers();
+    int getConnectedClients();
+    int getFoodCount();
+    int getBotCount(); // Included in the connected players
+
+    boolean isTicking(); // False while an empty room is suspended
+    long getTickCount();
+    long getMissedDeadlines();
+    double getTickP50Millis();
+    double getTickP99Millis();
+    double getTickMaxMillis();
+
+    double getMovePhaseP50Millis();
+    double getMovePhaseP99Millis();
+    double getMovePhaseMaxMillis();
+    double getEatingPhaseP50Millis();
+    double getEatingPhaseP99Millis();
+    double getEatingPhaseMaxMillis();
+    double getBroadcastPhaseP50Millis();
+    double getBroadcastPhaseP99Millis();
+    double getBroadcastPhaseMaxMillis();
+
+    long getFailedNotifications();
+    long getEvictedClients();
+    long getDirectionUpdates();
+    double getDirectionUpdatesPerSecond(); // Over the last full second
+    long getDiscardedInputs(); // Stale or out-of-order sequenced input
+
+    void resetHistograms();
+}
@@ -0,0 +1,242 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format for {@link StateDelta}s.
+ * String ids are sent once, when an entity first becomes visible, and referenced by a small
+ * numeric handle afterwards. Coordinates and mass travel as floats and the radius is recomputed
+ * by the receiver. Handles are scoped to one encoder/decoder pair and restart at every keyframe.
+ */
+public final class SnapshotCodec {
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte KEYFRAME_FLAG = 1;
+
+    private SnapshotCodec() { }
+
+    /**
+     * Encodes a full world as a self-contained keyframe.
+     */
+    public static byte[] encodeWorld(long version, List<Player> players, List<Food> foods) {
+        return new Encoder().encode(StateDelta.keyframe(version, players, foods));
+    }
+
+    public static StateDelta decodeWorld(byte[] frame) {
+        return new Decoder().decode(frame);
+    }
+
+    public static long baseVersion(byte[] frame) {
+        return readHeader(frame).baseVersion;
+    }
+
+    public static boolean isKeyframe(byte[] frame) {
+        return readHeader(frame).keyframe;
+    }
+
+    /**
+     * Server side of a connection: remembers which handle each id was given.
+     */
+    public static final class Encoder {
+        private final Map<String, Integer> playerHandles = new HashMap<>();
+        private final Map<String, Integer> foodHandles = new HashMap<>();
+        private int nextHandle;
+
+        public byte[] encode(StateDelta delta) {
+            if (delta.isKeyframe()) {
+                playerHandles.clear();
+                foodHandles.clear();
+                nextHandle = 0;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(FORMAT_VERSION);
+                writeVarLong(out, delta.getVersion());
+                writeVarLong(out, delta.getBaseVersion());
+                out.writeByte(delta.isKeyframe() ? KEYFRAME_FLAG : 0);
+
+                writeVarInt(out, delta.getAddedPlayers().size());
+                for (Player player : delta.getAddedPlayers()) {
+                    int handle = nextHandle++;
+                    playerHandles.put(player.getId(), handle);
+                    writeVarInt(out, handle);
+                    out.writeUTF(player.getId());
+                    writeBody(out, player.getX(), player.getY(), player.getMass());
+                }
+                writeVarInt(out, delta.getMovedPlayers().size());
+                for (Player player : delta.getMovedPlayers()) {
+                    writeVarInt(out, handleOf(playerHandles, player.getId()));
+                    writeBody(out, player.getX(), player.getY(), player.getMass());
+                }
+                writeRemovals(out, delta.getRemovedPlayerIds(), playerHandles);
+
+                writeVarInt(out, delta.getAddedFoods().size());
+                for (Food food : delta.getAddedFoods()) {
+                    // A respawned food is re-added under its id and keeps its handle
+                    int handle = foodHandles.computeIfAbsent(food.getId(), id -> nextHandle++);
+                    writeVarInt(out, handle);
+                    out.writeUTF(food.getId());
+                    writeBody(out, food.getX(), food.getY(), food.getMass());
+                }
+                writeRemovals(out, delta.getRemovedFoodIds(), foodHandles);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void writeRemovals(DataOutput out, List<String> ids, Map<String, Integer> handles) throws IOException {
+            writeVarInt(out, ids.size());
+            for (String id : ids) {
+                writeVarInt(out, handleOf(handles, id));
+                handles.remove(id);
+            }
+        }
+
+        private static int handleOf(Map<String, Integer> handles, String id) {
+            Integer handle = handles.get(id);
+            if (handle == null) {
+                throw new IllegalStateException("No handle for " + id + ": it was never added since the last keyframe");
+            }
+            return handle;
+        }
+    }
+
+    /**
+     * Client side of a connection: resolves handles back to ids.
+     */
+    public static final class Decoder {
+        private final Map<Integer, String> playerIds = new HashMap<>();
+        private final Map<Integer, String> foodIds = new HashMap<>();
+
+        public StateDelta decode(byte[] frame) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame))) {
+                Header header = readHeader(in);
+                if (header.keyframe) {
+                    playerIds.clear();
+                    foodIds.clear();
+                }
+
+                int addedPlayerCount = readVarInt(in);
+                List<Player> addedPlayers = new ArrayList<>(addedPlayerCount);
+                for (int i = 0; i < addedPlayerCount; i++) {
+                    int handle = readVarInt(in);
+                    String id = in.readUTF();
+                    playerIds.put(handle, id);
+                    addedPlayers.add(new Player(id, in.readFloat(), in.readFloat(), in.readFloat()));
+                }
+                int movedPlayerCount = readVarInt(in);
+                List<Player> movedPlayers = new ArrayList<>(movedPlayerCount);
+                for (int i = 0; i < movedPlayerCount; i++) {
+                    String id = resolve(playerIds, readVarInt(in));
+                    movedPlayers.add(new Player(id, in.readFloat(), in.readFloat(), in.readFloat()));
+                }
+                List<String> removedPlayers = readRemovals(in, playerIds);
+
+                int addedFoodCount = readVarInt(in);
+                List<Food> addedFoods = new ArrayList<>(addedFoodCount);
+                for (int i = 0; i < addedFoodCount; i++) {
+                    int handle = readVarInt(in);
+                    String id = in.readUTF();
+                    foodIds.put(handle, id);
+                    addedFoods.add(new Food(id, in.readFloat(), in.readFloat(), in.readFloat()));
+                }
+                List<String> removedFoods = readRemovals(in, foodIds);
+
+                return new StateDelta(header.version, header.baseVersion, header.keyframe,
+                        addedPlayers, movedPlayers, removedPlayers, addedFoods, removedFoods);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static List<String> readRemovals(DataInput in, Map<Integer, String> ids) throws IOException {
+            int count = readVarInt(in);
+            List<String> removed = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int handle = readVarInt(in);
+                removed.add(resolve(ids, handle));
+                ids.remove(handle);
+            }
+            return removed;
+        }
+
+        private static String resolve(Map<Integer, String> ids, int handle) throws IOException {
+            String id = ids.get(handle);
+            if (id == null) {
+                throw new IOException("Unknown entity handle " + handle);
+            }
+            return id;
+        }
+    }
+
+    private record Header(long version, long baseVersion, boolean keyframe) { }
+
+    private static Header readHeader(byte[] frame) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame))) {
+            return readHeader(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Header readHeader(DataInput in) throws IOException {
+        byte format = in.readByte();
+        if (format != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format " + format);
+        }
+        long version = readVarLong(in);
+        long baseVersion = readVarLong(in);
+        boolean keyframe = (in.readByte() & KEYFRAME_FLAG) != 0;
+        return new Header(version, baseVersion, keyframe);
+    }
+
+    private static void writeBody(DataOutput out, double x, double y, double mass) throws IOException {
+        out.writeFloat((float) x);
+        out.writeFloat((float) y);
+        out.writeFloat((float) mass);
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    // Versions start at -1 before the first frame, so values are zig-zag encoded
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
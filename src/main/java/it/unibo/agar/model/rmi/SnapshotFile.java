@@ -0,0 +1,70 @@
+package it.unibo.agar.model.rmi;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File holding one {@link WorldCheckpoint} of a server's world. A new snapshot is written next to
+ * the file and moved over it, so the file always holds a complete snapshot; it is read back
+ * through a memory mapping, without copying the file first.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x41475331; // "AGS1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 4;
+
+    private SnapshotFile() { }
+
+    static void write(Path file, int worldWidth, int worldHeight, WorldCheckpoint snapshot) throws IOException {
+        int size = snapshot.encodedSize();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(worldWidth);
+        buffer.putInt(worldHeight);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putInt(size);
+        snapshot.encode(buffer);
+        buffer.flip();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot of a world of the given size.
+     */
+    static WorldCheckpoint read(Path file, int worldWidth, int worldHeight) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a world snapshot of a supported version");
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width != worldWidth || height != worldHeight) {
+                throw new IOException(file + " holds a " + width + "x" + height + " world, not a "
+                        + worldWidth + "x" + worldHeight + " one");
+            }
+            buffer.getLong(); // Saved at
+            int size = buffer.getInt();
+            if (buffer.remaining() < size) {
+                throw new IOException(file + " is truncated");
+            }
+            return WorldCheckpoint.decode(buffer);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A server's side of {@link SnapshotFile}s: saves the world every few ticks, and holds the players
+ * of a restored snapshot until their clients join again. Snapshots are encoded and written on a
+ * thread of their own; one still being written when the next is due makes the tick skip the next.
+ * A parked player whose client does not join within the TTL is dropped, and is no longer saved;
+ * the TTL counts from the restore. Apart from the parked players, which the lease reaper also
+ * drops, this is used under the server's lock.
+ */
+final class SnapshotSaver {
+    static final long DEFAULT_PARKED_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Player restored from a snapshot, kept until its client joins again or until the deadline passes.
+     */
+    private record ParkedPlayer(Player player, long expiry) {
+        boolean expiredAt(long now) {
+            return now - expiry > 0;
+        }
+    }
+
+    private final int worldWidth;
+    private final int worldHeight;
+    private final String threadName;
+    private final Map<String, ParkedPlayer> parkedPlayers = new ConcurrentHashMap<>();
+    private volatile long parkedTtlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_PARKED_TTL_MILLIS);
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private Path file; // Null unless saving
+    private int interval;
+    private long ticksSinceSnapshot;
+    private ExecutorService writer;
+
+    SnapshotSaver(int worldWidth, int worldHeight, String threadName) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Starts saving to the file every {@code interval} ticks; the caller stops any earlier saving first.
+     */
+    void start(Path file, int interval) {
+        this.file = file;
+        this.interval = interval;
+        this.ticksSinceSnapshot = 0;
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.println("Saving snapshots to " + file + " every " + interval + " ticks");
+    }
+
+    boolean isSaving() {
+        return file != null;
+    }
+
+    /**
+     * Stops saving. The returned task writes the given last snapshot once the ones in flight are
+     * written, and is meant to run outside the server's lock.
+     */
+    Runnable stop(WorldCheckpoint last) {
+        Path lastFile = file;
+        ExecutorService lastWriter = writer;
+        file = null;
+        writer = null;
+        return () -> {
+            lastWriter.shutdown();
+            try {
+                lastWriter.awaitTermination(10, TimeUnit.SECONDS); // The last snapshot must not be overwritten by an older one
+                SnapshotFile.write(lastFile, worldWidth, worldHeight, last);
+                System.out.println("Saved snapshot " + lastFile + " with " + last.players().size() + " players");
+            } catch (IOException e) {
+                System.err.println("Could not save snapshot " + lastFile + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    /**
+     * Saves a snapshot in the background if one is due after this tick.
+     */
+    void afterTick(Supplier<WorldCheckpoint> capture) {
+        if (file == null || ++ticksSinceSnapshot < interval) return;
+        ticksSinceSnapshot = 0;
+        if (!inFlight.compareAndSet(false, true)) return;
+        Path target = file;
+        WorldCheckpoint snapshot = capture.get();
+        writer.execute(() -> {
+            try {
+                SnapshotFile.write(target, worldWidth, worldHeight, snapshot);
+            } catch (IOException e) {
+                System.err.println("Could not save snapshot " + target + ": " + e.getMessage());
+            } finally {
+                inFlight.set(false);
+            }
+        });
+    }
+
+    WorldCheckpoint read(Path file) throws IOException {
+        return SnapshotFile.read(file, worldWidth, worldHeight);
+    }
+
+    /**
+     * Holds back the given players, except those already in the game, for the parked player TTL.
+     * Returns the number of players held back.
+     */
+    int park(List<Player> players, Predicate<String> inGame) {
+        long expiry = System.nanoTime() + parkedTtlNanos;
+        int parked = 0;
+        for (Player player : players) {
+            if (!inGame.test(player.getId())) {
+                parkedPlayers.put(player.getId(), new ParkedPlayer(player, expiry));
+                parked++;
+            }
+        }
+        return parked;
+    }
+
+    /**
+     * The parked player with the given id, which is no longer parked, or null if there is none left.
+     */
+    Player unpark(String playerId) {
+        ParkedPlayer parked = parkedPlayers.remove(playerId);
+        return parked != null && !parked.expiredAt(System.nanoTime()) ? parked.player() : null;
+    }
+
+    List<Player> parkedPlayers() {
+        long now = System.nanoTime();
+        List<Player> players = new ArrayList<>(parkedPlayers.size());
+        for (ParkedPlayer parked : parkedPlayers.values()) {
+            if (!parked.expiredAt(now)) {
+                players.add(parked.player());
+            }
+        }
+        return players;
+    }
+
+    int parkedCount() {
+        dropExpired(System.nanoTime());
+        return parkedPlayers.size();
+    }
+
+    void setParkedTtlMillis(long ttlMillis) {
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Parked player TTL must be positive: " + ttlMillis);
+        }
+        this.parkedTtlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    long parkedTtlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(parkedTtlNanos);
+    }
+
+    // The map is concurrent, so the reaper drops players without the server's lock
+    void dropExpired(long now) {
+        parkedPlayers.values().removeIf(parked -> {
+            if (!parked.expiredAt(now)) {
+                return false;
+            }
+            System.out.println("Player " + parked.player().getId() + " did not rejoin in time, dropped");
+            return true;
+        });
+    }
+}
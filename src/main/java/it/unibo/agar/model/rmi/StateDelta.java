@@ -0,0 +1,76 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Numbered change set sent to a client. A delta turns the client's state at {@code baseVersion}
+ * into the state at {@code version}; a keyframe carries the whole visible world and applies to any state.
+ */
+public class StateDelta implements Serializable {
+    private final long version;
+    private final long baseVersion;
+    private final boolean keyframe;
+    private final List<Player> addedPlayers;
+    private final List<Player> movedPlayers;
+    private final List<String> removedPlayerIds;
+    private final List<Food> addedFoods;
+    private final List<String> removedFoodIds;
+
+    public StateDelta(long version, long baseVersion, boolean keyframe,
+                      List<Player> addedPlayers, List<Player> movedPlayers, List<String> removedPlayerIds,
+                      List<Food> addedFoods, List<String> removedFoodIds) {
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.keyframe = keyframe;
+        this.addedPlayers = List.copyOf(addedPlayers);
+        this.movedPlayers = List.copyOf(movedPlayers);
+        this.removedPlayerIds = List.copyOf(removedPlayerIds);
+        this.addedFoods = List.copyOf(addedFoods);
+        this.removedFoodIds = List.copyOf(removedFoodIds);
+    }
+
+    public static StateDelta keyframe(long version, List<Player> players, List<Food> foods) {
+        return new StateDelta(version, version, true, players, List.of(), List.of(), foods, List.of());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    public List<Player> getAddedPlayers() {
+        return addedPlayers;
+    }
+
+    public List<Player> getMovedPlayers() {
+        return movedPlayers;
+    }
+
+    public List<String> getRemovedPlayerIds() {
+        return removedPlayerIds;
+    }
+
+    public List<Food> getAddedFoods() {
+        return addedFoods;
+    }
+
+    public List<String> getRemovedFoodIds() {
+        return removedFoodIds;
+    }
+
+    public boolean isEmpty() {
+        return !keyframe && addedPlayers.isEmpty() && movedPlayers.isEmpty() && removedPlayerIds.isEmpty()
+                && addedFoods.isEmpty() && removedFoodIds.isEmpty();
+    }
+}
@@ -0,0 +1,273 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.FoodStore;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Append-only record of everything that changes a {@link GameServerImpl}'s world from outside the
+ * simulation: joins, leaves, directions and density changes, each tick's length, and periodic
+ * {@link WorldCheckpoint}s. Replaying the records from a checkpoint rebuilds every later tick.
+ * <p>
+ * Records are {@code [type][payload length][payload]} and are copied into a memory-mapped window of
+ * the file, which the OS writes back on its own, so appending costs about as much as a memory copy.
+ * The type byte is written last: a record cut short by a crash reads as the end of the journal.
+ * A checkpoint only reserves its room on the caller's thread; it is encoded into that room and
+ * committed on the journal's writer thread, while later records are already appended after it.
+ * <p>
+ * Once the file has grown past the segment size, the next checkpoint starts a new file under the same
+ * name, and the older ones are kept as {@code <file>.1} (the newest), {@code <file>.2} and so on, up to the
+ * number of kept segments; older segments are deleted. Every segment opens with a header and a checkpoint,
+ * so each can be replayed on its own. Not thread-safe; the server appends under its lock.
+ */
+final class TickJournal implements Closeable {
+    static final int MAGIC = 0x41474a31; // "AGJ1"
+    static final int FORMAT_VERSION = 1;
+    static final byte END = 0;
+    static final byte HEADER = 1;
+    static final byte CHECKPOINT = 2;
+    static final byte JOIN = 3;
+    static final byte LEAVE = 4;
+    static final byte EATEN = 5;
+    static final byte DIRECTION = 6;
+    static final byte DENSITY = 7;
+    static final byte TICK = 8;
+    static final int RECORD_HEADER_SIZE = 1 + 4;
+
+    static final long DEFAULT_SEGMENT_SIZE = 256L << 20;
+    static final int DEFAULT_KEPT_SEGMENTS = 2;
+    private static final long WINDOW_SIZE = 16L << 20;
+
+    private final Path file;
+    private final int worldWidth;
+    private final int worldHeight;
+    private final double ticksPerSecond;
+    private final long segmentSize;
+    private final int keptSegments;
+    private final ExecutorService writer;
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private Future<?> pendingCheckpoint;
+    private long ticks;
+
+    TickJournal(Path file, int worldWidth, int worldHeight, double ticksPerSecond) throws IOException {
+        this(file, worldWidth, worldHeight, ticksPerSecond, DEFAULT_SEGMENT_SIZE, DEFAULT_KEPT_SEGMENTS);
+    }
+
+    TickJournal(Path file, int worldWidth, int worldHeight, double ticksPerSecond, long segmentSize,
+                int keptSegments) throws IOException {
+        this.file = file;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.ticksPerSecond = ticksPerSecond;
+        this.segmentSize = segmentSize;
+        this.keptSegments = keptSegments;
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "agar-journal-" + file.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        openSegment();
+    }
+
+    Path file() {
+        return file;
+    }
+
+    // Ticks recorded so far
+    long ticks() {
+        return ticks;
+    }
+
+    // Bytes written to the current segment
+    long segmentLength() {
+        return windowStart + window.position();
+    }
+
+    void checkpoint(WorldCheckpoint checkpoint) throws IOException {
+        if (segmentLength() >= segmentSize) {
+            rollOver();
+        }
+        int size = checkpoint.encodedSize();
+        int start = begin(CHECKPOINT, size);
+        ByteBuffer room = window.slice(start, RECORD_HEADER_SIZE + size);
+        window.position(window.position() + size);
+        pendingCheckpoint = writer.submit(() -> {
+            room.position(RECORD_HEADER_SIZE);
+            checkpoint.encode(room);
+            room.put(0, CHECKPOINT);
+        });
+    }
+
+    void join(Player player) throws IOException {
+        byte[] id = player.getId().getBytes(StandardCharsets.UTF_8);
+        int start = begin(JOIN, 2 + id.length + 3 * 8);
+        putString(id);
+        window.putDouble(player.getX());
+        window.putDouble(player.getY());
+        window.putDouble(player.getMass());
+        commit(start, JOIN);
+    }
+
+    void leave(String playerId) throws IOException {
+        idRecord(LEAVE, playerId);
+    }
+
+    // Eaten by order of a client rather than by the simulation
+    void eaten(String playerId) throws IOException {
+        idRecord(EATEN, playerId);
+    }
+
+    void direction(String playerId, Position direction) throws IOException {
+        byte[] id = playerId.getBytes(StandardCharsets.UTF_8);
+        int start = begin(DIRECTION, 2 + id.length + 2 * 8);
+        putString(id);
+        window.putDouble(direction.x());
+        window.putDouble(direction.y());
+        commit(start, DIRECTION);
+    }
+
+    void density(FoodStore.Density density) throws IOException {
+        int start = begin(DENSITY, 4 + 4 + 8);
+        window.putInt(density.minimum());
+        window.putInt(density.maximum());
+        window.putDouble(density.perMillionSquareUnits());
+        commit(start, DENSITY);
+    }
+
+    void tick(double elapsedSeconds, boolean broadcast) throws IOException {
+        int start = begin(TICK, 8 + 1);
+        window.putDouble(elapsedSeconds);
+        window.put((byte) (broadcast ? 1 : 0));
+        commit(start, TICK);
+        ticks++;
+    }
+
+    /**
+     * Waits for the last checkpoint, then cuts the file to the records written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitCheckpoint();
+        } finally {
+            writer.shutdown();
+            window.force();
+            closeSegment();
+        }
+    }
+
+    // The OS writes the mapped pages back on its own
+    private void closeSegment() throws IOException {
+        long length = segmentLength();
+        try {
+            channel.truncate(length);
+        } catch (IOException e) {
+            // Some platforms refuse to truncate a mapped file; the zeros left after the records read as the end
+        }
+        channel.close();
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        map(0, WINDOW_SIZE);
+        int start = begin(HEADER, 4 + 4 + 4 + 4 + 8 + 8);
+        window.putInt(MAGIC);
+        window.putInt(FORMAT_VERSION);
+        window.putInt(worldWidth);
+        window.putInt(worldHeight);
+        window.putDouble(ticksPerSecond);
+        window.putLong(System.currentTimeMillis());
+        commit(start, HEADER);
+    }
+
+    private void rollOver() throws IOException {
+        awaitCheckpoint();
+        closeSegment();
+        for (int i = keptSegments; i >= 1; i--) {
+            Path older = segment(i);
+            if (i == keptSegments) {
+                Files.deleteIfExists(older);
+            } else if (Files.exists(older)) {
+                Files.move(older, segment(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (keptSegments > 0) {
+            Files.move(file, segment(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        openSegment();
+    }
+
+    private Path segment(int age) {
+        return file.resolveSibling(file.getFileName() + "." + age);
+    }
+
+    // Normally long done: checkpoints are hundreds of ticks apart
+    private void awaitCheckpoint() throws IOException {
+        if (pendingCheckpoint == null) return;
+        try {
+            pendingCheckpoint.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not write checkpoint", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Checkpoint still not written after 10 s", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a checkpoint", e);
+        } finally {
+            pendingCheckpoint = null;
+        }
+    }
+
+    private void idRecord(byte type, String playerId) throws IOException {
+        byte[] id = playerId.getBytes(StandardCharsets.UTF_8);
+        int start = begin(type, 2 + id.length);
+        putString(id);
+        commit(start, type);
+    }
+
+    // Returns where the record starts; its type is left as END until commit
+    private int begin(byte type, int payloadSize) throws IOException {
+        if (window.remaining() < RECORD_HEADER_SIZE + payloadSize) {
+            // The next window starts where this one stopped, so records stay contiguous in the file
+            map(windowStart + window.position(), Math.max(WINDOW_SIZE, RECORD_HEADER_SIZE + payloadSize));
+        }
+        int start = window.position();
+        window.put(END);
+        window.putInt(payloadSize);
+        return start;
+    }
+
+    private void commit(int start, byte type) {
+        window.put(start, type);
+    }
+
+    private void putString(byte[] bytes) {
+        window.putShort((short) bytes.length);
+        window.put(bytes);
+    }
+
+    private void map(long position, long size) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        windowStart = position;
+    }
+}
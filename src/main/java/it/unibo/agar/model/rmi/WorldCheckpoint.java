@@ -0,0 +1,158 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Entity;
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.FoodStore;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.Position;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a {@link GameServerImpl} needs to carry on ticking exactly as it would have: players and
+ * foods in the order of its grids, each player's direction, the food store's state and the seed its
+ * random numbers continue from. The first {@code indexedPlayers} players are in the grid; the others
+ * joined since the last tick and enter it on the next one. Coordinates and masses are kept at full precision.
+ */
+record WorldCheckpoint(long tick, long worldVersion, long seed, List<Player> players, int indexedPlayers,
+                       List<Position> directions, List<Food> foods, FoodStore.State store) {
+
+    WorldCheckpoint {
+        players = List.copyOf(players);
+        directions = List.copyOf(directions);
+        foods = List.copyOf(foods);
+    }
+
+    int encodedSize() {
+        int size = 3 * 8 + 4 + 4 + 8 + 4; // Counters, seed, density and next slot
+        size += 4 + 4;
+        for (Player player : players) {
+            size += stringSize(player.getId()) + 5 * 8;
+        }
+        size += 4;
+        for (Food food : foods) {
+            size += stringSize(food.getId()) + 3 * 8;
+        }
+        size += 4 + 4 * store.foods().size() + 4 + 4 * store.freeSlots().size();
+        return size;
+    }
+
+    void encode(ByteBuffer out) {
+        out.putLong(tick);
+        out.putLong(worldVersion);
+        out.putLong(seed);
+        out.putInt(store.density().minimum());
+        out.putInt(store.density().maximum());
+        out.putDouble(store.density().perMillionSquareUnits());
+        out.putInt(store.nextSlot());
+        out.putInt(players.size());
+        out.putInt(indexedPlayers);
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            putString(out, player.getId());
+            out.putDouble(player.getX());
+            out.putDouble(player.getY());
+            out.putDouble(player.getMass());
+            out.putDouble(directions.get(i).x());
+            out.putDouble(directions.get(i).y());
+        }
+        // The store's foods are the grid's, so they are written once and referenced by index
+        Map<String, Integer> foodIndexes = new HashMap<>(foods.size() * 2);
+        out.putInt(foods.size());
+        for (Food food : foods) {
+            foodIndexes.put(food.getId(), foodIndexes.size());
+            putString(out, food.getId());
+            out.putDouble(food.getX());
+            out.putDouble(food.getY());
+            out.putDouble(food.getMass());
+        }
+        out.putInt(store.foods().size());
+        for (Food food : store.foods()) {
+            out.putInt(foodIndexes.get(food.getId()));
+        }
+        out.putInt(store.freeSlots().size());
+        for (int slot : store.freeSlots()) {
+            out.putInt(slot);
+        }
+    }
+
+    static WorldCheckpoint decode(ByteBuffer in) {
+        long tick = in.getLong();
+        long worldVersion = in.getLong();
+        long seed = in.getLong();
+        FoodStore.Density density = new FoodStore.Density(in.getInt(), in.getInt(), in.getDouble());
+        int nextSlot = in.getInt();
+        int playerCount = in.getInt();
+        int indexedPlayers = in.getInt();
+        List<Player> players = new ArrayList<>(playerCount);
+        List<Position> directions = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player(getString(in), in.getDouble(), in.getDouble(), in.getDouble()));
+            directions.add(Position.of(in.getDouble(), in.getDouble()));
+        }
+        int foodCount = in.getInt();
+        List<Food> foods = new ArrayList<>(foodCount);
+        for (int i = 0; i < foodCount; i++) {
+            foods.add(new Food(getString(in), in.getDouble(), in.getDouble(), in.getDouble()));
+        }
+        int storeCount = in.getInt();
+        List<Food> storeFoods = new ArrayList<>(storeCount);
+        for (int i = 0; i < storeCount; i++) {
+            storeFoods.add(foods.get(in.getInt()));
+        }
+        int freeCount = in.getInt();
+        List<Integer> freeSlots = new ArrayList<>(freeCount);
+        for (int i = 0; i < freeCount; i++) {
+            freeSlots.add(in.getInt());
+        }
+        return new WorldCheckpoint(tick, worldVersion, seed, players, indexedPlayers, directions, foods,
+                new FoodStore.State(storeFoods, freeSlots, nextSlot, density));
+    }
+
+    /**
+     * Whether both describe the same world, ignoring the tick count and the seed.
+     */
+    boolean sameWorld(WorldCheckpoint other) {
+        return worldVersion == other.worldVersion
+                && indexedPlayers == other.indexedPlayers
+                && sameEntities(players, other.players)
+                && directions.equals(other.directions)
+                && sameEntities(foods, other.foods)
+                && store.freeSlots().equals(other.store.freeSlots())
+                && store.nextSlot() == other.store.nextSlot();
+    }
+
+    private static boolean sameEntities(List<? extends Entity> a, List<? extends Entity> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).getId().equals(b.get(i).getId()) || a.get(i).getX() != b.get(i).getX()
+                    || a.get(i).getY() != b.get(i).getY() || a.get(i).getMass() != b.get(i).getMass()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int stringSize(String value) {
+        return 2 + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,24 +1,38 @@
 package it.unibo.agar.view;
 
-import it.unibo.agar.model.Entity;
 import it.unibo.agar.model.Food;
 import it.unibo.agar.model.Player;
 import it.unibo.agar.model.World;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AgarViewUtils {
 
     private static final Color PLAYER_BORDER_COLOR = Color.BLACK;
+    static final Color FOOD_COLOR = Color.GREEN;
     private static final int PLAYER_LABEL_OFFSET_X = 10;
     private static final int PLAYER_LABEL_OFFSET_Y = 0;
+    private static final int LABEL_CULL_MARGIN = 100; // Labels stick out of the circle, keep them until fully off screen
     private static final Color[] PLAYER_PALETTE = {
             Color.BLUE, Color.ORANGE, Color.CYAN, Color.PINK,
             Color.YELLOW, Color.RED, Color.GREEN, Color.LIGHT_GRAY
     };
+    private static final Map<String, Color> playerColors = new ConcurrentHashMap<>(); // Ids are parsed once, not every frame
 
     private static Color getPlayerColor(String id) {
-        if (id != null && id.startsWith("p")) {
+        if (id == null) {
+            return Color.GRAY;
+        }
+        return playerColors.computeIfAbsent(id, AgarViewUtils::paletteColor);
+    }
+
+    private static Color paletteColor(String id) {
+        if (id.startsWith("p")) {
             try {
                 int index = Integer.parseInt(id.substring(1));
                 return PLAYER_PALETTE[Math.abs(index -1) % PLAYER_PALETTE.length]; // abs for safety, -1 as p1 is often index 0
@@ -30,37 +44,58 @@ public class AgarViewUtils {
         return Color.GRAY; // Default color if ID format is unexpected
     }
 
-    private record PositioningInfo(int x, int y, int radius) {
-        public int diameter() {
-            return radius * 2;
-        }
+    public static void drawWorld(final Graphics2D g, final World world, final double offsetX, final double offsetY) {
+        drawFoods(g, world.getFoods(), offsetX, offsetY);
+        drawPlayers(g, world.getPlayers(), offsetX, offsetY);
     }
 
-    private static PositioningInfo getPositioningInfo(final Entity entity, final double offsetX, final double offsetY) {
-       final int radius = (int) entity.getRadius();
-       final int x = (int) (entity.getX() - offsetX - radius);
-       final int y = (int) (entity.getY() - offsetY - radius);
-       return new PositioningInfo(x, y, radius);
-    }
-    public static void drawWorld(final Graphics2D g, final World world, final double offsetX, final double offsetY) {
-        // Draw foods
-        g.setColor(Color.GREEN);
-        for (Food food : world.getFoods()) {
-            var positioning = getPositioningInfo(food, offsetX, offsetY);
-            g.fillOval(positioning.x, positioning.y, positioning.diameter(), positioning.diameter());
+    /**
+     * Draws the foods that intersect the clip; without a clip everything is drawn.
+     */
+    public static void drawFoods(final Graphics2D g, final List<Food> foods, final double offsetX, final double offsetY) {
+        final Rectangle clip = g.getClipBounds();
+        g.setColor(FOOD_COLOR);
+        for (Food food : foods) {
+            final int radius = (int) food.getRadius();
+            final int x = (int) (food.getX() - offsetX - radius);
+            final int y = (int) (food.getY() - offsetY - radius);
+            if (clip == null || intersects(clip, x, y, radius * 2, 0)) {
+                g.fillOval(x, y, radius * 2, radius * 2);
+            }
         }
+    }
 
-        // Draw players
-        for (Player player : world.getPlayers()) {
-            var positioning = getPositioningInfo(player, offsetX, offsetY);
+    /**
+     * Draws the players, with their labels, that intersect the clip; without a clip everything is drawn.
+     * Heavier players are drawn over lighter ones, whatever order the list comes in.
+     */
+    public static void drawPlayers(final Graphics2D g, final List<Player> players, final double offsetX, final double offsetY) {
+        final Rectangle clip = g.getClipBounds();
+        final List<Player> byMass = new ArrayList<>(players);
+        byMass.sort(Comparator.comparingDouble(Player::getMass).thenComparing(Player::getId));
+        for (Player player : byMass) {
+            final int radius = (int) player.getRadius();
+            final int x = (int) (player.getX() - offsetX - radius);
+            final int y = (int) (player.getY() - offsetY - radius);
+            if (clip != null && !intersects(clip, x, y, radius * 2, LABEL_CULL_MARGIN)) {
+                continue;
+            }
             g.setColor(getPlayerColor(player.getId()));
-            g.fillOval(positioning.x, positioning.y, positioning.diameter(), positioning.diameter());
+            g.fillOval(x, y, radius * 2, radius * 2);
             // Draw player ID
             g.setColor(PLAYER_BORDER_COLOR);
             // Adjust label position to be relative to the player's actual center on screen
-            int labelX = positioning.x - PLAYER_LABEL_OFFSET_X;
-            int labelY = positioning.y - PLAYER_LABEL_OFFSET_Y;
-            g.drawString(player.getId(), labelX, labelY);
+            g.drawString(player.getId(), x - PLAYER_LABEL_OFFSET_X, y - PLAYER_LABEL_OFFSET_Y);
         }
     }
+
+    static void fillFood(final Graphics2D g, final Food food, final double offsetX, final double offsetY) {
+        final int radius = (int) food.getRadius();
+        g.fillOval((int) (food.getX() - offsetX - radius), (int) (food.getY() - offsetY - radius), radius * 2, radius * 2);
+    }
+
+    private static boolean intersects(final Rectangle clip, final int x, final int y, final int size, final int margin) {
+        return x + size + margin >= clip.x && x - margin <= clip.x + clip.width
+                && y + size + margin >= clip.y && y - margin <= clip.y + clip.height;
+    }
 }
@@ -0,0 +1,121 @@
+package it.unibo.agar.view;
+
+import it.unibo.agar.model.Food;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Food drawn from cached image tiles of the world. Food never moves, so a tile is only redrawn
+ * when the set of foods overlapping it changes; tiles are indexed once per new food list, not
+ * once per frame, and the least recently drawn tiles are dropped past a fixed budget.
+ */
+class FoodLayer {
+    private static final int TILE_SIZE = 256;
+    private static final int MAX_CACHED_TILES = 64;
+
+    private record Tile(BufferedImage image, long signature) { }
+
+    private final Map<Long, Tile> tiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Tile> eldest) {
+            return size() > MAX_CACHED_TILES;
+        }
+    };
+    private Map<Long, List<Food>> foodsByTile = new HashMap<>();
+    private Map<Long, Long> signatures = new HashMap<>();
+    private List<Food> indexedFoods;
+
+    void draw(final Graphics2D g, final List<Food> foods, final double offsetX, final double offsetY,
+              final int width, final int height) {
+        if (foods != indexedFoods) {
+            index(foods);
+        }
+        final int firstColumn = Math.floorDiv((int) Math.floor(offsetX), TILE_SIZE);
+        final int lastColumn = Math.floorDiv((int) Math.floor(offsetX + width), TILE_SIZE);
+        final int firstRow = Math.floorDiv((int) Math.floor(offsetY), TILE_SIZE);
+        final int lastRow = Math.floorDiv((int) Math.floor(offsetY + height), TILE_SIZE);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                final long key = key(column, row);
+                final List<Food> content = foodsByTile.get(key);
+                if (content == null) {
+                    continue;
+                }
+                final long signature = signatures.get(key);
+                Tile tile = tiles.get(key);
+                if (tile == null || tile.signature() != signature) {
+                    tile = new Tile(render(g, tile, column, row, content), signature);
+                    tiles.put(key, tile);
+                }
+                g.drawImage(tile.image(), (int) Math.floor(column * TILE_SIZE - offsetX),
+                        (int) Math.floor(row * TILE_SIZE - offsetY), null);
+            }
+        }
+    }
+
+    private void index(final List<Food> foods) {
+        final Map<Long, List<Food>> byTile = new HashMap<>(foodsByTile.size() * 2);
+        final Map<Long, Long> tileSignatures = new HashMap<>(signatures.size() * 2);
+        for (Food food : foods) {
+            final double radius = food.getRadius();
+            final long foodSignature = signature(food);
+            // A food on a tile border is drawn into every tile it overlaps
+            for (int row = tile(food.getY() - radius); row <= tile(food.getY() + radius); row++) {
+                for (int column = tile(food.getX() - radius); column <= tile(food.getX() + radius); column++) {
+                    final long key = key(column, row);
+                    byTile.computeIfAbsent(key, k -> new ArrayList<>()).add(food);
+                    tileSignatures.merge(key, foodSignature, Long::sum);
+                }
+            }
+        }
+        foodsByTile = byTile;
+        signatures = tileSignatures;
+        indexedFoods = foods;
+    }
+
+    // Reuses the stale tile's image when there is one
+    private BufferedImage render(final Graphics2D target, final Tile stale, final int column, final int row,
+                                 final List<Food> content) {
+        final BufferedImage image = stale != null
+                ? stale.image()
+                : target.getDeviceConfiguration().createCompatibleImage(TILE_SIZE, TILE_SIZE, Transparency.BITMASK);
+        final Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setColor(AgarViewUtils.FOOD_COLOR);
+            for (Food food : content) {
+                AgarViewUtils.fillFood(g, food, column * TILE_SIZE, row * TILE_SIZE);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    // Order-independent, so the sum over a tile's foods identifies its content
+    private static long signature(final Food food) {
+        long hash = food.getId().hashCode();
+        hash = hash * 31 + Double.doubleToLongBits(food.getX());
+        hash = hash * 31 + Double.doubleToLongBits(food.getY());
+        hash = hash * 31 + Double.doubleToLongBits(food.getMass());
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static int tile(final double coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), TILE_SIZE);
+    }
+
+    private static long key(final int column, final int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+}
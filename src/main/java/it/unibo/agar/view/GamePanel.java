@@ -8,21 +8,47 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.Optional;
 
+/**
+ * Draws the world centered on the focused player, or the whole world for the global view.
+ * Frames are produced by a render timer, which caps the frame rate; game updates do not
+ * trigger repaints of their own. Only what falls inside the panel is drawn.
+ */
 public class GamePanel extends JPanel {
+    private static final int FRAME_INTERVAL_MILLIS = 16; // Frame-rate cap, independent of network updates
 
     private final GameStateManager gameStateManager;
     private final String focusedPlayerId; // Null for global view
+    private final Timer renderTimer = new Timer(FRAME_INTERVAL_MILLIS, e -> nextFrame());
+    private final FoodLayer foodLayer = new FoodLayer();
 
     public GamePanel(GameStateManager gameStateManager, String focusedPlayerId) {
         this.gameStateManager = gameStateManager;
         this.focusedPlayerId = focusedPlayerId;
         this.setFocusable(true); // Important for receiving keyboard/mouse events if needed directly
+        this.renderTimer.setCoalesce(true);
     }
 
     public GamePanel(GameStateManager gameStateManager) {
         this(gameStateManager, null); // Constructor for GlobalView
     }
 
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        renderTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        renderTimer.stop();
+        super.removeNotify();
+    }
+
+    private void nextFrame() {
+        gameStateManager.advanceFrame();
+        repaint();
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -35,10 +61,15 @@ public class GamePanel extends JPanel {
                 Player player = playerOpt.get();
                 final double offsetX = player.getX() - getWidth() / 2.0;
                 final double offsetY = player.getY() - getHeight() / 2.0;
-                AgarViewUtils.drawWorld(g2d, world, offsetX, offsetY);
+                drawWorld(g2d, world, offsetX, offsetY);
             }
         } else {
-            AgarViewUtils.drawWorld(g2d, world, 0, 0);
+            drawWorld(g2d, world, 0, 0);
         }
     }
+
+    private void drawWorld(Graphics2D g, World world, double offsetX, double offsetY) {
+        foodLayer.draw(g, world.getFoods(), offsetX, offsetY, getWidth(), getHeight());
+        AgarViewUtils.drawPlayers(g, world.getPlayers(), offsetX, offsetY);
+    }
 }
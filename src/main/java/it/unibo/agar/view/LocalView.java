@@ -5,6 +5,8 @@ import it.unibo.agar.model.Player;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.util.Optional;
@@ -36,6 +38,7 @@ public class LocalView extends JFrame {
         add(this.gamePanel, BorderLayout.CENTER);
 
         setupMouseControls();
+        setupViewportReporting();
 
         pack();
         setLocationRelativeTo(null);
@@ -67,12 +70,19 @@ public class LocalView extends JFrame {
         });
     }
 
+    private void setupViewportReporting() {
+        gamePanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                gameStateManager.setViewport(playerId, gamePanel.getWidth(), gamePanel.getHeight());
+            }
+        });
+    }
+
+    // The panel repaints itself at its own frame rate; updates only refresh the status line
     public void repaintView() {
         if (gamePanel != null) {
-            SwingUtilities.invokeLater(() -> {
-                gamePanel.repaint();
-                updateStatus();
-            });
+            SwingUtilities.invokeLater(this::updateStatus);
         }
     }
 
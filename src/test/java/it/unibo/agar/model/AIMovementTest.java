@@ -0,0 +1,98 @@
+package it.unibo.agar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AIMovementTest {
+    private static final double CELL_SIZE = 50.0;
+
+    @Test
+    void fleesHuntsSeeksAndExplores() {
+        final Player self = new Player("self", 500, 500, 200);
+        final Player big = new Player("big", 550, 500, 400);
+        final Player small = new Player("small", 400, 500, 100);
+        final Food food = new Food("f", 520, 520, 10);
+
+        assertEquals(AIMovement.DecisionType.FLEE, decide(self, List.of(small, big), List.of(food)).type());
+        final AIMovement.Decision hunt = decide(self, List.of(small), List.of(food));
+        assertEquals(AIMovement.DecisionType.HUNT, hunt.type());
+        assertSame(small, hunt.targetPlayer());
+        final AIMovement.Decision seek = decide(self, List.of(), List.of(food, new Food("far", 900, 900, 10)));
+        assertEquals(AIMovement.DecisionType.SEEK_FOOD, seek.type());
+        assertSame(food, seek.targetFood());
+        assertEquals(AIMovement.DecisionType.EXPLORE, decide(self, List.of(), List.of(new Food("far", 900, 900, 10))).type());
+    }
+
+    @Test
+    void gridDecisionsMatchTheFullScan() {
+        final Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            final List<Player> players = new ArrayList<>();
+            final List<Food> foods = new ArrayList<>();
+            // At most one other player, so both scans have the same single candidate
+            if (random.nextBoolean()) {
+                players.add(new Player("other", random.nextDouble() * 1000, random.nextDouble() * 1000,
+                        50 + random.nextInt(500)));
+            }
+            for (int i = 0; i < random.nextInt(30); i++) {
+                foods.add(new Food("f" + i, random.nextDouble() * 1000, random.nextDouble() * 1000, 10));
+            }
+            final Player self = new Player("self", random.nextDouble() * 1000, random.nextDouble() * 1000, 200);
+            final List<Player> everyone = new ArrayList<>(players);
+            everyone.add(self);
+
+            final AIMovement.Decision expected = AIMovement.decide(self, everyone, foods);
+            final AIMovement.Decision actual = AIMovement.decide(self, new SpatialGrid<>(CELL_SIZE, everyone),
+                    new SpatialGrid<>(CELL_SIZE, foods), new AIMovement.FoodMemory());
+            assertEquals(expected, actual, "Round " + round);
+        }
+    }
+
+    @Test
+    void rememberedFoodIsChosenAgainUntilTheFoodAroundChanges() {
+        final Player self = new Player("self", 500, 500, 200);
+        final Food near = new Food("near", 520, 500, 10);
+        final Food further = new Food("further", 560, 500, 10);
+        final SpatialGrid<Player> players = new SpatialGrid<>(CELL_SIZE, List.of(self));
+        final SpatialGrid<Food> foods = new SpatialGrid<>(CELL_SIZE, List.of(near, further));
+        final AIMovement.FoodMemory memory = new AIMovement.FoodMemory();
+
+        assertSame(near, AIMovement.decide(self, players, foods, memory).targetFood());
+        assertSame(near, AIMovement.decide(self, players, foods, memory).targetFood());
+        foods.remove(near.getId());
+        assertSame(further, AIMovement.decide(self, players, foods, memory).targetFood());
+        foods.remove(further.getId());
+        assertEquals(AIMovement.Decision.EXPLORE, AIMovement.decide(self, players, foods, memory));
+    }
+
+    @Test
+    void steeringKeepsAwayFromTheEdges() {
+        final Random random = new Random(1);
+        final Player cornered = new Player("self", 2, 2, 200);
+        final Food outside = new Food("f", 0, 0, 10);
+        final Position direction = AIMovement.steer(cornered,
+                new AIMovement.Decision(AIMovement.DecisionType.SEEK_FOOD, null, outside), 0, 0, 1000, 1000, random);
+        assertTrue(direction.x() > 0 && direction.y() > 0, "Steered to " + direction);
+
+        final Player inside = new Player("self", 500, 500, 200);
+        final Position seek = AIMovement.steer(inside,
+                new AIMovement.Decision(AIMovement.DecisionType.SEEK_FOOD, null, new Food("g", 600, 500, 10)),
+                0, 0, 1000, 1000, random);
+        assertEquals(Position.of(1, 0), seek);
+        assertEquals(Position.ZERO, AIMovement.steer(inside, new AIMovement.Decision(AIMovement.DecisionType.STOP,
+                null, null), 0, 0, 1000, 1000, random));
+    }
+
+    private static AIMovement.Decision decide(final Player self, final List<Player> others, final List<Food> foods) {
+        final List<Player> players = new ArrayList<>(others);
+        players.add(self);
+        return AIMovement.decide(self, players, foods);
+    }
+}
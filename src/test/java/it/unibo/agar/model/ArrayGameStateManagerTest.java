@@ -0,0 +1,40 @@
+package it.unibo.agar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrayGameStateManagerTest {
+
+    @Test
+    void playsTheSameGameAsTheDefaultManager() {
+        World world = new World(1000, 1000, List.of(
+                new Player("p1", 100, 100, 120), new Player("p2", 150, 100, 400), new Player("p3", 800, 800, 120)),
+                GameInitializer.initialFoods(100, 1000, 1000));
+        GameStateManager expected = new DefaultGameStateManager(world);
+        GameStateManager actual = new ArrayGameStateManager(world);
+
+        for (int tick = 0; tick < 200; tick++) {
+            for (GameStateManager manager : List.of(expected, actual)) {
+                manager.setPlayerDirection("p2", -1, 0);
+                manager.setPlayerDirection("p3", tick % 50 < 25 ? -1 : 1, 0.5);
+                manager.tick();
+            }
+        }
+
+        World expectedWorld = expected.getWorld();
+        World actualWorld = actual.getWorld();
+        assertTrue(actualWorld.getPlayerById("p1").isEmpty());
+        assertEquals(expectedWorld.getPlayers().size(), actualWorld.getPlayers().size());
+        assertEquals(expectedWorld.getFoods().size(), actualWorld.getFoods().size());
+        for (Player player : expectedWorld.getPlayers()) {
+            Player other = actualWorld.getPlayerById(player.getId()).orElseThrow();
+            assertEquals(player.getX(), other.getX(), 1e-6);
+            assertEquals(player.getY(), other.getY(), 1e-6);
+            assertEquals(player.getMass(), other.getMass(), 1e-6);
+        }
+    }
+}
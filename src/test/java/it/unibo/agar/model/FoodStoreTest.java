@@ -0,0 +1,100 @@
+package it.unibo.agar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FoodStoreTest {
+
+    private static FoodStore filled(final int count, final long seed) {
+        FoodStore store = new FoodStore(1000, 1000, FoodStore.Density.fixed(count), new Random(seed));
+        for (int i = 0; i < count; i++) {
+            store.spawn();
+        }
+        return store;
+    }
+
+    @Test
+    void eatenFoodRespawnsUnderTheSameId() {
+        FoodStore store = filled(10, 1);
+        Food eaten = store.foods().get(3);
+        Food respawned = store.consume(eaten);
+
+        assertNotNull(respawned);
+        assertEquals(eaten.getId(), respawned.getId());
+        assertNotSame(eaten, respawned);
+        assertFalse(store.contains(eaten));
+        assertSame(respawned, store.get(eaten.getId()));
+        assertNull(store.consume(eaten)); // Already eaten
+        assertEquals(10, store.size());
+    }
+
+    @Test
+    void foodBeyondTheTargetFreesItsSlotForReuse() {
+        FoodStore store = filled(10, 2);
+        store.setDensity(FoodStore.Density.fixed(5));
+        Food eaten = store.foods().get(0);
+
+        assertNull(store.consume(eaten));
+        assertEquals(9, store.size());
+        assertNull(store.get(eaten.getId()));
+
+        assertEquals(eaten.getId(), store.spawn().getId());
+        assertEquals(10, store.size());
+    }
+
+    @Test
+    void countStaysConstantAndIdsStayUniqueUnderRandomEating() {
+        FoodStore store = filled(100, 3);
+        Random random = new Random(4);
+        for (int i = 0; i < 10_000; i++) {
+            List<Food> foods = store.foods();
+            store.consume(foods.get(random.nextInt(foods.size())));
+            assertEquals(100, store.size());
+        }
+        Set<String> ids = new HashSet<>();
+        store.foods().forEach(food -> assertTrue(ids.add(food.getId()), "Duplicate id " + food.getId()));
+        assertEquals(store.foods().size(), store.foodsById().size());
+    }
+
+    @Test
+    void restoredStoreEvolvesLikeTheOriginal() {
+        FoodStore original = filled(20, 5);
+        original.setDensity(FoodStore.Density.fixed(15));
+        original.consume(original.foods().get(2));
+        original.consume(original.foods().get(7));
+        FoodStore.State state = original.state();
+
+        FoodStore left = new FoodStore(1000, 1000, FoodStore.Density.fixed(0), new Random(7));
+        FoodStore right = new FoodStore(1000, 1000, FoodStore.Density.fixed(0), new Random(7));
+        left.restore(state);
+        right.restore(state);
+        assertEquals(describe(original.foods()), describe(left.foods()));
+        for (int i = 0; i < 50; i++) {
+            left.consume(left.foods().get(i % left.size()));
+            right.consume(right.foods().get(i % right.size()));
+            if (i % 10 == 0) {
+                left.spawn();
+                right.spawn();
+            }
+        }
+
+        assertEquals(describe(left.foods()), describe(right.foods()));
+        assertEquals(left.state().freeSlots(), right.state().freeSlots());
+    }
+
+    private static List<String> describe(final List<Food> foods) {
+        return foods.stream().map(food -> food.getId() + "@" + food.getX() + "," + food.getY()).toList();
+    }
+}
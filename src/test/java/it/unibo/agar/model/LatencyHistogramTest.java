@@ -0,0 +1,58 @@
+package it.unibo.agar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesAreAtMostAnEighthAboveTheRecordedValues() {
+        final Random random = new Random(42);
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20); // From 1ns to about half a second
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (final double percentile : new double[] {1, 50, 90, 99, 99.9, 100}) {
+            final long exact = values[(int) Math.ceil(values.length * percentile / 100.0) - 1];
+            final long reported = histogram.percentile(percentile);
+            assertTrue(reported >= exact && reported <= exact * 1.125, "p" + percentile + ": " + reported + " for " + exact);
+        }
+        assertEquals(values[values.length - 1], histogram.max());
+        assertEquals(Arrays.stream(values).average().orElseThrow(), histogram.mean(), 1e-6);
+    }
+
+    @Test
+    void smallAndExtremeValuesAreKeptExactly() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(-5); // Clock went backwards, counted as zero
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(3, histogram.percentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+        assertEquals(3, histogram.count());
+    }
+
+    @Test
+    void resetEmptiesTheHistogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        histogram.record(2_000_000);
+        assertEquals(String.format("n=1 mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms", 2.0, 2.0, 2.0, 2.0, 2.0),
+                histogram.summary()); // Formatted in the default locale
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.mean());
+        assertEquals(0, histogram.percentile(50));
+    }
+}
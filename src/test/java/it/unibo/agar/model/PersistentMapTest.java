@@ -0,0 +1,117 @@
+package it.unibo.agar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentMapTest {
+
+    // Equal hash codes for every key with the same bucket, to force collision nodes
+    private record Key(int bucket, String name) {
+        @Override
+        public int hashCode() {
+            return bucket;
+        }
+    }
+
+    @Test
+    void putReplacesAndKeepsOlderVersionsIntact() {
+        PersistentMap<String, String> empty = PersistentMap.empty();
+        PersistentMap<String, String> one = empty.put("a", "1");
+        PersistentMap<String, String> replaced = one.put("a", "2");
+
+        assertTrue(empty.isEmpty());
+        assertEquals("1", one.get("a"));
+        assertEquals("2", replaced.get("a"));
+        assertEquals(1, replaced.size());
+        assertSame(replaced, replaced.put("a", "2"));
+    }
+
+    @Test
+    void removeDropsOnlyThatKey() {
+        PersistentMap<String, String> map = PersistentMap.<String, String>empty().put("a", "1").put("b", "2");
+        PersistentMap<String, String> removed = map.remove("a");
+
+        assertNull(removed.get("a"));
+        assertEquals("2", removed.get("b"));
+        assertEquals(1, removed.size());
+        assertEquals("1", map.get("a"));
+        assertSame(removed, removed.remove("missing"));
+        assertTrue(removed.remove("b").isEmpty());
+    }
+
+    @Test
+    void collidingKeysAreKeptApart() {
+        Key a = new Key(7, "a");
+        Key b = new Key(7, "b");
+        Key c = new Key(7, "c");
+        PersistentMap<Key, String> map = PersistentMap.<Key, String>empty().put(a, "a").put(b, "b").put(c, "c");
+
+        assertEquals(3, map.size());
+        assertEquals("b", map.get(b));
+        assertEquals("b2", map.put(b, "b2").get(b));
+        PersistentMap<Key, String> removed = map.remove(b);
+        assertEquals(2, removed.size());
+        assertNull(removed.get(b));
+        assertEquals("a", removed.get(a));
+        assertEquals("c", removed.get(c));
+        assertTrue(removed.remove(a).remove(c).isEmpty());
+        assertFalse(map.containsKey(new Key(7, "d")));
+    }
+
+    @Test
+    void valuesHoldEveryEntryOnce() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add("p" + i);
+        }
+        PersistentMap<String, String> map = PersistentMap.of(ids, id -> id);
+
+        assertEquals(1000, map.values().size());
+        assertEquals(new HashSet<>(ids), new HashSet<>(map.values()));
+        assertSame(map.values(), map.values());
+    }
+
+    @Test
+    void randomEditsMatchHashMap() {
+        Random random = new Random(3);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> actual = PersistentMap.empty();
+        for (int step = 0; step < 20_000; step++) {
+            // Few buckets and names, so collisions, replacements and misses are all common
+            Key key = new Key(random.nextInt(64) * (random.nextBoolean() ? 1 : 1 << 20), "k" + random.nextInt(8));
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    List<Key> batch = List.of(key, new Key(key.bucket(), "k" + random.nextInt(8)));
+                    batch.forEach(k -> expected.remove(k));
+                    actual = actual.removeAll(batch);
+                }
+                case 1 -> {
+                    expected.remove(key);
+                    actual = actual.remove(key);
+                }
+                default -> {
+                    expected.put(key, step);
+                    actual = actual.put(key, step);
+                }
+            }
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.get(key), actual.get(key));
+        }
+        for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), actual.get(entry.getKey()));
+        }
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(actual.values()));
+    }
+}
@@ -0,0 +1,115 @@
+package it.unibo.agar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpatialGridTest {
+    private static final double CELL_SIZE = 50.0;
+
+    @Test
+    void eatingMatchesTheAllPairsScan() {
+        final Random random = new Random(42);
+        final Map<String, Player> players = new LinkedHashMap<>();
+        final Map<String, Food> foods = new LinkedHashMap<>();
+        final SpatialGrid<Player> playerGrid = new SpatialGrid<>(CELL_SIZE);
+        final SpatialGrid<Food> foodGrid = new SpatialGrid<>(CELL_SIZE);
+        for (int i = 0; i < 300; i++) {
+            final Food food = new Food("f" + i, random.nextDouble() * 1000, random.nextDouble() * 1000, 5 + random.nextInt(50));
+            foods.put(food.getId(), food);
+            foodGrid.put(food);
+        }
+        for (int round = 0; round < 200; round++) {
+            // Mixes joins, moves, growth (including giants) and leaves, in random order
+            final String id = "p" + random.nextInt(60);
+            final int action = random.nextInt(10);
+            if (action < 2) {
+                players.remove(id);
+                playerGrid.remove(id);
+            } else {
+                final double mass = action == 9 ? 2000 + random.nextInt(20000) : 50 + random.nextInt(500);
+                final Player player = new Player(id, random.nextDouble() * 1000, random.nextDouble() * 1000, mass);
+                players.put(id, player);
+                playerGrid.put(player);
+            }
+            for (Player player : players.values()) {
+                assertEquals(bruteForceFoods(player, foods.values()), EatingManager.edibleFoods(player, foodGrid));
+                assertEquals(bruteForcePlayers(player, players.values()), EatingManager.ediblePlayers(player, playerGrid));
+            }
+        }
+    }
+
+    @Test
+    void collisionRangeShrinksOnceTheLargestEntityLeaves() {
+        final SpatialGrid<Player> grid = new SpatialGrid<>(CELL_SIZE);
+        final Player small = new Player("small", 0, 0, 100);
+        final Player giant = new Player("giant", 500, 500, 40000);
+        grid.put(small);
+        grid.put(giant);
+        assertEquals(giant.getRadius(), grid.maxRadius());
+
+        grid.remove("giant");
+        assertEquals(small.getRadius(), grid.maxRadius());
+
+        grid.put(giant);
+        grid.put(new Player("giant", 500, 500, 200)); // Shrunk in place
+        assertEquals(new Player("giant", 500, 500, 200).getRadius(), grid.maxRadius());
+
+        grid.clear();
+        assertEquals(0, grid.maxRadius());
+    }
+
+    @Test
+    void nearestMatchesTheClosestEntity() {
+        final Random random = new Random(7);
+        final SpatialGrid<Food> grid = new SpatialGrid<>(CELL_SIZE);
+        final List<Food> all = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final Food food = new Food("f" + i, random.nextDouble() * 2000, random.nextDouble() * 2000, 10);
+            all.add(food);
+            grid.put(food);
+        }
+        for (int i = 0; i < 200; i++) {
+            final double x = random.nextDouble() * 2000;
+            final double y = random.nextDouble() * 2000;
+            Food expected = null;
+            double best = 150;
+            for (Food food : all) {
+                final double distance = Math.hypot(food.getX() - x, food.getY() - y);
+                if (distance < best) {
+                    best = distance;
+                    expected = food;
+                }
+            }
+            assertEquals(expected, grid.nearest(x, y, 150));
+        }
+        assertNull(new SpatialGrid<Food>(CELL_SIZE).nearest(0, 0, 1000));
+    }
+
+    private static List<Food> bruteForceFoods(final Player player, final Iterable<Food> foods) {
+        final List<Food> edible = new ArrayList<>();
+        for (Food food : foods) {
+            if (EatingManager.canEatFood(player, food)) {
+                edible.add(food);
+            }
+        }
+        return edible;
+    }
+
+    private static List<Player> bruteForcePlayers(final Player player, final Iterable<Player> players) {
+        final List<Player> edible = new ArrayList<>();
+        for (Player other : players) {
+            if (!other.getId().equals(player.getId()) && EatingManager.canEatPlayer(player, other)) {
+                edible.add(other);
+            }
+        }
+        return edible;
+    }
+}
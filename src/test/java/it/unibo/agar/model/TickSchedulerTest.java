@@ -0,0 +1,195 @@
+package it.unibo.agar.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickSchedulerTest {
+    private static final double TICKS_PER_SECOND = 100;
+    private static final double PERIOD = 1 / TICKS_PER_SECOND;
+    private static final int MAX_CATCH_UP_TICKS = 3;
+    private static final long WAIT_SECONDS = 5;
+
+    private record Tick(double elapsedSeconds, boolean broadcast) { }
+
+    private final List<Tick> ticks = new CopyOnWriteArrayList<>();
+    private TickScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void ticksCoverOnePeriodEach() throws InterruptedException {
+        start(TickScheduler.OverrunPolicy.CATCH_UP, (elapsed, broadcast) -> { });
+        TickScheduler.Stats stats = awaitStats(20);
+        scheduler.stop();
+        assertTrue(ticks.size() >= 20);
+        ticks.forEach(tick -> assertEquals(PERIOD, tick.elapsedSeconds(), 1e-9));
+        ticks.forEach(tick -> assertTrue(tick.broadcast()));
+        assertEquals(0, stats.failures());
+    }
+
+    @Test
+    void catchUpReplaysALimitedNumberOfMissedTicks() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(10);
+        start(TickScheduler.OverrunPolicy.CATCH_UP, (elapsed, broadcast) -> {
+            if (ticks.size() == 1) {
+                sleep(20 * PERIOD); // Far more missed deadlines than the catch-up limit
+            }
+            done.countDown();
+        });
+        assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        scheduler.stop();
+        ticks.forEach(tick -> assertEquals(PERIOD, tick.elapsedSeconds(), 1e-9));
+        assertTrue(scheduler.stats().missedDeadlines() >= 20 - 1 - MAX_CATCH_UP_TICKS,
+                "Missed " + scheduler.stats().missedDeadlines());
+    }
+
+    @Test
+    void skipCoversTheElapsedTimeInOneTick() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(3);
+        start(TickScheduler.OverrunPolicy.SKIP, (elapsed, broadcast) -> {
+            if (ticks.size() == 1) {
+                sleep(10 * PERIOD);
+            }
+            done.countDown();
+        });
+        assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        scheduler.stop();
+        assertTrue(ticks.get(1).elapsedSeconds() >= 9 * PERIOD, "Second tick covered " + ticks.get(1).elapsedSeconds());
+    }
+
+    @Test
+    void degradedBroadcastsThinOutWhileOverrunning() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(8);
+        start(TickScheduler.OverrunPolicy.DEGRADE_BROADCAST, (elapsed, broadcast) -> {
+            if (ticks.size() <= 4) {
+                sleep(3 * PERIOD);
+            }
+            done.countDown();
+        });
+        assertTrue(done.await(WAIT_SECONDS, TimeUnit.SECONDS));
+        scheduler.stop();
+        assertTrue(ticks.stream().anyMatch(tick -> !tick.broadcast()), "Every tick was broadcast");
+    }
+
+    @Test
+    void failingTicksAreCountedAndTheLoopGoesOn() throws InterruptedException {
+        start(TickScheduler.OverrunPolicy.CATCH_UP, (elapsed, broadcast) -> {
+            throw new IllegalStateException("Tick " + ticks.size() + " failed on purpose");
+        });
+        TickScheduler.Stats stats = awaitStats(5);
+        scheduler.stop();
+        assertEquals(stats.ticks(), stats.failures());
+    }
+
+    @Test
+    void aLoopOnASharedSchedulerStopsFromItsTickAndStartsAgain() throws InterruptedException {
+        ScheduledExecutorService pool = Executors.newSingleThreadScheduledExecutor();
+        try {
+            CountDownLatch stopped = new CountDownLatch(1);
+            scheduler = new TickScheduler("test-loop", TICKS_PER_SECOND, TickScheduler.OverrunPolicy.CATCH_UP,
+                    MAX_CATCH_UP_TICKS, (elapsed, broadcast) -> {
+                        ticks.add(new Tick(elapsed, broadcast));
+                        if (ticks.size() == 3) {
+                            scheduler.stop();
+                            stopped.countDown();
+                        }
+                    }, pool);
+            scheduler.start(0);
+            assertTrue(stopped.await(WAIT_SECONDS, TimeUnit.SECONDS));
+            Thread.sleep(Math.round(10 * PERIOD * 1000));
+            assertFalse(scheduler.isRunning());
+            assertEquals(3, ticks.size());
+
+            scheduler.start(0);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+            while (ticks.size() < 6 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(ticks.size() >= 6);
+        } finally {
+            scheduler.stop();
+            pool.shutdownNow();
+        }
+    }
+
+    private void start(TickScheduler.OverrunPolicy policy, TickScheduler.Task task) {
+        scheduler = new TickScheduler("test-loop", TICKS_PER_SECOND, policy, MAX_CATCH_UP_TICKS, (elapsed, broadcast) -> {
+            ticks.add(new Tick(elapsed, broadcast));
+            task.tick(elapsed, broadcast);
+        });
+        scheduler.start(0);
+    }
+
+    // Stats are counted once a tick returns, so they are awaited rather than read right after a tick
+    @Test
+    void aDrivenManagerTicksThroughTheDispatcher() throws Exception {
+        ScheduledExecutorService eventThread = Executors.newSingleThreadScheduledExecutor();
+        List<String> calls = new CopyOnWriteArrayList<>();
+        GameStateManager manager = new GameStateManager() {
+            @Override
+            public World getWorld() {
+                return null;
+            }
+
+            @Override
+            public void setPlayerDirection(String playerId, double dx, double dy) { }
+
+            @Override
+            public void tick() { }
+
+            @Override
+            public void tick(double elapsedSeconds) {
+                ticks.add(new Tick(elapsedSeconds, true));
+                calls.add("tick on " + Thread.currentThread().getName());
+            }
+        };
+        try {
+            String eventThreadName = eventThread.submit(() -> Thread.currentThread().getName()).get();
+            scheduler = TickScheduler.driving(manager, TICKS_PER_SECOND,
+                    tick -> eventThread.submit(tick).get(), () -> calls.add("before"), () -> calls.add("after"));
+            scheduler.start(0);
+            awaitStats(5);
+            scheduler.stop();
+            assertEquals(List.of("before", "tick on " + eventThreadName, "after"), calls.subList(0, 3));
+            ticks.forEach(tick -> assertEquals(PERIOD, tick.elapsedSeconds(), 1e-9));
+            assertEquals(0, scheduler.stats().failures());
+        } finally {
+            eventThread.shutdownNow();
+        }
+    }
+
+    private TickScheduler.Stats awaitStats(long minTicks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        TickScheduler.Stats stats = scheduler.stats();
+        while (stats.ticks() < minTicks && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stats = scheduler.stats();
+        }
+        assertTrue(stats.ticks() >= minTicks, "Only " + stats.ticks() + " ticks");
+        return stats;
+    }
+
+    private static void sleep(double seconds) {
+        try {
+            Thread.sleep(Math.round(seconds * 1000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
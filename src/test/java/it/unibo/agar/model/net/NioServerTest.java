@@ -0,0 +1,144 @@
+package it.unibo.agar.model.net;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.rmi.NotBoundException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NioServerTest {
+    public interface Echo extends Remote {
+        String echo(String message) throws RemoteException;
+
+        byte[] reverse(byte[] bytes) throws RemoteException;
+
+        void fail(String message) throws RemoteException;
+
+        void subscribe(Listener listener) throws RemoteException;
+    }
+
+    public interface Listener extends Remote {
+        void notify(String event) throws RemoteException;
+    }
+
+    private static final class EchoImpl implements Echo {
+        @Override
+        public String echo(String message) {
+            return message;
+        }
+
+        @Override
+        public byte[] reverse(byte[] bytes) {
+            byte[] reversed = new byte[bytes.length];
+            for (int i = 0; i < bytes.length; i++) {
+                reversed[i] = bytes[bytes.length - 1 - i];
+            }
+            return reversed;
+        }
+
+        @Override
+        public void fail(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        @Override
+        public void subscribe(Listener listener) throws RemoteException {
+            listener.notify("subscribed");
+        }
+    }
+
+    private NioServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new NioServer(0);
+        server.bind("echo", new EchoImpl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void callsReachTheBoundObject() throws Exception {
+        Echo echo = lookup("echo");
+        assertEquals("hello", echo.echo("hello"));
+        assertEquals(null, echo.echo(null));
+        assertSame(echo, lookup("echo")); // One proxy per object and connection
+        assertEquals(1, server.getConnectionCount());
+    }
+
+    @Test
+    void failuresReachTheCaller() throws Exception {
+        Echo echo = lookup("echo");
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> echo.fail("boom"));
+        assertEquals("boom", failure.getMessage());
+        assertThrows(NotBoundException.class, () -> lookup("missing"));
+    }
+
+    @Test
+    void remoteArgumentsAreCalledBack() throws Exception {
+        List<String> events = new ArrayList<>();
+        lookup("echo").subscribe(event -> events.add(event));
+        assertEquals(List.of("subscribed"), events);
+    }
+
+    @Test
+    void framesLargerThanTheReadBufferGoThrough() throws Exception {
+        Echo echo = lookup("echo");
+        byte[] bytes = new byte[1 << 20];
+        Arrays.fill(bytes, 0, bytes.length / 2, (byte) 1);
+        byte[] reversed = echo.reverse(bytes);
+        assertEquals(0, reversed[0]);
+        assertEquals(1, reversed[reversed.length - 1]);
+        assertArrayEquals(bytes, echo.reverse(reversed));
+        assertEquals("after", echo.echo("after")); // The shrunk buffer still reads small frames
+        assertTrue(server.getBytesRead() > 2 * bytes.length);
+    }
+
+    @Test
+    void byteArrayLengthsMustFitInTheFrame() throws IOException {
+        assertArrayEquals(new byte[] {1, 2}, RpcEndpoint.readBytes(frame(2, 1, 2)));
+        assertThrows(IOException.class, () -> RpcEndpoint.readBytes(frame(-1, 1, 2)));
+        assertThrows(IOException.class, () -> RpcEndpoint.readBytes(frame(3, 1, 2)));
+        assertThrows(IOException.class, () -> RpcEndpoint.readBytes(frame(Integer.MAX_VALUE))); // Never allocated
+    }
+
+    @Test
+    void callsFailOnceTheServerIsClosed() throws Exception {
+        Echo echo = lookup("echo");
+        server.close();
+        assertThrows(RemoteException.class, () -> echo.echo("late"));
+    }
+
+    private static DataInputStream frame(int length, int... bytes) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(frame);
+        out.writeInt(length);
+        for (int b : bytes) {
+            out.writeByte(b);
+        }
+        return new DataInputStream(new ByteArrayInputStream(frame.toByteArray()));
+    }
+
+    private Echo lookup(String name) throws Exception {
+        return (Echo) Transport.lookup("tcp://localhost:" + server.getPort() + "/" + name);
+    }
+}
@@ -0,0 +1,87 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotTest {
+    private static final double TICK_SECONDS = TestServers.TICK_SECONDS;
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    @Test
+    void botsJoinAndLeaveNewestFirst() throws RemoteException {
+        GameServerImpl server = newServer(4000, 1);
+        assertEquals(5, server.addBots(5));
+        assertEquals(5, server.getAllPlayers().size());
+        assertEquals(2, server.removeBots(3));
+        assertEquals(List.of("bot_0", "bot_1"), ids(server));
+        assertEquals(0, server.removeBots(10));
+        assertEquals(List.of(), server.getAllPlayers());
+    }
+
+    @Test
+    void botsMoveAndEat() throws RemoteException {
+        GameServerImpl server = newServer(1000, 1);
+        server.addBots(10);
+        Map<String, Player> before = byId(server.getAllPlayers());
+        for (int tick = 0; tick < 300; tick++) {
+            server.tick(TICK_SECONDS, false);
+        }
+        List<Player> after = server.getAllPlayers();
+        assertTrue(after.stream().anyMatch(bot -> before.containsKey(bot.getId())
+                && (bot.getX() != before.get(bot.getId()).getX() || bot.getY() != before.get(bot.getId()).getY())));
+        assertTrue(after.stream().anyMatch(bot -> bot.getMass() > before.get(bot.getId()).getMass()), "No bot ate");
+        after.forEach(bot -> assertTrue(bot.getX() >= 0 && bot.getX() <= 1000 && bot.getY() >= 0 && bot.getY() <= 1000));
+        assertEquals(after.size(), server.getBotCount());
+    }
+
+    @Test
+    void botsPlayTheSameGameWhateverTheParallelism() throws RemoteException {
+        GameServerImpl sequential = newServer(4000, 1);
+        GameServerImpl parallel = newServer(4000, 4);
+        for (GameServerImpl server : List.of(sequential, parallel)) {
+            server.addBots(40);
+            server.placePlayer(new Player("human", 2000, 2000, 300));
+            for (int tick = 0; tick < 200; tick++) {
+                server.setPlayerDirection("human", tick % 40 < 20 ? 1 : -1, 0);
+                server.tick(TICK_SECONDS, false);
+            }
+        }
+        assertEquals(describe(sequential.getAllPlayers()), describe(parallel.getAllPlayers()));
+        assertNotEquals(describe(newServerWithBots(7)), describe(newServerWithBots(8))); // The seed matters
+    }
+
+    private List<Player> newServerWithBots(long seed) throws RemoteException {
+        GameServerImpl server = servers.create(TestServers.WORLD_SIZE, TestServers.FOODS, seed, 1);
+        server.addBots(5);
+        return server.getAllPlayers();
+    }
+
+    private GameServerImpl newServer(int worldSize, int parallelism) throws RemoteException {
+        return servers.create(worldSize, 200, TestServers.SEED, parallelism);
+    }
+
+    private static List<String> ids(GameServerImpl server) throws RemoteException {
+        return server.getAllPlayers().stream().map(Player::getId).sorted().toList();
+    }
+
+    private static Map<String, Player> byId(List<Player> players) {
+        return players.stream().collect(Collectors.toMap(Player::getId, player -> player));
+    }
+
+    private static Map<String, String> describe(List<Player> players) {
+        return players.stream().collect(Collectors.toMap(Player::getId,
+                player -> player.getX() + "," + player.getY() + "," + player.getMass()));
+    }
+}
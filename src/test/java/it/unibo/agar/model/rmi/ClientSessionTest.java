@@ -0,0 +1,157 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.TickScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientSessionTest {
+    private static final long WAIT_SECONDS = 5;
+
+    /**
+     * Client that decodes like a real one, and can be held up or made to fail.
+     */
+    private static final class FakeClient implements GameClient {
+        final List<StateDelta> deltas = new CopyOnWriteArrayList<>();
+        final SnapshotCodec.Decoder decoder = new SnapshotCodec.Decoder();
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile boolean failing;
+        volatile boolean refusing; // Answers as if the delta did not apply
+        volatile boolean dead;
+        volatile long version = -1;
+
+        @Override
+        public void updateGameState(List<Player> players, List<Food> foods) { }
+
+        @Override
+        public long applyDelta(StateDelta delta) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long applyEncodedDelta(byte[] frame) throws RemoteException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new RemoteException("Interrupted");
+            }
+            if (failing) {
+                throw new RemoteException("Connection refused");
+            }
+            StateDelta delta = decoder.decode(frame);
+            deltas.add(delta);
+            if (!refusing) {
+                version = delta.getVersion();
+            }
+            return version;
+        }
+
+        @Override
+        public void notifyPlayerDeath() {
+            dead = true;
+        }
+
+        @Override
+        public void redirect(String serverUrl) { }
+
+        @Override
+        public String getPlayerId() {
+            return "a";
+        }
+    }
+
+    private final FakeClient client = new FakeClient();
+    private ClientSession session;
+
+    @BeforeEach
+    void setUp() {
+        TickScheduler loop = new TickScheduler("test-loop", 30, TickScheduler.OverrunPolicy.CATCH_UP, 3, (e, b) -> { });
+        session = new ClientSession("a", client, new ServerMetrics(() -> 0, () -> 1, () -> 0, () -> 0, loop));
+        session.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void aKeyframeIsFollowedByDeltas() throws InterruptedException {
+        session.offer(1, players(new Player("a", 100, 100, 100)), Map.of());
+        await(() -> client.version == 1);
+        session.offer(2, players(new Player("a", 110, 100, 100)), Map.of());
+        await(() -> client.version == 2);
+
+        assertTrue(client.deltas.get(0).isKeyframe());
+        StateDelta delta = client.deltas.get(1);
+        assertFalse(delta.isKeyframe());
+        assertEquals(1, delta.getBaseVersion());
+        assertEquals(110, delta.getMovedPlayers().get(0).getX());
+    }
+
+    @Test
+    void aSlowClientOnlyGetsTheNewestFrame() throws InterruptedException {
+        client.gate = new CountDownLatch(1);
+        session.offer(1, players(new Player("a", 100, 100, 100)), Map.of());
+        await(() -> session.stats().queueDepth() == 0); // The sender took frame 1 and is stuck delivering it
+        for (int version = 2; version <= 10; version++) {
+            session.offer(version, players(new Player("a", 100 + version, 100, 100)), Map.of());
+        }
+        client.gate.countDown();
+        await(() -> client.version == 10);
+
+        assertEquals(2, client.deltas.size()); // Frames 2 to 9 were replaced before they were sent
+        assertEquals(8, session.stats().droppedFrames());
+        assertEquals(0, session.getConsecutiveDrops()); // Reset by the delivery
+    }
+
+    @Test
+    void aRefusedDeltaIsFollowedByAKeyframe() throws InterruptedException {
+        session.offer(1, players(new Player("a", 100, 100, 100)), Map.of());
+        await(() -> client.version == 1);
+        client.refusing = true;
+        session.offer(2, players(new Player("a", 110, 100, 100)), Map.of());
+        await(() -> client.deltas.size() == 2);
+        client.refusing = false;
+        session.offer(3, players(new Player("a", 120, 100, 100)), Map.of());
+        await(() -> client.version == 3);
+        assertTrue(client.deltas.get(2).isKeyframe());
+    }
+
+    @Test
+    void deathNoticesAreDeliveredAndFailuresMarkTheSession() throws InterruptedException {
+        session.offerDeathNotice();
+        await(() -> client.dead);
+        assertFalse(session.isFailed());
+
+        client.failing = true;
+        session.offer(1, players(new Player("a", 100, 100, 100)), Map.of());
+        await(session::isFailed);
+    }
+
+    private static Map<String, Player> players(Player player) {
+        return Map.of(player.getId(), player);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(2);
+        }
+    }
+}
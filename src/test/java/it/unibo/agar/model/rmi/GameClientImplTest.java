@@ -0,0 +1,87 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Entity;
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GameClientImplTest {
+    private static final Player A = new Player("a", 100, 100, 100);
+    private static final Player B = new Player("b", 200, 200, 100);
+    private static final Food F1 = new Food("f1", 10, 10, 10);
+    private static final Food F2 = new Food("f2", 20, 20, 10);
+
+    private GameClientImpl client;
+
+    @BeforeEach
+    void setUp() throws RemoteException {
+        client = new GameClientImpl("a");
+    }
+
+    @AfterEach
+    void tearDown() throws RemoteException {
+        UnicastRemoteObject.unexportObject(client, true);
+    }
+
+    @Test
+    void deltasApplyOnTopOfTheirBaseVersion() throws RemoteException {
+        assertEquals(5, client.applyDelta(StateDelta.keyframe(5, List.of(A, B), List.of(F1))));
+        Player moved = A.moveTo(120, 100);
+        assertEquals(6, client.applyDelta(new StateDelta(6, 5, false, List.of(), List.of(moved), List.of("b"),
+                List.of(F2), List.of("f1"))));
+
+        assertEquals(List.of("a@120.0,100.0"), describe(client.getCurrentPlayers()));
+        assertEquals(List.of("f2@20.0,20.0"), describe(client.getCurrentFoods()));
+        assertEquals(6, client.getSnapshot().version());
+    }
+
+    @Test
+    void aDeltaOnAnotherBaseIsRefusedUntilTheNextKeyframe() throws RemoteException {
+        client.applyDelta(StateDelta.keyframe(5, List.of(A), List.of(F1)));
+        StateDelta skipped = new StateDelta(8, 7, false, List.of(B), List.of(), List.of(), List.of(), List.of());
+        assertEquals(5, client.applyDelta(skipped)); // Missed 6 and 7: the server must resend a keyframe
+        assertEquals(List.of("a@100.0,100.0"), describe(client.getCurrentPlayers()));
+
+        assertEquals(9, client.applyDelta(StateDelta.keyframe(9, List.of(B), List.of())));
+        assertEquals(List.of("b@200.0,200.0"), describe(client.getCurrentPlayers()));
+        assertEquals(List.of(), client.getCurrentFoods());
+    }
+
+    @Test
+    void encodedDeltasApplyLikeDecodedOnes() throws RemoteException {
+        SnapshotCodec.Encoder encoder = new SnapshotCodec.Encoder();
+        assertEquals(1, client.applyEncodedDelta(encoder.encode(StateDelta.keyframe(1, List.of(A, B), List.of(F1)))));
+        StateDelta delta = new StateDelta(2, 1, false, List.of(), List.of(A.moveTo(150, 150)), List.of(), List.of(),
+                List.of());
+        assertEquals(2, client.applyEncodedDelta(encoder.encode(delta)));
+        assertEquals(List.of("a@150.0,150.0", "b@200.0,200.0"), describe(client.getCurrentPlayers()));
+
+        StateDelta stale = new StateDelta(4, 3, false, List.of(), List.of(), List.of("b"), List.of(), List.of());
+        assertEquals(2, client.applyEncodedDelta(encoder.encode(stale)));
+    }
+
+    @Test
+    void foodsKeepTheirListWhileOnlyPlayersMove() throws RemoteException {
+        client.applyDelta(StateDelta.keyframe(1, List.of(A), List.of(F1, F2)));
+        List<Food> foods = client.getCurrentFoods();
+        client.applyDelta(new StateDelta(2, 1, false, List.of(), List.of(A.moveTo(101, 100)), List.of(), List.of(),
+                List.of()));
+        assertSame(foods, client.getCurrentFoods()); // Views keep their cached food drawings
+    }
+
+    private static List<String> describe(List<? extends Entity> entities) {
+        return entities.stream()
+                .map(entity -> entity.getId() + "@" + entity.getX() + "," + entity.getY())
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,93 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.FoodStore;
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.rmi.RemoteException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Node 1 of a two-node cluster whose node 0 is played by the test; calls node 0 would make fail.
+ */
+class GameServerClusterTest {
+    private static final double TICK_SECONDS = TestServers.TICK_SECONDS;
+    private static final ClusterTopology TOPOLOGY = new ClusterTopology(2000, 1000,
+            List.of("rmi://localhost:1/AgarGameServer", "rmi://localhost:1/AgarGameServer"));
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    private GameServerImpl node;
+
+    @BeforeEach
+    void setUp() throws RemoteException {
+        node = servers.createNode(TOPOLOGY, 1);
+        node.setFoodDensity(FoodStore.Density.fixed(0));
+    }
+
+    @Test
+    void ghostEatenHereDoesNotComeBack() throws RemoteException {
+        node.placePlayer(new Player("big", 1030, 500, 10_000));
+        Player ghost = new Player("small", 1000, 500, 120);
+        node.updateBorder(0, List.of(ghost), List.of());
+        node.tick(TICK_SECONDS, false);
+        assertEquals(10_120, massOf("big"));
+
+        // A border sent before node 0 heard of the meal, then the handoff that was already on its way
+        node.updateBorder(0, List.of(ghost), List.of());
+        node.tick(TICK_SECONDS, false);
+        node.acceptPlayer(new PlayerHandoff(ghost.moveTo(1021, 500), 1, 0, null, 0, 0, false));
+        node.tick(TICK_SECONDS, false);
+
+        assertEquals(10_120, massOf("big"));
+        assertFalse(node.isPlayerAlive("small"));
+    }
+
+    @Test
+    void foodIsGrantedToOneClaimOnly() throws RemoteException {
+        node.setFoodDensity(FoodStore.Density.fixed(1));
+        node.tick(TICK_SECONDS, false);
+        Food food = node.getAllFoods().get(0);
+
+        assertTrue(node.claimFood(food));
+        assertFalse(node.claimFood(food));
+    }
+
+    @Test
+    void foodEatenHereIsNotGrantedToAClaim() throws RemoteException {
+        node.setFoodDensity(FoodStore.Density.fixed(1));
+        node.tick(TICK_SECONDS, false);
+        Food food = node.getAllFoods().get(0);
+        node.placePlayer(new Player("p", food.getX(), food.getY(), 1000));
+        node.tick(TICK_SECONDS, false);
+        assertEquals(1100, massOf("p"));
+
+        assertFalse(node.claimFood(food));
+    }
+
+    @Test
+    void ghostFoodIsNotCreditedUntilItsOwnerGrantsIt() throws RemoteException {
+        node.placePlayer(new Player("big", 1010, 500, 10_000));
+        node.updateBorder(0, List.of(), List.of(new Food("n0f3", 1000, 500, 100)));
+        node.tick(TICK_SECONDS, false);
+        node.tick(TICK_SECONDS, false);
+
+        assertEquals(10_000, massOf("big"));
+    }
+
+    private double massOf(String playerId) throws RemoteException {
+        return node.getAllPlayers().stream()
+                .filter(player -> player.getId().equals(playerId))
+                .findFirst()
+                .orElseThrow()
+                .getMass();
+    }
+}
@@ -0,0 +1,117 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.lang.reflect.Proxy;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameServerImplTest {
+    private static final double TICK_SECONDS = TestServers.TICK_SECONDS;
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    private GameServerImpl server;
+
+    @BeforeEach
+    void setUp() throws RemoteException {
+        server = servers.create(1000, 0, TestServers.SEED, 1);
+    }
+
+    @Test
+    void playersMoveOnTheServer() throws RemoteException {
+        server.placePlayer(new Player("a", 500, 500, 100));
+        server.setPlayerDirection("a", 1, 0);
+        server.tick(TICK_SECONDS, false);
+        server.tick(TICK_SECONDS, false);
+
+        Player moved = server.getAllPlayers().get(0);
+        assertEquals(500 + 2 * Player.SPEED * TICK_SECONDS, moved.getX(), 1e-9);
+        assertEquals(500, moved.getY());
+    }
+
+    @Test
+    void joiningPlayersAreSpawnedByTheServer() throws RemoteException {
+        Player spawned = server.joinGame("a");
+        assertEquals("a", spawned.getId());
+        assertEquals(120, spawned.getMass());
+        assertTrue(spawned.getX() >= 0 && spawned.getX() <= 1000 && spawned.getY() >= 0 && spawned.getY() <= 1000);
+        assertEquals(List.of(spawned), server.getAllPlayers());
+    }
+
+    @Test
+    void anIdInPlayCanOnlyBeJoinedAgainBeforeItsClientRegisters() throws RemoteException {
+        server.joinGame("a");
+        server.setPlayerDirection("a", 1, 0);
+        server.tick(TICK_SECONDS, false);
+        Player moved = server.getAllPlayers().get(0);
+        assertSame(moved, server.joinGame("a")); // A retry leaves the player as it is
+
+        server.registerClient(client("a", () -> { }));
+        assertThrows(RemoteException.class, () -> server.joinGame("a"));
+        server.addBots(1);
+        assertThrows(RemoteException.class, () -> server.joinGame("bot_0"));
+        assertEquals(2, server.getAllPlayers().size());
+    }
+
+    @Test
+    void aRemotePlayerOnlyGivesItsId() throws RemoteException {
+        AtomicInteger calls = new AtomicInteger();
+        RemotePlayer remote = (RemotePlayer) Proxy.newProxyInstance(RemotePlayer.class.getClassLoader(),
+                new Class<?>[] {RemotePlayer.class}, (proxy, method, args) -> {
+                    calls.incrementAndGet();
+                    if (method.getName().equals("getId")) {
+                        return "r";
+                    }
+                    throw new RemoteException("Only the id may be read");
+                });
+        server.registerPlayer(remote);
+        Player spawned = server.getAllPlayers().get(0);
+        server.setPlayerDirection("r", 0, 1);
+        for (int tick = 0; tick < 10; tick++) {
+            server.tick(TICK_SECONDS, true);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(120, spawned.getMass());
+        assertTrue(server.getAllPlayers().get(0).getY() > spawned.getY() || spawned.getY() == 1000);
+    }
+
+    @Test
+    void eatenPlayersLeaveAndTheirClientIsTold() throws Exception {
+        CountDownLatch died = new CountDownLatch(1);
+        server.placePlayer(new Player("big", 500, 500, 1000));
+        server.placePlayer(new Player("small", 505, 500, 100));
+        server.registerClient(client("small", died::countDown));
+        server.tick(TICK_SECONDS, true);
+
+        List<Player> players = server.getAllPlayers();
+        assertEquals(List.of("big"), players.stream().map(Player::getId).toList());
+        assertEquals(1100, players.get(0).getMass());
+        assertTrue(died.await(5, TimeUnit.SECONDS));
+    }
+
+    private static GameClient client(String playerId, Runnable onDeath) {
+        return (GameClient) Proxy.newProxyInstance(GameClient.class.getClassLoader(),
+                new Class<?>[] {GameClient.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getPlayerId" -> playerId;
+                    case "notifyPlayerDeath" -> {
+                        onDeath.run();
+                        yield null;
+                    }
+                    case "applyDelta", "applyEncodedDelta" -> 0L;
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,48 @@
+package it.unibo.agar.model.rmi;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InputSenderTest {
+    private static final long SEND_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    void directionIsSentAgainAfterAFailedCall() throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger(1);
+        List<double[]> inputs = new CopyOnWriteArrayList<>();
+        GameServer server = (GameServer) Proxy.newProxyInstance(GameServer.class.getClassLoader(),
+                new Class<?>[] {GameServer.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("submitInput")) {
+                        if (failures.getAndDecrement() > 0) {
+                            throw new RemoteException("Connection refused");
+                        }
+                        inputs.add(new double[] {(double) args[2], (double) args[3]});
+                    }
+                    return method.getReturnType() == long.class ? 0L : null;
+                });
+        InputSender sender = new InputSender(server, "p1", SEND_INTERVAL_NANOS);
+        sender.start();
+        try {
+            sender.setDirection(0.6, -0.8);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (inputs.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(failures.get() < 0);
+            assertEquals(1, inputs.size());
+            assertEquals(0.6, inputs.get(0)[0]);
+            assertEquals(-0.8, inputs.get(0)[1]);
+        } finally {
+            sender.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.SpatialGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InterestAreaTest {
+    private final InterestArea area = new InterestArea(0, 0, 600, 600);
+
+    @Test
+    void entityStraddlingTheEdgeIsInside() {
+        Player big = new Player("big", 640, 300, massFor(100)); // Center 40 units outside
+        assertTrue(area.contains(big));
+    }
+
+    @Test
+    void entityNearACornerIsInsideOnlyIfItsBodyReachesIt() {
+        Player player = new Player("p", 620, 620, massFor(30)); // Corner about 28 units away
+        assertTrue(area.contains(player));
+        assertFalse(area.contains(new Player("p", 625, 625, massFor(30)))); // Corner about 35 units away
+    }
+
+    @Test
+    void entityEntirelyOutsideIsNot() {
+        assertFalse(area.contains(new Food("f", 700, 300, 10)));
+        assertTrue(area.contains(new Food("f", 300, 300, 10)));
+    }
+
+    @Test
+    void selectFindsEntitiesWhoseCentersLieInCellsOutsideTheArea() {
+        SpatialGrid<Player> grid = new SpatialGrid<>(50);
+        Player big = new Player("big", 690, 300, massFor(100)); // Two cells past the edge, body still inside
+        grid.put(big);
+        grid.put(new Player("far", 900, 300, massFor(100)));
+        assertEquals(List.of(big), area.select(grid));
+    }
+
+    private static double massFor(double radius) {
+        return Math.PI * radius * radius;
+    }
+}
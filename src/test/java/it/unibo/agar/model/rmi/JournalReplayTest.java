@@ -0,0 +1,92 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalReplayTest {
+    private static final double TICK_SECONDS = TestServers.TICK_SECONDS;
+    private static final int TICKS = 20;
+    private static final int CHECKPOINT_INTERVAL = 5;
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    @TempDir
+    Path directory;
+    private GameServerImpl server;
+
+    @BeforeEach
+    void setUp() throws RemoteException {
+        server = servers.create();
+    }
+
+    @Test
+    void replayRebuildsTheRecordedWorld() throws IOException {
+        Path file = directory.resolve("agar.journal");
+        server.startJournal(file, CHECKPOINT_INTERVAL);
+        play();
+        server.stopJournal();
+
+        JournalReplay journal = JournalReplay.open(file);
+        assertEquals(TICKS, journal.getTicks());
+        assertEquals(List.of(0L, 5L, 10L, 15L, 20L), journal.getCheckpointTicks());
+        JournalReplay.Result result = journal.replayFromStart(TICKS, 1);
+        assertTrue(result.mismatches().isEmpty(), "Diverged at " + result.mismatches());
+        assertEquals(3, result.verifiedCheckpoints()); // Those of ticks 5 to 15; the one of tick 20 follows the last tick
+        assertEquals(describe(server.getAllPlayers()), describe(result.players()));
+        assertEquals(2, journal.replay(12, 1).simulatedTicks()); // From the checkpoint of tick 10
+        assertEquals(describe(server.getAllPlayers()), describe(journal.replay(TICKS, 1).players()));
+    }
+
+    @Test
+    void journalRollsOverAtCheckpointsAndKeepsTheNewestSegments() throws IOException {
+        Path file = directory.resolve("agar.journal");
+        server.startJournal(file, CHECKPOINT_INTERVAL, 1, 1); // Every checkpoint starts a new segment
+        play();
+        server.stopJournal();
+
+        assertTrue(Files.exists(directory.resolve("agar.journal.1")));
+        assertFalse(Files.exists(directory.resolve("agar.journal.2")));
+        JournalReplay current = JournalReplay.open(file);
+        assertEquals(List.of(20L), current.getCheckpointTicks());
+        JournalReplay previous = JournalReplay.open(directory.resolve("agar.journal.1"));
+        assertEquals(List.of(15L), previous.getCheckpointTicks());
+        assertEquals(TICKS, previous.getTicks());
+        JournalReplay.Result result = previous.replay(TICKS, 1);
+        assertEquals(5, result.simulatedTicks());
+        assertEquals(describe(server.getAllPlayers()), describe(result.players()));
+    }
+
+    private void play() throws RemoteException {
+        server.placePlayer(new Player("a", 100, 100, 400));
+        server.placePlayer(new Player("b", 500, 500, 120));
+        for (int tick = 0; tick < TICKS; tick++) {
+            server.setPlayerDirection("a", 1, tick % 3 - 1);
+            server.setPlayerDirection("b", -1, 0.5);
+            if (tick == 8) {
+                server.placePlayer(new Player("c", 800, 200, 150));
+            }
+            server.tick(TICK_SECONDS, tick % 2 == 0);
+        }
+    }
+
+    private static Map<String, String> describe(List<Player> players) {
+        return players.stream().collect(Collectors.toMap(Player::getId,
+                player -> player.getX() + "," + player.getY() + "," + player.getMass()));
+    }
+}
@@ -0,0 +1,80 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaseTest {
+    private static final long LEASE_MILLIS = 200;
+    private static final long WAIT_SECONDS = 5;
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    private GameServerImpl server;
+
+    @BeforeEach
+    void setUp() throws RemoteException {
+        server = servers.create();
+        server.setLeaseMillis(LEASE_MILLIS);
+    }
+
+    @Test
+    void silentPlayersAreEvicted() throws Exception {
+        server.placePlayer(new Player("a", 100, 100, 100));
+        await(() -> server.getAllPlayers().isEmpty());
+        assertEquals(0, server.renewLease("a")); // Gone, so the client must join again
+    }
+
+    @Test
+    void renewedLeasesKeepPlayersIn() throws Exception {
+        server.placePlayer(new Player("a", 100, 100, 100));
+        server.placePlayer(new Player("b", 200, 200, 100));
+        // Until the silent player is evicted, the lease of the other one keeps being renewed
+        await(() -> {
+            assertEquals(LEASE_MILLIS, server.renewLease("a"));
+            return ids().equals(List.of("a"));
+        });
+    }
+
+    @Test
+    void inputRenewsTheLease() throws Exception {
+        server.placePlayer(new Player("a", 100, 100, 100));
+        server.placePlayer(new Player("b", 200, 200, 100));
+        await(() -> {
+            server.setPlayerDirection("a", 1, 0);
+            return ids().equals(List.of("a"));
+        });
+    }
+
+    @Test
+    void leaseMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> server.setLeaseMillis(0));
+        assertTrue(server.getLeaseMillis() > 0);
+    }
+
+    private List<String> ids() throws RemoteException {
+        return server.getAllPlayers().stream().map(Player::getId).toList();
+    }
+
+    private interface Condition {
+        boolean holds() throws RemoteException;
+    }
+
+    private static void await(Condition condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (!condition.holds()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}
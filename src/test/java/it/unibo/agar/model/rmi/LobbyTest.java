@@ -0,0 +1,101 @@
+package it.unibo.agar.model.rmi;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LobbyTest {
+    private static final long WAIT_SECONDS = 5;
+
+    private LobbyImpl lobby;
+
+    @BeforeEach
+    void setUp() throws RemoteException {
+        lobby = new LobbyImpl(2, 50, 1);
+    }
+
+    @AfterEach
+    void tearDown() throws RemoteException {
+        lobby.shutdown();
+        UnicastRemoteObject.unexportObject(lobby, true);
+    }
+
+    @Test
+    void roomsAreListedByName() throws RemoteException {
+        lobby.createRoom("zeta", 1000, 1000, 4);
+        RoomInfo alpha = lobby.createRoom("alpha", 2000, 500, 8);
+        assertEquals("alpha", alpha.name());
+        assertEquals(2000, alpha.worldWidth());
+        assertEquals(8, alpha.capacity());
+        assertFalse(alpha.ticking()); // Nobody is in it yet
+        assertEquals(List.of("alpha", "zeta"), lobby.listRooms().stream().map(RoomInfo::name).toList());
+        assertEquals(2000, lobby.joinRoom("alpha").getWorldWidth());
+    }
+
+    @Test
+    void invalidRoomsAreRefused() throws RemoteException {
+        assertThrows(RemoteException.class, () -> lobby.createRoom("no spaces", 1000, 1000, 4));
+        assertThrows(RemoteException.class, () -> lobby.createRoom("huge", 100000, 1000, 4));
+        assertThrows(RemoteException.class, () -> lobby.createRoom("empty", 1000, 1000, 0));
+        lobby.createRoom("a", 1000, 1000, 4);
+        assertThrows(RemoteException.class, () -> lobby.createRoom("a", 1000, 1000, 4));
+        lobby.createRoom("b", 1000, 1000, 4);
+        assertThrows(RemoteException.class, () -> lobby.createRoom("c", 1000, 1000, 4)); // At most two rooms
+        assertThrows(RemoteException.class, () -> lobby.joinRoom("c"));
+    }
+
+    @Test
+    void aFullRoomRefusesNewPlayers() throws RemoteException {
+        lobby.createRoom("small", 1000, 1000, 2);
+        GameServer room = lobby.joinRoom("small");
+        room.joinGame("a");
+        room.joinGame("b");
+        assertThrows(RemoteException.class, () -> room.joinGame("c"));
+        room.joinGame("a"); // Rejoining takes no extra place
+        assertEquals(2, lobby.room("small").getRoomInfo().players());
+    }
+
+    @Test
+    void roomsOnlyTickWhileSomeoneIsIn() throws Exception {
+        lobby.createRoom("idle", 1000, 1000, 4);
+        GameServerImpl room = lobby.room("idle");
+        room.joinGame("a");
+        await(() -> room.getRoomInfo().ticks() > 3);
+        assertTrue(room.getRoomInfo().ticking());
+
+        room.unregisterPlayer("a");
+        await(() -> !room.getRoomInfo().ticking());
+        Thread.sleep(50); // The room suspends itself from its last tick, which is counted once it returns
+        long ticks = room.getRoomInfo().ticks();
+        Thread.sleep(100);
+        assertEquals(ticks, room.getRoomInfo().ticks());
+    }
+
+    @Test
+    void closedRoomsAreGone() throws RemoteException {
+        lobby.createRoom("gone", 1000, 1000, 4);
+        lobby.closeRoom("gone");
+        assertEquals(List.of(), lobby.listRooms());
+        assertThrows(RemoteException.class, () -> lobby.closeRoom("gone"));
+        lobby.createRoom("gone", 1000, 1000, 4); // The name is free again
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Entity;
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegionParallelismTest {
+    private static final int WORLD_SIZE = 4000; // 4x4 regions
+    private static final double TICK_SECONDS = TestServers.TICK_SECONDS;
+    private static final int PLAYERS = 60;
+    private static final int TICKS = 150;
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    @Test
+    void regionWorkersSplitTheWorld() {
+        assertEquals(16, new RegionWorkers(WORLD_SIZE, WORLD_SIZE, 4).regionCount());
+        assertTrue(new RegionWorkers(WORLD_SIZE, WORLD_SIZE, 4).isParallel());
+        assertFalse(new RegionWorkers(WORLD_SIZE, WORLD_SIZE, 1).isParallel());
+        assertFalse(new RegionWorkers(500, 500, 4).isParallel()); // A single region needs no workers
+    }
+
+    @Test
+    void resultsComeBackInInputOrder() {
+        RegionWorkers workers = new RegionWorkers(WORLD_SIZE, WORLD_SIZE, 4);
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            inputs.add(i);
+        }
+        assertEquals(inputs.stream().map(i -> i * i).toList(), workers.inParallel(inputs, i -> i * i));
+        List<List<Integer>> batches = workers.split(inputs);
+        assertEquals(4, batches.size());
+        assertEquals(inputs, batches.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void theGameDoesNotDependOnTheNumberOfWorkers() throws RemoteException {
+        GameServerImpl sequential = play(1);
+        GameServerImpl parallel = play(4);
+        assertTrue(sequential.getAllPlayers().size() < PLAYERS, "Nobody was eaten");
+        assertEquals(describe(sequential.getAllPlayers()), describe(parallel.getAllPlayers()));
+        assertEquals(describe(sequential.getAllFoods()), describe(parallel.getAllFoods()));
+    }
+
+    private GameServerImpl play(int parallelism) throws RemoteException {
+        GameServerImpl server = servers.create(WORLD_SIZE, 2000, TestServers.SEED, parallelism);
+        Random random = new Random(7);
+        for (int i = 0; i < PLAYERS; i++) {
+            // Players crowd the region borders, so meals cross them
+            double x = 1000 * (1 + random.nextInt(3)) + random.nextGaussian() * 40;
+            double y = random.nextDouble() * WORLD_SIZE;
+            server.placePlayer(new Player("p" + i, x, y, 50 + random.nextInt(400)));
+        }
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (int i = 0; i < PLAYERS; i++) {
+                server.setPlayerDirection("p" + i, random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1);
+            }
+            server.tick(TICK_SECONDS, false);
+        }
+        return server;
+    }
+
+    private static List<String> describe(List<? extends Entity> entities) {
+        return entities.stream()
+                .map(entity -> entity.getId() + "@" + entity.getX() + "," + entity.getY() + "," + entity.getMass())
+                .sorted()
+                .toList();
+    }
+}
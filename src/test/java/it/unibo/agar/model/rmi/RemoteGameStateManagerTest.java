@@ -0,0 +1,48 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import it.unibo.agar.model.World;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemoteGameStateManagerTest {
+
+    @Test
+    void worldOnlyMovesOnInAdvanceFrame() throws RemoteException {
+        GameServer server = (GameServer) Proxy.newProxyInstance(GameServer.class.getClassLoader(),
+                new Class<?>[] {GameServer.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getWorldWidth", "getWorldHeight" -> 1000;
+                    case "getTicksPerSecond" -> 30.0;
+                    case "renewLease" -> 0L;
+                    default -> null;
+                });
+        GameClientImpl client = new GameClientImpl("p1");
+        RemoteGameStateManager manager = new RemoteGameStateManager(server, client, "p1");
+        try {
+            client.updateGameState(List.of(new Player("p1", 500, 500, 120)), List.of(new Food("f1", 10, 10, 100)));
+            assertTrue(manager.getWorld().getPlayers().isEmpty());
+
+            manager.setPlayerDirection("p1", 1, 0);
+            manager.advanceFrame();
+            World frame = manager.getWorld();
+            assertEquals(1, frame.getPlayers().size());
+            assertSame(frame, manager.getWorld());
+
+            manager.advanceFrame();
+            assertNotSame(frame, manager.getWorld());
+        } finally {
+            manager.close();
+            UnicastRemoteObject.unexportObject(client, true);
+        }
+    }
+}
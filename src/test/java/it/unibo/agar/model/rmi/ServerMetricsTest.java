@@ -0,0 +1,76 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.lang.management.ManagementFactory;
+import java.rmi.RemoteException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class ServerMetricsTest {
+    private static final double TICK_SECONDS = TestServers.TICK_SECONDS;
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    private GameServerImpl server;
+    private int registeredBefore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registeredBefore = registered();
+        server = servers.create(1000, 50, TestServers.SEED, 1);
+    }
+
+    @Test
+    void theServerIsPublishedUntilItShutsDown() throws Exception {
+        assertEquals(registeredBefore + 1, registered());
+        server.shutdown();
+        assertEquals(registeredBefore, registered());
+    }
+
+    @Test
+    void gaugesAreReadFromTheServer() throws RemoteException {
+        ServerMetrics metrics = server.getMetrics();
+        server.placePlayer(new Player("a", 100, 100, 100));
+        server.addBots(2);
+        assertEquals(3, metrics.getConnectedPlayers());
+        assertEquals(2, metrics.getBotCount());
+        assertEquals(50, metrics.getFoodCount());
+        assertFalse(metrics.isTicking());
+    }
+
+    @Test
+    void inputsAndPhasesAreCounted() throws RemoteException {
+        ServerMetrics metrics = server.getMetrics();
+        server.placePlayer(new Player("a", 100, 100, 100));
+        server.setPlayerDirection("a", 1, 0);
+        server.submitInput("a", 5, 0, 1);
+        server.submitInput("a", 4, 1, 1); // Older than the last one
+        server.setPlayerDirection("ghost", 1, 0); // Not in the game
+        assertEquals(2, metrics.getDirectionUpdates());
+        assertEquals(1, metrics.getDiscardedInputs());
+
+        server.tick(TICK_SECONDS, false);
+        server.tick(TICK_SECONDS, true);
+        assertEquals(2, metrics.getMovePhase().count());
+        assertEquals(2, metrics.getEatingPhase().count());
+        assertEquals(1, metrics.getBroadcastPhase().count()); // Only ticks that broadcast
+
+        metrics.resetHistograms();
+        assertEquals(0, metrics.getMovePhase().count());
+        assertEquals(0.0, metrics.getMovePhaseMaxMillis());
+    }
+
+    private int registered() throws MalformedObjectNameException {
+        return mbeanServer.queryNames(new ObjectName("it.unibo.agar:type=GameServer,*"), null).size();
+    }
+}
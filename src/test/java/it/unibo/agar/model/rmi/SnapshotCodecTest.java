@@ -0,0 +1,63 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Food;
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotCodecTest {
+    private final SnapshotCodec.Encoder encoder = new SnapshotCodec.Encoder();
+    private final SnapshotCodec.Decoder decoder = new SnapshotCodec.Decoder();
+
+    @Test
+    void keyframeRoundTrips() {
+        Player player = new Player("p1", 10.5, 20.25, 120);
+        Food food = new Food("f1", 300, 400, 100);
+        StateDelta decoded = decoder.decode(encoder.encode(StateDelta.keyframe(7, List.of(player), List.of(food))));
+
+        assertTrue(decoded.isKeyframe());
+        assertEquals(7, decoded.getVersion());
+        assertEquals("p1", decoded.getAddedPlayers().get(0).getId());
+        assertEquals(20.25, decoded.getAddedPlayers().get(0).getY(), 1e-4);
+        assertEquals(120, decoded.getAddedPlayers().get(0).getMass(), 1e-4);
+        assertEquals("f1", decoded.getAddedFoods().get(0).getId());
+    }
+
+    @Test
+    void deltasResolveHandlesToIds() {
+        decoder.decode(encoder.encode(StateDelta.keyframe(1, List.of(new Player("p1", 0, 0, 120)),
+                List.of(new Food("f1", 5, 5, 100)))));
+
+        StateDelta delta = new StateDelta(2, 1, false, List.of(), List.of(new Player("p1", 3, 4, 150)),
+                List.of(), List.of(), List.of("f1"));
+        byte[] frame = encoder.encode(delta);
+        assertFalse(SnapshotCodec.isKeyframe(frame));
+        assertEquals(1, SnapshotCodec.baseVersion(frame));
+
+        StateDelta decoded = decoder.decode(frame);
+        assertEquals("p1", decoded.getMovedPlayers().get(0).getId());
+        assertEquals(150, decoded.getMovedPlayers().get(0).getMass(), 1e-4);
+        assertEquals(List.of("f1"), decoded.getRemovedFoodIds());
+    }
+
+    @Test
+    void movingAnUnknownPlayerFailsWithAClearMessage() {
+        StateDelta delta = new StateDelta(2, 1, false, List.of(), List.of(new Player("ghost", 0, 0, 120)),
+                List.of(), List.of(), List.of());
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> encoder.encode(delta));
+        assertTrue(e.getMessage().contains("ghost"));
+    }
+
+    @Test
+    void removingAnUnknownFoodFailsWithAClearMessage() {
+        StateDelta delta = new StateDelta(2, 1, false, List.of(), List.of(), List.of(), List.of(), List.of("f9"));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> encoder.encode(delta));
+        assertTrue(e.getMessage().contains("f9"));
+    }
+}
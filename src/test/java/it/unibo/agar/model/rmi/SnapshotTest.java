@@ -0,0 +1,113 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.Entity;
+import it.unibo.agar.model.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotTest {
+    private static final double TICK_SECONDS = TestServers.TICK_SECONDS;
+
+    @RegisterExtension
+    final TestServers servers = new TestServers();
+
+    @TempDir
+    Path directory;
+    private GameServerImpl server;
+    private GameServerImpl restarted;
+
+    @BeforeEach
+    void setUp() throws RemoteException {
+        server = newServer(42);
+        restarted = newServer(7);
+    }
+
+    @Test
+    void restoredPlayersResumeWhereTheyWere() throws IOException {
+        Path file = saveGame();
+
+        assertEquals(2, restarted.restoreSnapshot(file));
+        assertEquals(describe(server.getAllFoods()), describe(restarted.getAllFoods()));
+        assertEquals(List.of(), restarted.getAllPlayers());
+        restarted.joinGame("a");
+        assertEquals(describe(server.getAllPlayers().stream().filter(p -> p.getId().equals("a")).toList()),
+                describe(restarted.getAllPlayers()));
+        assertEquals(1, restarted.getParkedPlayerCount());
+    }
+
+    @Test
+    void parkedPlayersAreSavedAgainUntilTheyRejoin() throws IOException {
+        Path file = saveGame();
+        restarted.restoreSnapshot(file);
+        restarted.joinGame("a");
+        Path again = directory.resolve("again.snapshot");
+        restarted.startSnapshots(again, 1);
+        restarted.stopSnapshots();
+
+        GameServerImpl third = newServer(3);
+        assertEquals(2, third.restoreSnapshot(again)); // "a" as it is now, "b" still parked
+        third.joinGame("b");
+        assertEquals(describe(server.getAllPlayers().stream().filter(p -> p.getId().equals("b")).toList()),
+                describe(third.getAllPlayers()));
+    }
+
+    @Test
+    void parkedPlayersExpireWhenTheirClientsDoNotRejoin() throws IOException, InterruptedException {
+        Path file = saveGame();
+        restarted.setParkedPlayerTtlMillis(1);
+        assertEquals(2, restarted.restoreSnapshot(file));
+        Thread.sleep(20);
+
+        assertEquals(0, restarted.getParkedPlayerCount());
+        Player fresh = restarted.joinGame("a");
+        assertEquals(120, fresh.getMass()); // Spawned anew, not with the mass it had when saved
+        assertEquals(describe(List.of(fresh)), describe(restarted.getAllPlayers()));
+
+        Path again = directory.resolve("again.snapshot");
+        restarted.startSnapshots(again, 1);
+        restarted.stopSnapshots();
+        GameServerImpl third = newServer(3);
+        assertEquals(1, third.restoreSnapshot(again)); // Only the player that rejoined
+    }
+
+    @Test
+    void parkedPlayerTtlMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> restarted.setParkedPlayerTtlMillis(0));
+    }
+
+    private Path saveGame() throws RemoteException {
+        Path file = directory.resolve("agar.snapshot");
+        server.placePlayer(new Player("a", 100, 100, 400));
+        server.placePlayer(new Player("b", 500, 500, 120));
+        server.startSnapshots(file, 5);
+        for (int tick = 0; tick < 12; tick++) {
+            server.setPlayerDirection("a", 1, 0.5);
+            server.setPlayerDirection("b", -1, 0);
+            server.tick(TICK_SECONDS, false);
+        }
+        server.stopSnapshots(); // Writes the world as it is after the last tick
+        return file;
+    }
+
+    private GameServerImpl newServer(long seed) throws RemoteException {
+        return servers.create(TestServers.WORLD_SIZE, TestServers.FOODS, seed, 1);
+    }
+
+    private static List<String> describe(List<? extends Entity> entities) {
+        return entities.stream()
+                .map(entity -> entity.getId() + "@" + entity.getX() + "," + entity.getY() + "," + entity.getMass())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,55 @@
+package it.unibo.agar.model.rmi;
+
+import it.unibo.agar.model.TickScheduler;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Game servers for tests, registered with {@code @RegisterExtension}. Their game loop is stopped, so each
+ * test drives the ticks itself; every server built here is shut down and unexported after the test.
+ */
+final class TestServers implements AfterEachCallback {
+    static final double TICK_SECONDS = 0.030;
+    static final int WORLD_SIZE = 1000;
+    static final int FOODS = 100;
+    static final long SEED = 42;
+
+    private final List<GameServerImpl> servers = new ArrayList<>();
+
+    GameServerImpl create() throws RemoteException {
+        return create(WORLD_SIZE, FOODS, SEED, 1);
+    }
+
+    GameServerImpl create(int worldSize, int foods, long seed, int parallelism) throws RemoteException {
+        return track(new GameServerImpl(worldSize, worldSize, foods, 1 / TICK_SECONDS,
+                TickScheduler.OverrunPolicy.CATCH_UP, null, seed, parallelism));
+    }
+
+    /**
+     * Node of a cluster, which the test itself has to stand in for the other nodes of.
+     */
+    GameServerImpl createNode(ClusterTopology topology, int index) throws RemoteException {
+        return track(new GameServerImpl(topology, index, 0, 1 / TICK_SECONDS, TickScheduler.OverrunPolicy.CATCH_UP,
+                null));
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws RemoteException {
+        for (GameServerImpl server : servers) {
+            server.shutdown();
+            UnicastRemoteObject.unexportObject(server, true);
+        }
+        servers.clear();
+    }
+
+    private GameServerImpl track(GameServerImpl server) {
+        servers.add(server);
+        server.stopLoop();
+        return server;
+    }
+}
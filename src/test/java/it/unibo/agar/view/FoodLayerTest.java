@@ -0,0 +1,68 @@
+package it.unibo.agar.view;
+
+import it.unibo.agar.model.Food;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FoodLayerTest {
+    private static final int SIZE = 512;
+
+    private final FoodLayer layer = new FoodLayer();
+    private final BufferedImage screen = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+
+    @Test
+    void foodOnATileBorderIsDrawnWhole() {
+        draw(List.of(new Food("f", 256, 100, 400)), 0, 0);
+        assertTrue(isFood(250, 100));
+        assertTrue(isFood(262, 100));
+        assertFalse(isFood(100, 100));
+    }
+
+    @Test
+    void foodsAreDrawnRelativeToTheOffset() {
+        final List<Food> foods = List.of(new Food("f", 300, 300, 400));
+        draw(foods, 200, 200);
+        assertTrue(isFood(100, 100));
+        assertFalse(isFood(300, 300));
+        draw(foods, 0, 0); // Same tiles, drawn elsewhere
+        assertTrue(isFood(300, 300));
+        assertFalse(isFood(100, 100));
+    }
+
+    @Test
+    void tilesAreRedrawnWhenTheirFoodChanges() {
+        draw(List.of(new Food("f", 100, 100, 400), new Food("g", 400, 400, 400)), 0, 0);
+        assertTrue(isFood(100, 100));
+
+        final List<Food> respawned = List.of(new Food("f", 150, 100, 400), new Food("g", 400, 400, 400));
+        draw(respawned, 0, 0);
+        assertFalse(isFood(100, 100));
+        assertTrue(isFood(150, 100));
+        assertTrue(isFood(400, 400)); // Its tile did not change
+
+        draw(List.of(new Food("g", 400, 400, 400)), 0, 0);
+        assertFalse(isFood(150, 100));
+        assertTrue(isFood(400, 400));
+    }
+
+    private void draw(final List<Food> foods, final double offsetX, final double offsetY) {
+        final Graphics2D g = screen.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, SIZE, SIZE);
+            layer.draw(g, foods, offsetX, offsetY, SIZE, SIZE);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private boolean isFood(final int x, final int y) {
+        return screen.getRGB(x, y) == AgarViewUtils.FOOD_COLOR.getRGB();
+    }
+}